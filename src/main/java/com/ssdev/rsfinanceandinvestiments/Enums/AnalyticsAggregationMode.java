@@ -0,0 +1,6 @@
+package com.ssdev.rsfinanceandinvestiments.Enums;
+
+public enum AnalyticsAggregationMode {
+    DATABASE,
+    IN_MEMORY
+}
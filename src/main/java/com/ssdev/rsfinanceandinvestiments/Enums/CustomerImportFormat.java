@@ -0,0 +1,16 @@
+package com.ssdev.rsfinanceandinvestiments.Enums;
+
+public enum CustomerImportFormat {
+    // Header row with CustomerRequest property names, one customer per line
+    CSV,
+    // One CustomerRequest JSON object per line
+    NDJSON;
+
+    public static CustomerImportFormat fromContentType(String contentType) {
+        if (contentType != null && (contentType.startsWith("application/x-ndjson")
+                || contentType.startsWith("application/jsonl") || contentType.startsWith("application/json"))) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+}
@@ -0,0 +1,7 @@
+package com.ssdev.rsfinanceandinvestiments.Enums;
+
+// Keyset order of GET /api/customers; ties on name are broken by id
+public enum CustomerSortField {
+    ID,
+    NAME
+}
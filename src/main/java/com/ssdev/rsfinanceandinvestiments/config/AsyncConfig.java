@@ -0,0 +1,30 @@
+package com.ssdev.rsfinanceandinvestiments.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AsyncConfig {
+
+	/**
+	 * Virtual thread per EMI schedule generation. Waiting jobs are parked
+	 * virtual threads; ScheduleGenerationJobService caps how many run at once.
+	 */
+	@Bean(name = "emiScheduleExecutor", destroyMethod = "close")
+	public ExecutorService emiScheduleExecutor() {
+		return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("emi-schedule-", 0).factory());
+	}
+
+	/**
+	 * Platform threads for the partitions of the overdue sweep: each holds a
+	 * connection while its UPDATE runs, so keep this below the pool size.
+	 */
+	@Bean(name = "overdueSweepExecutor", destroyMethod = "close")
+	public ExecutorService overdueSweepExecutor(@Value("${emi.overdue-sweep.parallelism:4}") int parallelism) {
+		return Executors.newFixedThreadPool(parallelism, Thread.ofPlatform().name("overdue-sweep-", 0).factory());
+	}
+}
@@ -4,12 +4,16 @@ package com.ssdev.rsfinanceandinvestiments.controller;
 import com.ssdev.rsfinanceandinvestiments.Enums.MonthCategory;
 import com.ssdev.rsfinanceandinvestiments.dto.MonthlyAnalyticsResponse;
 import com.ssdev.rsfinanceandinvestiments.dto.RecentPayerResponse;
-import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
 import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.service.AnalyticsCache;
+import com.ssdev.rsfinanceandinvestiments.service.AnalyticsRequestCoalescer;
 import com.ssdev.rsfinanceandinvestiments.service.AnalyticsService;
+import com.ssdev.rsfinanceandinvestiments.service.PortfolioRollupService;
+import com.ssdev.rsfinanceandinvestiments.service.RecentPayerAssembler;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,8 +32,17 @@ public class AnalyticsController {
     @Autowired
     private EMIScheduleRepository emiScheduleRepository;
     
-    @Autowired 
-    private CustomerRepository customerRepository;
+    @Autowired
+    private RecentPayerAssembler recentPayerAssembler;
+
+    @Autowired
+    private PortfolioRollupService portfolioRollupService;
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private AnalyticsRequestCoalescer requestCoalescer;
 
     @GetMapping("/monthly")
     public ResponseEntity<MonthlyAnalyticsResponse> getMonthlyAnalytics(
@@ -47,6 +60,30 @@ public class AnalyticsController {
     }
     private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
 
+    // Hit/miss/eviction counters for sizing analytics.cache.*
+    @GetMapping("/cache/stats")
+    public Map<String, Object> getCacheStats() {
+        return analyticsCache.stats();
+    }
+
+    // How many callers shared an in-flight computation instead of running their own
+    @GetMapping("/coalescing/stats")
+    public Map<String, Object> getCoalescingStats() {
+        return requestCoalescer.stats();
+    }
+
+    // Recompute monthly_portfolio_rollup from emi_schedules (after bulk SQL fixes etc.)
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<?> rebuildRollup() {
+        try {
+            int months = portfolioRollupService.rebuild();
+            return ResponseEntity.ok(Map.of("months", months));
+        } catch (Exception e) {
+            log.error("❌ Portfolio rollup rebuild failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body("Rollup rebuild failed: " + e.getMessage());
+        }
+    }
+
     
     
     
@@ -88,16 +125,8 @@ public class AnalyticsController {
         List<String> waitlistPhones = emiScheduleRepository.findWaitlistCustomers(today);
         log.info("Waitlist phones: {}", waitlistPhones);
 
-        return waitlistPhones.stream()
-                .map(phone -> {
-                    RecentPayerResponse dto = new RecentPayerResponse();
-                    dto.setCustomer(customerRepository.findByPhoneNumber(phone).orElse(null));
-                    dto.setEmiSchedules(
-                            emiScheduleRepository.findByCustomerPhoneOrderByMonth(phone)
-                    );
-                    return dto;
-                })
-                .toList();
+        return recentPayerAssembler.assemble(waitlistPhones, recentPayerAssembler.loadSchedules(waitlistPhones),
+                phone -> null);
     }
 
 
@@ -8,33 +8,47 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.ssdev.rsfinanceandinvestiments.Enums.CustomerImportFormat;
+import com.ssdev.rsfinanceandinvestiments.dto.BulkPaymentEntry;
+import com.ssdev.rsfinanceandinvestiments.dto.BulkPaymentResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerImportResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerPageRequest;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerPageResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerSearchResponse;
 import com.ssdev.rsfinanceandinvestiments.dto.CustomerUpdateRequest;
 import com.ssdev.rsfinanceandinvestiments.dto.DashboardStatsDTO;
 import com.ssdev.rsfinanceandinvestiments.dto.EMIScheduleResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.PaymentAllocationResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.PaymentReceipt;
 import com.ssdev.rsfinanceandinvestiments.dto.RecentPayerResponse;
 import com.ssdev.rsfinanceandinvestiments.dto.UpdateStatusRequest;
 import com.ssdev.rsfinanceandinvestiments.entity.Customer;
 import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.ScheduleGenerationJob;
 import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
 import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerImportService;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerSearchService;
 import com.ssdev.rsfinanceandinvestiments.service.CustomerService;
 import com.ssdev.rsfinanceandinvestiments.service.EMIScheduleService;
+import com.ssdev.rsfinanceandinvestiments.service.PaymentPostingService;
+import com.ssdev.rsfinanceandinvestiments.service.RecentPayerAssembler;
+import com.ssdev.rsfinanceandinvestiments.service.ScheduleGenerationJobService;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.data.domain.PageRequest;
 
+import java.io.InputStream;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
@@ -55,6 +69,21 @@ public class CustomerController {
 	@Autowired
 	private CustomerRepository customerRepository;
 
+	@Autowired
+	private RecentPayerAssembler recentPayerAssembler;
+
+	@Autowired
+	private CustomerImportService customerImportService;
+
+	@Autowired
+	private ScheduleGenerationJobService scheduleGenerationJobService;
+
+	@Autowired
+	private PaymentPostingService paymentPostingService;
+
+	@Autowired
+	private CustomerSearchService customerSearchService;
+
 	private static final Logger log = LoggerFactory.getLogger(EMIScheduleService.class);
 
 	@PostMapping("/customers")
@@ -62,17 +91,22 @@ public class CustomerController {
 		try {
 			log.info("🔥 Creating customer: {}", request.getName());
 
-			// 1. Save customer
-			Customer customer = customerService.createCustomer(request);
+			// Too many schedules still waiting: refuse before saving anything
+			if (!scheduleGenerationJobService.hasCapacity()) {
+				log.warn("⚠️ Schedule generation queue full, rejecting customer: {}", request.getPhoneNumber());
+				return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5")
+						.body("Server busy generating EMI schedules, please retry shortly");
+			}
 
-			// 2. Trigger async EMI generation
-			emiScheduleService.generateEMIScheduleForCustomer(customer);
+			// Customer and its generation job commit together; workers pick the job up after commit
+			ScheduleGenerationJob job = customerService.createCustomerAndEnqueueSchedule(request);
 
-			log.info("✅ Customer created successfully, EMI schedule generation started in background: {}",
-					customer.getPhoneNumber());
+			log.info("✅ Customer created successfully, EMI schedule generation queued as job {}: {}", job.getId(),
+					request.getPhoneNumber());
 
-			// ✅ Immediate response to client
-			return ResponseEntity.ok("inserted Successfully");
+			// ✅ Immediate response to client; poll the job to know when the schedule exists
+			return ResponseEntity.ok().header(HttpHeaders.LOCATION, "/api/schedule-jobs/" + job.getId())
+					.body("inserted Successfully");
 
 		} catch (Exception e) {
 			log.error("❌ Error creating customer: {}", e.getMessage(), e);
@@ -80,6 +114,37 @@ public class CustomerController {
 		}
 	}
 
+	// 🔥 Bulk onboarding: CSV (header row) or NDJSON body, streamed row by row
+	@PostMapping(value = "/customers/import", consumes = { "text/csv", "application/x-ndjson", "application/jsonl" })
+	public ResponseEntity<CustomerImportResponse> importCustomers(InputStream body,
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) {
+		try {
+			log.info("🔥 Importing customers ({})", contentType);
+
+			CustomerImportResponse report = customerImportService.importCustomers(body,
+					CustomerImportFormat.fromContentType(contentType));
+
+			if (report.getError() != null && report.getImportedCount() == 0) {
+				log.warn("⚠️ Rejected customer import: {}", report.getError());
+				return ResponseEntity.badRequest().body(report);
+			}
+
+			// A read failure after some chunks committed still reports what was imported
+			log.info("✅ Customer import done: {} imported, {} failed", report.getImportedCount(),
+					report.getFailedCount());
+			return ResponseEntity.ok(report);
+
+		} catch (IllegalArgumentException e) {
+			log.warn("⚠️ Rejected customer import: {}", e.getMessage());
+			CustomerImportResponse response = new CustomerImportResponse();
+			response.setError(e.getMessage());
+			return ResponseEntity.badRequest().body(response);
+		} catch (Exception e) {
+			log.error("❌ Error importing customers: {}", e.getMessage(), e);
+			return ResponseEntity.status(500).body(null);
+		}
+	}
+
 	// 🔥 NEW: UPDATE CUSTOMER
 	@PutMapping("/customers/{phoneNumber}")
 	public ResponseEntity<String> updateCustomer(@PathVariable String phoneNumber,
@@ -139,13 +204,27 @@ public class CustomerController {
 	}
 
 
+	// 🔥 Customers screen, one keyset page at a time (?sort=id|name&direction=&size=&afterId=&afterName=
+	// &status=&place=&referBy=&createdFrom=&createdTo=)
 	@GetMapping("/customers")
-	public ResponseEntity<List<Customer>> findAllCustomers() {
+	public ResponseEntity<CustomerPageResponse> findAllCustomers(@ModelAttribute CustomerPageRequest request) {
 		try {
-			List<Customer> customer = customerService.findAll();
-			return new ResponseEntity<>(customer, HttpStatus.CREATED);
-		} catch (Exception ex) {
-			throw ex; // Let GlobalExceptionHandler handle it
+			return ResponseEntity.ok(customerService.findPage(request));
+		} catch (IllegalArgumentException e) {
+			log.warn("⚠️ Invalid customer page request: {}", e.getMessage());
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
+	// 🔍 Operator search by partial name, phone digits, place or referBy; best matches first
+	@GetMapping("/customers/search")
+	public ResponseEntity<CustomerSearchResponse> searchCustomers(@RequestParam("q") String query,
+			@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "20") int size) {
+		try {
+			return ResponseEntity.ok(customerSearchService.search(query, page, size));
+		} catch (IllegalArgumentException e) {
+			log.warn("⚠️ Invalid customer search: {}", e.getMessage());
+			return ResponseEntity.badRequest().build();
 		}
 	}
 
@@ -179,35 +258,8 @@ public class CustomerController {
 	
 	@GetMapping("/customers/recent-payers")  // Changed endpoint name for clarity
 	public ResponseEntity<List<RecentPayerResponse>> getAllCustomers() {
-		List<EMISchedule> allUniqueEMIs = emiScheduleRepository.findAllUniqueCustomers();
-	    
-	    Set<String> phoneNumbers = allUniqueEMIs.stream()
-	        .map(EMISchedule::getCustomerPhone)
-	        .collect(Collectors.toCollection(LinkedHashSet::new));
-	    
-	    // This should now give you all 5 customers
-//	    System.out.println("All customers count: " + phoneNumbers.size()); // Should print 5
-	    
-	    System.out.println("customer reports lenght"+ phoneNumbers );
-
-	    List<RecentPayerResponse> responseList = new ArrayList<>();
-
-	    for (String phone : phoneNumbers) {
-	        Optional<Customer> optionalCustomer = customerRepository.findByPhoneNumber(phone);
-	        if (optionalCustomer.isEmpty())
-	            continue;
-
-	        Customer customer = optionalCustomer.get();
-	        
-	        // Get ALL EMI schedules for this customer (paid, pending, overdue)
-	        List<EMISchedule> emiSchedules = emiScheduleRepository.findByCustomerPhoneOrderByMonth(phone);
-
-	        RecentPayerResponse response = new RecentPayerResponse();
-	        response.setCustomer(customer);
-	        response.setEmiSchedules(emiSchedules);
-
-	        responseList.add(response);
-	    }
+	    // Customers joined to their schedules on customer_id, in one statement
+	    List<RecentPayerResponse> responseList = recentPayerAssembler.allWithSchedules();
 
 	    return ResponseEntity.ok(responseList);
 	}
@@ -229,13 +281,25 @@ public class CustomerController {
 		}
 	}
 
+	// Queue depth and latency of background schedule generation
+	@GetMapping("/schedule-jobs/stats")
+	public Map<String, Object> getScheduleJobStats() {
+		return scheduleGenerationJobService.stats();
+	}
+
+	@GetMapping("/schedule-jobs/{jobId}")
+	public ResponseEntity<ScheduleGenerationJob> getScheduleJob(@PathVariable Long jobId) {
+		return scheduleGenerationJobService.findJob(jobId).map(ResponseEntity::ok)
+				.orElseGet(() -> ResponseEntity.notFound().build());
+	}
+
 	@PutMapping("/emi-schedule/{scheduleId}/status")
 	public ResponseEntity<String> updatePaymentStatus(@PathVariable Long scheduleId,
 			@RequestBody UpdateStatusRequest request) {
 		try {
 			log.info("🔥 Updating payment status for schedule ID: {}", scheduleId);
 
-			emiScheduleService.updatePaymentStatus(scheduleId, request.getStatus(), request.getPaidDate(),
+			paymentPostingService.updatePaymentStatus(scheduleId, request.getStatus(), request.getPaidDate(),
 					request.getPaidAmount());
 
 			log.info("✅ Payment status updated successfully");
@@ -247,4 +311,56 @@ public class CustomerController {
 		}
 	}
 
+	// 💰 Lump-sum payment: allocated to the oldest unpaid EMIs first, partial payments allowed
+	@PostMapping("/customers/{phoneNumber}/payments")
+	public ResponseEntity<PaymentAllocationResponse> allocatePayment(@PathVariable String phoneNumber,
+			@RequestBody PaymentReceipt receipt) {
+		try {
+			log.info("🔥 Allocating payment of ₹{} for customer: {}", receipt.getAmount(), phoneNumber);
+
+			receipt.setCustomerPhone(phoneNumber);
+			PaymentAllocationResponse response = paymentPostingService.allocateReceipts(List.of(receipt)).get(0);
+			if (response.getError() != null) {
+				return ResponseEntity.badRequest().body(response);
+			}
+
+			log.info("✅ Payment allocated: ₹{} applied, ₹{} unallocated", response.getAllocatedAmount(),
+					response.getUnallocatedAmount());
+			return ResponseEntity.ok(response);
+
+		} catch (Exception e) {
+			log.error("❌ Error allocating payment: {}", e.getMessage(), e);
+			return ResponseEntity.status(500).body(null);
+		}
+	}
+
+	// 💰 Month-end receipts for many customers, one result per receipt in request order
+	@PostMapping("/payments/allocations/bulk")
+	public ResponseEntity<List<PaymentAllocationResponse>> allocatePayments(@RequestBody List<PaymentReceipt> receipts) {
+		try {
+			log.info("🔥 Allocating {} receipts in bulk", receipts.size());
+			return ResponseEntity.ok(paymentPostingService.allocateReceipts(receipts));
+		} catch (Exception e) {
+			log.error("❌ Error allocating receipts: {}", e.getMessage(), e);
+			return ResponseEntity.status(500).body(null);
+		}
+	}
+
+	// 🔥 Bulk receipt posting: one recalculation per customer, per-entry result
+	@PostMapping("/emi-schedule/payments/bulk")
+	public ResponseEntity<BulkPaymentResponse> postPayments(@RequestBody List<BulkPaymentEntry> entries) {
+		try {
+			log.info("🔥 Posting {} payments in bulk", entries.size());
+
+			BulkPaymentResponse report = paymentPostingService.postPayments(entries);
+
+			log.info("✅ Bulk payments posted: {} posted, {} failed", report.getPostedCount(), report.getFailedCount());
+			return ResponseEntity.ok(report);
+
+		} catch (Exception e) {
+			log.error("❌ Error posting payments: {}", e.getMessage(), e);
+			return ResponseEntity.status(500).body(null);
+		}
+	}
+
 }
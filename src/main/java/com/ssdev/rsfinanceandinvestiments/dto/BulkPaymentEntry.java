@@ -0,0 +1,50 @@
+package com.ssdev.rsfinanceandinvestiments.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+
+// One receipt of a bulk posting: same fields as UpdateStatusRequest plus the EMI it is for
+@Data
+public class BulkPaymentEntry {
+
+    private Long scheduleId;
+    private String status;
+    private String paidDate;
+    private BigDecimal paidAmount;
+
+    public Long getScheduleId() {
+        return scheduleId;
+    }
+    public void setScheduleId(Long scheduleId) {
+        this.scheduleId = scheduleId;
+    }
+    public String getStatus() {
+        return status;
+    }
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    public String getPaidDate() {
+        return paidDate;
+    }
+    public void setPaidDate(String paidDate) {
+        this.paidDate = paidDate;
+    }
+    public BigDecimal getPaidAmount() {
+        return paidAmount;
+    }
+    public void setPaidAmount(BigDecimal paidAmount) {
+        this.paidAmount = paidAmount;
+    }
+
+    public BulkPaymentEntry() {
+    }
+
+    public BulkPaymentEntry(Long scheduleId, String status, String paidDate, BigDecimal paidAmount) {
+        this.scheduleId = scheduleId;
+        this.status = status;
+        this.paidDate = paidDate;
+        this.paidAmount = paidAmount;
+    }
+}
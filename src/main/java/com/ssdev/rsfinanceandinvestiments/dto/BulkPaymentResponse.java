@@ -0,0 +1,84 @@
+package com.ssdev.rsfinanceandinvestiments.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class BulkPaymentResponse {
+
+    private int totalEntries;
+    private int postedCount;
+    private int failedCount;
+    private int customersRecalculated;
+
+    // One result per entry, in request order
+    private List<EntryResult> results = new ArrayList<>();
+
+    public int getTotalEntries() {
+        return totalEntries;
+    }
+    public void setTotalEntries(int totalEntries) {
+        this.totalEntries = totalEntries;
+    }
+    public int getPostedCount() {
+        return postedCount;
+    }
+    public void setPostedCount(int postedCount) {
+        this.postedCount = postedCount;
+    }
+    public int getFailedCount() {
+        return failedCount;
+    }
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+    public int getCustomersRecalculated() {
+        return customersRecalculated;
+    }
+    public void setCustomersRecalculated(int customersRecalculated) {
+        this.customersRecalculated = customersRecalculated;
+    }
+    public List<EntryResult> getResults() {
+        return results;
+    }
+    public void setResults(List<EntryResult> results) {
+        this.results = results;
+    }
+
+    @Data
+    public static class EntryResult {
+
+        private Long scheduleId;
+        private String customerPhone;
+        private boolean posted;
+        private String message;
+
+        public EntryResult(Long scheduleId) {
+            this.scheduleId = scheduleId;
+        }
+
+        public Long getScheduleId() {
+            return scheduleId;
+        }
+        public String getCustomerPhone() {
+            return customerPhone;
+        }
+        public void setCustomerPhone(String customerPhone) {
+            this.customerPhone = customerPhone;
+        }
+        public boolean isPosted() {
+            return posted;
+        }
+        public void setPosted(boolean posted) {
+            this.posted = posted;
+        }
+        public String getMessage() {
+            return message;
+        }
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
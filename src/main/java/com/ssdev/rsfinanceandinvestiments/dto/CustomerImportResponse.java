@@ -0,0 +1,83 @@
+package com.ssdev.rsfinanceandinvestiments.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class CustomerImportResponse {
+
+    private int totalRows;
+    private int importedCount;
+    private int failedCount;
+
+    // Only the first customers.import.max-reported-errors rows are listed
+    private boolean errorsTruncated;
+    private List<RowError> errors = new ArrayList<>();
+
+    // Set when the upload could not be read to the end (400 if nothing was imported)
+    private String error;
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+    public int getImportedCount() {
+        return importedCount;
+    }
+    public void setImportedCount(int importedCount) {
+        this.importedCount = importedCount;
+    }
+    public int getFailedCount() {
+        return failedCount;
+    }
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+    public List<RowError> getErrors() {
+        return errors;
+    }
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+    public String getError() {
+        return error;
+    }
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Data
+    public static class RowError {
+
+        // 1-based line of the upload (the CSV header is line 1)
+        private long lineNumber;
+        private String phoneNumber;
+        private List<String> messages;
+
+        public RowError(long lineNumber, String phoneNumber, List<String> messages) {
+            this.lineNumber = lineNumber;
+            this.phoneNumber = phoneNumber;
+            this.messages = messages;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+        public String getPhoneNumber() {
+            return phoneNumber;
+        }
+        public List<String> getMessages() {
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.ssdev.rsfinanceandinvestiments.dto;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * Query parameters of GET /api/customers. For the next page send back the
+ * previous response's nextAfterId (and nextAfterName when sorting by name)
+ * with the same sort, direction and filters.
+ */
+public class CustomerPageRequest {
+
+	private String sort = "id"; // id or name
+	private String direction = "asc";
+	private int size = 50;
+	private Long afterId;
+	private String afterName;
+
+	// Filters, all optional
+	private String status;
+	private String place;
+	private String referBy;
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+	private LocalDate createdFrom;
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+	private LocalDate createdTo; // inclusive
+
+	public String getSort() {
+		return sort;
+	}
+
+	public void setSort(String sort) {
+		this.sort = sort;
+	}
+
+	public String getDirection() {
+		return direction;
+	}
+
+	public void setDirection(String direction) {
+		this.direction = direction;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public Long getAfterId() {
+		return afterId;
+	}
+
+	public void setAfterId(Long afterId) {
+		this.afterId = afterId;
+	}
+
+	public String getAfterName() {
+		return afterName;
+	}
+
+	public void setAfterName(String afterName) {
+		this.afterName = afterName;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public String getPlace() {
+		return place;
+	}
+
+	public void setPlace(String place) {
+		this.place = place;
+	}
+
+	public String getReferBy() {
+		return referBy;
+	}
+
+	public void setReferBy(String referBy) {
+		this.referBy = referBy;
+	}
+
+	public LocalDate getCreatedFrom() {
+		return createdFrom;
+	}
+
+	public void setCreatedFrom(LocalDate createdFrom) {
+		this.createdFrom = createdFrom;
+	}
+
+	public LocalDate getCreatedTo() {
+		return createdTo;
+	}
+
+	public void setCreatedTo(LocalDate createdTo) {
+		this.createdTo = createdTo;
+	}
+}
@@ -0,0 +1,55 @@
+package com.ssdev.rsfinanceandinvestiments.dto;
+
+import java.util.List;
+
+// One keyset page of customers; hasMore false means this was the last page
+public class CustomerPageResponse {
+
+	private List<CustomerSummary> customers;
+	private boolean hasMore;
+	private Long nextAfterId;
+	private String nextAfterName;
+
+	public CustomerPageResponse() {
+	}
+
+	public CustomerPageResponse(List<CustomerSummary> customers, boolean hasMore, Long nextAfterId,
+			String nextAfterName) {
+		this.customers = customers;
+		this.hasMore = hasMore;
+		this.nextAfterId = nextAfterId;
+		this.nextAfterName = nextAfterName;
+	}
+
+	public List<CustomerSummary> getCustomers() {
+		return customers;
+	}
+
+	public void setCustomers(List<CustomerSummary> customers) {
+		this.customers = customers;
+	}
+
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	public void setHasMore(boolean hasMore) {
+		this.hasMore = hasMore;
+	}
+
+	public Long getNextAfterId() {
+		return nextAfterId;
+	}
+
+	public void setNextAfterId(Long nextAfterId) {
+		this.nextAfterId = nextAfterId;
+	}
+
+	public String getNextAfterName() {
+		return nextAfterName;
+	}
+
+	public void setNextAfterName(String nextAfterName) {
+		this.nextAfterName = nextAfterName;
+	}
+}
@@ -0,0 +1,20 @@
+package com.ssdev.rsfinanceandinvestiments.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One row per customer from EMIScheduleRepository.aggregateByCustomer: period
+ * figures plus the full-tenure flags and balances the analytics need.
+ */
+public record CustomerScheduleAggregate(
+		String customerPhone,
+		Long periodEmiCount,
+		Long periodPaidCount,
+		BigDecimal periodEmiAmount,
+		BigDecimal periodPaidAmount,
+		Long overdueCount,
+		Long dueUnpaidCount,
+		BigDecimal dueUnpaidAmount,
+		BigDecimal outstandingEmiAmount,
+		BigDecimal outstandingPendingAmount) {
+}
@@ -0,0 +1,64 @@
+package com.ssdev.rsfinanceandinvestiments.dto;
+
+import java.util.List;
+
+// One page of GET /api/customers/search, best matches first
+public class CustomerSearchResponse {
+
+	private String query;
+	private int page;
+	private int size;
+	private boolean hasMore;
+	private List<CustomerSummary> customers;
+
+	public CustomerSearchResponse() {
+	}
+
+	public CustomerSearchResponse(String query, int page, int size, boolean hasMore, List<CustomerSummary> customers) {
+		this.query = query;
+		this.page = page;
+		this.size = size;
+		this.hasMore = hasMore;
+		this.customers = customers;
+	}
+
+	public String getQuery() {
+		return query;
+	}
+
+	public void setQuery(String query) {
+		this.query = query;
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public void setPage(int page) {
+		this.page = page;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	public void setHasMore(boolean hasMore) {
+		this.hasMore = hasMore;
+	}
+
+	public List<CustomerSummary> getCustomers() {
+		return customers;
+	}
+
+	public void setCustomers(List<CustomerSummary> customers) {
+		this.customers = customers;
+	}
+}
@@ -0,0 +1,141 @@
+package com.ssdev.rsfinanceandinvestiments.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.ssdev.rsfinanceandinvestiments.entity.Customer.CustomerStatus;
+
+//CustomerSummary.java: one row of the customers screen, selected straight from the columns it shows
+public class CustomerSummary {
+
+	private Long id;
+	private String name;
+	private String place;
+	private String referBy;
+	private String phoneNumber;
+	private BigDecimal amountTaken;
+	private BigDecimal monthlyEmi;
+	private Integer tenure;
+	private LocalDate startDate;
+	private LocalDate endDate;
+	private CustomerStatus status;
+	private LocalDateTime createdAt;
+
+	public CustomerSummary() {
+	}
+
+	// JPQL constructor expression (CustomerService.findPage)
+	public CustomerSummary(Long id, String name, String place, String referBy, String phoneNumber,
+			BigDecimal amountTaken, BigDecimal monthlyEmi, Integer tenure, LocalDate startDate, LocalDate endDate,
+			CustomerStatus status, LocalDateTime createdAt) {
+		this.id = id;
+		this.name = name;
+		this.place = place;
+		this.referBy = referBy;
+		this.phoneNumber = phoneNumber;
+		this.amountTaken = amountTaken;
+		this.monthlyEmi = monthlyEmi;
+		this.tenure = tenure;
+		this.startDate = startDate;
+		this.endDate = endDate;
+		this.status = status;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getPlace() {
+		return place;
+	}
+
+	public void setPlace(String place) {
+		this.place = place;
+	}
+
+	public String getReferBy() {
+		return referBy;
+	}
+
+	public void setReferBy(String referBy) {
+		this.referBy = referBy;
+	}
+
+	public String getPhoneNumber() {
+		return phoneNumber;
+	}
+
+	public void setPhoneNumber(String phoneNumber) {
+		this.phoneNumber = phoneNumber;
+	}
+
+	public BigDecimal getAmountTaken() {
+		return amountTaken;
+	}
+
+	public void setAmountTaken(BigDecimal amountTaken) {
+		this.amountTaken = amountTaken;
+	}
+
+	public BigDecimal getMonthlyEmi() {
+		return monthlyEmi;
+	}
+
+	public void setMonthlyEmi(BigDecimal monthlyEmi) {
+		this.monthlyEmi = monthlyEmi;
+	}
+
+	public Integer getTenure() {
+		return tenure;
+	}
+
+	public void setTenure(Integer tenure) {
+		this.tenure = tenure;
+	}
+
+	public LocalDate getStartDate() {
+		return startDate;
+	}
+
+	public void setStartDate(LocalDate startDate) {
+		this.startDate = startDate;
+	}
+
+	public LocalDate getEndDate() {
+		return endDate;
+	}
+
+	public void setEndDate(LocalDate endDate) {
+		this.endDate = endDate;
+	}
+
+	public CustomerStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(CustomerStatus status) {
+		this.status = status;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+}
@@ -1,6 +1,9 @@
 package com.ssdev.rsfinanceandinvestiments.dto;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
 
 import lombok.Data;
 
@@ -107,6 +110,13 @@ public class EMIScheduleResponse {
 			+ ", paidDate=" + paidDate + ", paidAmount=" + paidAmount + ", pendingAmount=" + pendingAmount
 			+ ", cumulativePending=" + cumulativePending + "]";
  }
+ // Projection constructor for JPQL "SELECT new", formats dates and status like the entity mapping did
+ public EMIScheduleResponse(Long id, String customerPhone, Integer monthNumber, String monthName, BigDecimal emiAmount,
+		LocalDate dueDate, PaymentStatus status, LocalDate paidDate, BigDecimal paidAmount, BigDecimal pendingAmount,
+		BigDecimal cumulativePending) {
+	this(id, customerPhone, monthNumber, monthName, emiAmount, dueDate.toString(), status.name(),
+			paidDate != null ? paidDate.toString() : null, paidAmount, pendingAmount, cumulativePending);
+ }
  public EMIScheduleResponse() {
 	super();
 	// TODO Auto-generated constructor stub
@@ -0,0 +1,96 @@
+package com.ssdev.rsfinanceandinvestiments.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class PaymentAllocationResponse {
+
+    private String customerPhone;
+    private BigDecimal amount;
+    private BigDecimal allocatedAmount;
+    // More than the customer owed; not applied anywhere
+    private BigDecimal unallocatedAmount;
+    // Set instead of the amounts when the receipt could not be posted
+    private String error;
+    private List<Installment> installments = new ArrayList<>();
+
+    public PaymentAllocationResponse(String customerPhone, BigDecimal amount) {
+        this.customerPhone = customerPhone;
+        this.amount = amount;
+    }
+
+    public String getCustomerPhone() {
+        return customerPhone;
+    }
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    public BigDecimal getAllocatedAmount() {
+        return allocatedAmount;
+    }
+    public void setAllocatedAmount(BigDecimal allocatedAmount) {
+        this.allocatedAmount = allocatedAmount;
+    }
+    public BigDecimal getUnallocatedAmount() {
+        return unallocatedAmount;
+    }
+    public void setUnallocatedAmount(BigDecimal unallocatedAmount) {
+        this.unallocatedAmount = unallocatedAmount;
+    }
+    public String getError() {
+        return error;
+    }
+    public void setError(String error) {
+        this.error = error;
+    }
+    public List<Installment> getInstallments() {
+        return installments;
+    }
+    public void setInstallments(List<Installment> installments) {
+        this.installments = installments;
+    }
+
+    @Data
+    public static class Installment {
+
+        private Long scheduleId;
+        private Integer monthNumber;
+        private BigDecimal appliedAmount;
+        private BigDecimal paidAmount;
+        private BigDecimal pendingAmount;
+        private String status;
+
+        public Installment(Long scheduleId, Integer monthNumber, BigDecimal appliedAmount, BigDecimal paidAmount,
+                BigDecimal pendingAmount, String status) {
+            this.scheduleId = scheduleId;
+            this.monthNumber = monthNumber;
+            this.appliedAmount = appliedAmount;
+            this.paidAmount = paidAmount;
+            this.pendingAmount = pendingAmount;
+            this.status = status;
+        }
+
+        public Long getScheduleId() {
+            return scheduleId;
+        }
+        public Integer getMonthNumber() {
+            return monthNumber;
+        }
+        public BigDecimal getAppliedAmount() {
+            return appliedAmount;
+        }
+        public BigDecimal getPaidAmount() {
+            return paidAmount;
+        }
+        public BigDecimal getPendingAmount() {
+            return pendingAmount;
+        }
+        public String getStatus() {
+            return status;
+        }
+    }
+}
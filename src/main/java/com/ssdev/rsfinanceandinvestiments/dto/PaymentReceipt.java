@@ -0,0 +1,42 @@
+package com.ssdev.rsfinanceandinvestiments.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+
+// A lump sum received from a customer, spread over their unpaid EMIs oldest first
+@Data
+public class PaymentReceipt {
+
+    private String customerPhone;
+    private BigDecimal amount;
+    private String paidDate;
+
+    public String getCustomerPhone() {
+        return customerPhone;
+    }
+    public void setCustomerPhone(String customerPhone) {
+        this.customerPhone = customerPhone;
+    }
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    public String getPaidDate() {
+        return paidDate;
+    }
+    public void setPaidDate(String paidDate) {
+        this.paidDate = paidDate;
+    }
+
+    public PaymentReceipt() {
+    }
+
+    public PaymentReceipt(String customerPhone, BigDecimal amount, String paidDate) {
+        this.customerPhone = customerPhone;
+        this.amount = amount;
+        this.paidDate = paidDate;
+    }
+}
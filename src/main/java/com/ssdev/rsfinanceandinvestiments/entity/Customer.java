@@ -16,16 +16,22 @@ import lombok.Builder;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "customers")
 public class Customer {
     
+    // Pooled sequence (see V6) so bulk imports can batch customer inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Name is required")
@@ -100,6 +106,16 @@ public class Customer {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Optimistic lock (V9): concurrent edits of the same customer cannot silently overwrite each other
+    @Version
+    private Long version;
+
+    // Joined on customer_id (V14); only loaded by the repository's JOIN FETCH queries, never serialized
+    @JsonIgnore
+    @OneToMany(mappedBy = "customer")
+    @OrderBy("monthNumber ASC")
+    private List<EMISchedule> emiSchedules = new ArrayList<>();
     
     // Enum for customer status
     public enum CustomerStatus {
@@ -234,6 +250,22 @@ public class Customer {
 		this.updatedAt = updatedAt;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public List<EMISchedule> getEmiSchedules() {
+		return emiSchedules;
+	}
+
+	public void setEmiSchedules(List<EMISchedule> emiSchedules) {
+		this.emiSchedules = emiSchedules;
+	}
+
 	public Customer() {
 		super();
 		// TODO Auto-generated constructor stub
@@ -0,0 +1,108 @@
+package com.ssdev.rsfinanceandinvestiments.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+//CustomerBalance.java
+// Outstanding position of one customer, kept in step with emi_schedules by EMIScheduleService
+@Entity
+@Table(name = "customer_balances")
+public class CustomerBalance {
+
+	@Id
+	@Column(name = "customer_phone")
+	private String customerPhone;
+
+	// Sum of emi_amount over PENDING/OVERDUE months
+	@Column(name = "outstanding_amount", nullable = false, precision = 14, scale = 2)
+	private BigDecimal outstandingAmount;
+
+	// Sum of pending_amount over PENDING/OVERDUE months
+	@Column(name = "outstanding_pending_amount", nullable = false, precision = 14, scale = 2)
+	private BigDecimal outstandingPendingAmount;
+
+	@Column(name = "unpaid_emi_count", nullable = false)
+	private Integer unpaidEmiCount;
+
+	@Column(name = "oldest_unpaid_due_date")
+	private LocalDate oldestUnpaidDueDate;
+
+	@Column(name = "last_paid_date")
+	private LocalDate lastPaidDate;
+
+	@Column(name = "updated_at")
+	private LocalDateTime updatedAt;
+
+	public String getCustomerPhone() {
+		return customerPhone;
+	}
+
+	public void setCustomerPhone(String customerPhone) {
+		this.customerPhone = customerPhone;
+	}
+
+	public BigDecimal getOutstandingAmount() {
+		return outstandingAmount;
+	}
+
+	public void setOutstandingAmount(BigDecimal outstandingAmount) {
+		this.outstandingAmount = outstandingAmount;
+	}
+
+	public BigDecimal getOutstandingPendingAmount() {
+		return outstandingPendingAmount;
+	}
+
+	public void setOutstandingPendingAmount(BigDecimal outstandingPendingAmount) {
+		this.outstandingPendingAmount = outstandingPendingAmount;
+	}
+
+	public Integer getUnpaidEmiCount() {
+		return unpaidEmiCount;
+	}
+
+	public void setUnpaidEmiCount(Integer unpaidEmiCount) {
+		this.unpaidEmiCount = unpaidEmiCount;
+	}
+
+	public LocalDate getOldestUnpaidDueDate() {
+		return oldestUnpaidDueDate;
+	}
+
+	public void setOldestUnpaidDueDate(LocalDate oldestUnpaidDueDate) {
+		this.oldestUnpaidDueDate = oldestUnpaidDueDate;
+	}
+
+	public LocalDate getLastPaidDate() {
+		return lastPaidDate;
+	}
+
+	public void setLastPaidDate(LocalDate lastPaidDate) {
+		this.lastPaidDate = lastPaidDate;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	public CustomerBalance() {
+		super();
+	}
+
+	@Override
+	public String toString() {
+		return "CustomerBalance [customerPhone=" + customerPhone + ", outstandingAmount=" + outstandingAmount
+				+ ", outstandingPendingAmount=" + outstandingPendingAmount + ", unpaidEmiCount=" + unpaidEmiCount
+				+ ", oldestUnpaidDueDate=" + oldestUnpaidDueDate + ", lastPaidDate=" + lastPaidDate + "]";
+	}
+}
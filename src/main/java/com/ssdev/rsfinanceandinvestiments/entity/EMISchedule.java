@@ -5,8 +5,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -17,9 +21,12 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 //EMISchedule.java
 @Entity
@@ -36,12 +43,23 @@ public class EMISchedule {
 				+ "]";
 	}
 
+ // Pooled sequence (see V5): ids are handed out 50 at a time so inserts can be JDBC-batched
  @Id
- @GeneratedValue(strategy = GenerationType.IDENTITY)
+ @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "emi_schedules_seq")
+ @SequenceGenerator(name = "emi_schedules_seq", sequenceName = "emi_schedules_seq", allocationSize = 50)
  private Long id;
  
+ // Kept in step with customer.phoneNumber: the API and the per-phone reports still look schedules up by it
  @Column(name = "customer_phone")
  private String customerPhone;
+
+ // Owning customer (V14); the database deletes the schedule with it
+ @JsonIgnore
+ @EqualsAndHashCode.Exclude
+ @ManyToOne(fetch = FetchType.LAZY)
+ @JoinColumn(name = "customer_id")
+ @OnDelete(action = OnDeleteAction.CASCADE)
+ private Customer customer;
  
  @Column(name = "month_number")
  private Integer monthNumber;
@@ -78,6 +96,10 @@ public class EMISchedule {
  @Column(name = "updated_at")
  private LocalDateTime updatedAt;
 
+ // Optimistic lock (V9): a posting that read a stale row fails at commit and is retried
+ @Version
+ private Long version;
+
  public Long getId() {
 	return id;
  }
@@ -94,6 +116,14 @@ public class EMISchedule {
 	this.customerPhone = customerPhone;
  }
 
+ public Customer getCustomer() {
+	return customer;
+ }
+
+ public void setCustomer(Customer customer) {
+	this.customer = customer;
+ }
+
  public Integer getMonthNumber() {
 	return monthNumber;
  }
@@ -182,17 +212,26 @@ public class EMISchedule {
 	this.updatedAt = updatedAt;
  }
 
+ public Long getVersion() {
+	return version;
+ }
+
+ public void setVersion(Long version) {
+	this.version = version;
+ }
+
  public EMISchedule() {
 	super();
 	// TODO Auto-generated constructor stub
  }
 
- public EMISchedule(Long id, String customerPhone, Integer monthNumber, String monthName, BigDecimal emiAmount,
+ public EMISchedule(Long id, String customerPhone, Customer customer, Integer monthNumber, String monthName, BigDecimal emiAmount,
 		LocalDate dueDate, PaymentStatus status, LocalDate paidDate, BigDecimal paidAmount, BigDecimal pendingAmount,
-		BigDecimal cumulativePending, LocalDateTime createdAt, LocalDateTime updatedAt) {
+		BigDecimal cumulativePending, LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
 	super();
 	this.id = id;
 	this.customerPhone = customerPhone;
+	this.customer = customer;
 	this.monthNumber = monthNumber;
 	this.monthName = monthName;
 	this.emiAmount = emiAmount;
@@ -204,6 +243,7 @@ public class EMISchedule {
 	this.cumulativePending = cumulativePending;
 	this.createdAt = createdAt;
 	this.updatedAt = updatedAt;
+	this.version = version;
  }
  
  
@@ -0,0 +1,71 @@
+package com.ssdev.rsfinanceandinvestiments.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+//JobLock.java
+// Which node may run a scheduled job. Taken with a conditional UPDATE by JobLockService; a node that dies
+// holding it loses it once lockedUntil passes.
+@Entity
+@Table(name = "job_locks")
+public class JobLock {
+
+	@Id
+	@Column(name = "job_name", length = 100)
+	private String jobName;
+
+	@Column(name = "locked_by", nullable = false)
+	private String lockedBy;
+
+	@Column(name = "locked_at", nullable = false)
+	private LocalDateTime lockedAt;
+
+	@Column(name = "locked_until", nullable = false)
+	private LocalDateTime lockedUntil;
+
+	public JobLock() {
+	}
+
+	public JobLock(String jobName, String lockedBy, LocalDateTime lockedAt, LocalDateTime lockedUntil) {
+		this.jobName = jobName;
+		this.lockedBy = lockedBy;
+		this.lockedAt = lockedAt;
+		this.lockedUntil = lockedUntil;
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	public void setJobName(String jobName) {
+		this.jobName = jobName;
+	}
+
+	public String getLockedBy() {
+		return lockedBy;
+	}
+
+	public void setLockedBy(String lockedBy) {
+		this.lockedBy = lockedBy;
+	}
+
+	public LocalDateTime getLockedAt() {
+		return lockedAt;
+	}
+
+	public void setLockedAt(LocalDateTime lockedAt) {
+		this.lockedAt = lockedAt;
+	}
+
+	public LocalDateTime getLockedUntil() {
+		return lockedUntil;
+	}
+
+	public void setLockedUntil(LocalDateTime lockedUntil) {
+		this.lockedUntil = lockedUntil;
+	}
+}
@@ -0,0 +1,177 @@
+package com.ssdev.rsfinanceandinvestiments.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+//MonthlyPortfolioRollup.java
+// Pre-computed /analytics/monthly numbers for one calendar month, valid for the asOf day
+@Entity
+@Table(name = "monthly_portfolio_rollup")
+@IdClass(MonthlyPortfolioRollupId.class)
+public class MonthlyPortfolioRollup {
+
+	@Id
+	@Column(name = "rollup_year")
+	private Integer year;
+
+	@Id
+	@Column(name = "rollup_month")
+	private Integer month;
+
+	@Column(name = "total_customers", nullable = false)
+	private Integer totalCustomers;
+
+	@Column(name = "paid_customers", nullable = false)
+	private Integer paidCustomers;
+
+	@Column(name = "pending_customers", nullable = false)
+	private Integer pendingCustomers;
+
+	@Column(name = "waitlist_customers", nullable = false)
+	private Integer waitlistCustomers;
+
+	@Column(name = "expected_amount", nullable = false, precision = 14, scale = 2)
+	private BigDecimal expectedAmount;
+
+	@Column(name = "collected_amount", nullable = false, precision = 14, scale = 2)
+	private BigDecimal collectedAmount;
+
+	@Column(name = "unpaid_amount", nullable = false, precision = 14, scale = 2)
+	private BigDecimal unpaidAmount;
+
+	@Column(name = "pending_unpaid_amount", nullable = false, precision = 14, scale = 2)
+	private BigDecimal pendingUnpaidAmount;
+
+	@Column(name = "waitlist_unpaid_amount", nullable = false, precision = 14, scale = 2)
+	private BigDecimal waitlistUnpaidAmount;
+
+	// Pending/waitlist depend on "today"; a row is only usable on the day it was computed for
+	@Column(name = "as_of", nullable = false)
+	private LocalDate asOf;
+
+	@Column(name = "updated_at")
+	private LocalDateTime updatedAt;
+
+	public Integer getYear() {
+		return year;
+	}
+
+	public void setYear(Integer year) {
+		this.year = year;
+	}
+
+	public Integer getMonth() {
+		return month;
+	}
+
+	public void setMonth(Integer month) {
+		this.month = month;
+	}
+
+	public Integer getTotalCustomers() {
+		return totalCustomers;
+	}
+
+	public void setTotalCustomers(Integer totalCustomers) {
+		this.totalCustomers = totalCustomers;
+	}
+
+	public Integer getPaidCustomers() {
+		return paidCustomers;
+	}
+
+	public void setPaidCustomers(Integer paidCustomers) {
+		this.paidCustomers = paidCustomers;
+	}
+
+	public Integer getPendingCustomers() {
+		return pendingCustomers;
+	}
+
+	public void setPendingCustomers(Integer pendingCustomers) {
+		this.pendingCustomers = pendingCustomers;
+	}
+
+	public Integer getWaitlistCustomers() {
+		return waitlistCustomers;
+	}
+
+	public void setWaitlistCustomers(Integer waitlistCustomers) {
+		this.waitlistCustomers = waitlistCustomers;
+	}
+
+	public BigDecimal getExpectedAmount() {
+		return expectedAmount;
+	}
+
+	public void setExpectedAmount(BigDecimal expectedAmount) {
+		this.expectedAmount = expectedAmount;
+	}
+
+	public BigDecimal getCollectedAmount() {
+		return collectedAmount;
+	}
+
+	public void setCollectedAmount(BigDecimal collectedAmount) {
+		this.collectedAmount = collectedAmount;
+	}
+
+	public BigDecimal getUnpaidAmount() {
+		return unpaidAmount;
+	}
+
+	public void setUnpaidAmount(BigDecimal unpaidAmount) {
+		this.unpaidAmount = unpaidAmount;
+	}
+
+	public BigDecimal getPendingUnpaidAmount() {
+		return pendingUnpaidAmount;
+	}
+
+	public void setPendingUnpaidAmount(BigDecimal pendingUnpaidAmount) {
+		this.pendingUnpaidAmount = pendingUnpaidAmount;
+	}
+
+	public BigDecimal getWaitlistUnpaidAmount() {
+		return waitlistUnpaidAmount;
+	}
+
+	public void setWaitlistUnpaidAmount(BigDecimal waitlistUnpaidAmount) {
+		this.waitlistUnpaidAmount = waitlistUnpaidAmount;
+	}
+
+	public LocalDate getAsOf() {
+		return asOf;
+	}
+
+	public void setAsOf(LocalDate asOf) {
+		this.asOf = asOf;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	public MonthlyPortfolioRollup() {
+		super();
+	}
+
+	@Override
+	public String toString() {
+		return "MonthlyPortfolioRollup [year=" + year + ", month=" + month + ", totalCustomers=" + totalCustomers
+				+ ", paidCustomers=" + paidCustomers + ", pendingCustomers=" + pendingCustomers
+				+ ", waitlistCustomers=" + waitlistCustomers + ", expectedAmount=" + expectedAmount
+				+ ", collectedAmount=" + collectedAmount + ", unpaidAmount=" + unpaidAmount + ", asOf=" + asOf + "]";
+	}
+}
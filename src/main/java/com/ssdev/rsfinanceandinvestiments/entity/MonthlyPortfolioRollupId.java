@@ -0,0 +1,47 @@
+package com.ssdev.rsfinanceandinvestiments.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+//MonthlyPortfolioRollupId.java
+public class MonthlyPortfolioRollupId implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Integer year;
+	private Integer month;
+
+	public MonthlyPortfolioRollupId() {
+		super();
+	}
+
+	public MonthlyPortfolioRollupId(Integer year, Integer month) {
+		super();
+		this.year = year;
+		this.month = month;
+	}
+
+	public Integer getYear() {
+		return year;
+	}
+
+	public Integer getMonth() {
+		return month;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof MonthlyPortfolioRollupId other)) {
+			return false;
+		}
+		return Objects.equals(year, other.year) && Objects.equals(month, other.month);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(year, month);
+	}
+}
@@ -0,0 +1,173 @@
+package com.ssdev.rsfinanceandinvestiments.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+//ScheduleGenerationJob.java
+// One background EMI schedule generation, so clients can poll until the schedule exists.
+// Also the outbox row: written with the customer, claimed and retried by ScheduleGenerationJobService.
+@Entity
+@Table(name = "schedule_generation_jobs")
+public class ScheduleGenerationJob {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "customer_phone", nullable = false, length = 15)
+	private String customerPhone;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 20)
+	private JobStatus status;
+
+	@Column(name = "months_generated")
+	private Integer monthsGenerated;
+
+	@Column(name = "error_message", length = 1000)
+	private String errorMessage;
+
+	@Column(name = "queued_at", nullable = false)
+	private LocalDateTime queuedAt;
+
+	@Column(name = "started_at")
+	private LocalDateTime startedAt;
+
+	@Column(name = "finished_at")
+	private LocalDateTime finishedAt;
+
+	// Time spent waiting for a free generation slot
+	@Column(name = "queue_wait_ms")
+	private Long queueWaitMs;
+
+	// Time spent generating, once started
+	@Column(name = "duration_ms")
+	private Long durationMs;
+
+	@Column(nullable = false)
+	private Integer attempts = 0;
+
+	// QUEUED rows are not claimed before this (retry backoff)
+	@Column(name = "next_attempt_at")
+	private LocalDateTime nextAttemptAt;
+
+	// A RUNNING row whose lease has passed belongs to a dead worker and is claimed again
+	@Column(name = "lease_until")
+	private LocalDateTime leaseUntil;
+
+	public enum JobStatus {
+		QUEUED, RUNNING, COMPLETED, FAILED
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getCustomerPhone() {
+		return customerPhone;
+	}
+
+	public void setCustomerPhone(String customerPhone) {
+		this.customerPhone = customerPhone;
+	}
+
+	public JobStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(JobStatus status) {
+		this.status = status;
+	}
+
+	public Integer getMonthsGenerated() {
+		return monthsGenerated;
+	}
+
+	public void setMonthsGenerated(Integer monthsGenerated) {
+		this.monthsGenerated = monthsGenerated;
+	}
+
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	public void setErrorMessage(String errorMessage) {
+		this.errorMessage = errorMessage;
+	}
+
+	public LocalDateTime getQueuedAt() {
+		return queuedAt;
+	}
+
+	public void setQueuedAt(LocalDateTime queuedAt) {
+		this.queuedAt = queuedAt;
+	}
+
+	public LocalDateTime getStartedAt() {
+		return startedAt;
+	}
+
+	public void setStartedAt(LocalDateTime startedAt) {
+		this.startedAt = startedAt;
+	}
+
+	public LocalDateTime getFinishedAt() {
+		return finishedAt;
+	}
+
+	public void setFinishedAt(LocalDateTime finishedAt) {
+		this.finishedAt = finishedAt;
+	}
+
+	public Long getQueueWaitMs() {
+		return queueWaitMs;
+	}
+
+	public void setQueueWaitMs(Long queueWaitMs) {
+		this.queueWaitMs = queueWaitMs;
+	}
+
+	public Long getDurationMs() {
+		return durationMs;
+	}
+
+	public void setDurationMs(Long durationMs) {
+		this.durationMs = durationMs;
+	}
+
+	public Integer getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(Integer attempts) {
+		this.attempts = attempts;
+	}
+
+	public LocalDateTime getNextAttemptAt() {
+		return nextAttemptAt;
+	}
+
+	public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+		this.nextAttemptAt = nextAttemptAt;
+	}
+
+	public LocalDateTime getLeaseUntil() {
+		return leaseUntil;
+	}
+
+	public void setLeaseUntil(LocalDateTime leaseUntil) {
+		this.leaseUntil = leaseUntil;
+	}
+}
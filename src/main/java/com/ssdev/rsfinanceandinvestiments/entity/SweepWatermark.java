@@ -0,0 +1,70 @@
+package com.ssdev.rsfinanceandinvestiments.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+//SweepWatermark.java
+// How far an incremental sweep has got, so the next run only looks at rows that crossed a boundary since.
+// Deleting the row makes the next run a full sweep.
+@Entity
+@Table(name = "sweep_watermarks")
+public class SweepWatermark {
+
+	@Id
+	@Column(name = "sweep_name", length = 50)
+	private String sweepName;
+
+	@Column(name = "evaluated_on", nullable = false)
+	private LocalDate evaluatedOn;
+
+	// Unpaid EMIs due before this were OVERDUE, the rest PENDING, as of evaluatedOn
+	@Column(name = "overdue_threshold", nullable = false)
+	private LocalDate overdueThreshold;
+
+	@Column(name = "updated_at", nullable = false)
+	private LocalDateTime updatedAt;
+
+	public SweepWatermark() {
+	}
+
+	public SweepWatermark(String sweepName) {
+		this.sweepName = sweepName;
+	}
+
+	public String getSweepName() {
+		return sweepName;
+	}
+
+	public void setSweepName(String sweepName) {
+		this.sweepName = sweepName;
+	}
+
+	public LocalDate getEvaluatedOn() {
+		return evaluatedOn;
+	}
+
+	public void setEvaluatedOn(LocalDate evaluatedOn) {
+		this.evaluatedOn = evaluatedOn;
+	}
+
+	public LocalDate getOverdueThreshold() {
+		return overdueThreshold;
+	}
+
+	public void setOverdueThreshold(LocalDate overdueThreshold) {
+		this.overdueThreshold = overdueThreshold;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+}
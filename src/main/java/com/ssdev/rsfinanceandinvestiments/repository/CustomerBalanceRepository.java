@@ -0,0 +1,67 @@
+package com.ssdev.rsfinanceandinvestiments.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ssdev.rsfinanceandinvestiments.entity.CustomerBalance;
+
+@Repository
+public interface CustomerBalanceRepository extends JpaRepository<CustomerBalance, String> {
+
+	List<CustomerBalance> findByCustomerPhoneIn(Collection<String> customerPhones);
+
+	// Recompute one customer from their own EMI rows (flush first so the pending JPA saves are visible)
+	@Modifying(flushAutomatically = true)
+	@Query(value = """
+			INSERT INTO customer_balances (customer_phone, outstanding_amount, outstanding_pending_amount,
+			    unpaid_emi_count, oldest_unpaid_due_date, last_paid_date, updated_at)
+			SELECT customer_phone,
+			       COALESCE(SUM(emi_amount) FILTER (WHERE status IN ('PENDING', 'OVERDUE')), 0),
+			       COALESCE(SUM(pending_amount) FILTER (WHERE status IN ('PENDING', 'OVERDUE')), 0),
+			       COUNT(*) FILTER (WHERE status IN ('PENDING', 'OVERDUE')),
+			       MIN(due_date) FILTER (WHERE status IN ('PENDING', 'OVERDUE')),
+			       MAX(paid_date) FILTER (WHERE status = 'PAID'),
+			       now()
+			FROM emi_schedules
+			WHERE customer_phone = :customerPhone
+			GROUP BY customer_phone
+			ON CONFLICT (customer_phone) DO UPDATE SET
+			    outstanding_amount = EXCLUDED.outstanding_amount,
+			    outstanding_pending_amount = EXCLUDED.outstanding_pending_amount,
+			    unpaid_emi_count = EXCLUDED.unpaid_emi_count,
+			    oldest_unpaid_due_date = EXCLUDED.oldest_unpaid_due_date,
+			    last_paid_date = EXCLUDED.last_paid_date,
+			    updated_at = EXCLUDED.updated_at
+			""", nativeQuery = true)
+	int refreshForCustomer(@Param("customerPhone") String customerPhone);
+
+	@Modifying
+	@Query(value = "DELETE FROM customer_balances WHERE customer_phone = :customerPhone", nativeQuery = true)
+	int deleteByPhone(@Param("customerPhone") String customerPhone);
+
+	@Modifying
+	@Query(value = "DELETE FROM customer_balances", nativeQuery = true)
+	int deleteAllRows();
+
+	@Modifying
+	@Query(value = """
+			INSERT INTO customer_balances (customer_phone, outstanding_amount, outstanding_pending_amount,
+			    unpaid_emi_count, oldest_unpaid_due_date, last_paid_date, updated_at)
+			SELECT customer_phone,
+			       COALESCE(SUM(emi_amount) FILTER (WHERE status IN ('PENDING', 'OVERDUE')), 0),
+			       COALESCE(SUM(pending_amount) FILTER (WHERE status IN ('PENDING', 'OVERDUE')), 0),
+			       COUNT(*) FILTER (WHERE status IN ('PENDING', 'OVERDUE')),
+			       MIN(due_date) FILTER (WHERE status IN ('PENDING', 'OVERDUE')),
+			       MAX(paid_date) FILTER (WHERE status = 'PAID'),
+			       now()
+			FROM emi_schedules
+			GROUP BY customer_phone
+			""", nativeQuery = true)
+	int rebuildFromSchedules();
+}
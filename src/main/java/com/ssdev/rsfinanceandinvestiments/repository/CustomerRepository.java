@@ -2,9 +2,12 @@ package com.ssdev.rsfinanceandinvestiments.repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,8 +19,23 @@ import com.ssdev.rsfinanceandinvestiments.entity.Customer;
 public interface CustomerRepository extends JpaRepository<Customer,Long> {
 	
 	Optional<Customer> findByPhoneNumber(String phoneNumber);
+
+	List<Customer> findByPhoneNumberIn(Collection<String> phoneNumbers);
 	
-	void deleteByPhoneNumber(String phoneNumber);
+	// Bulk delete: the database removes the schedules (fk_emi_schedules_customer ON DELETE CASCADE), and the
+	// ones still held in the persistence context are cleared rather than flushed against a deleted customer
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM Customer c WHERE c.id = :id")
+	int deleteWithSchedulesById(@Param("id") Long id);
+
+	// Customers with their whole schedule in one statement, joined on customer_id; customers without
+	// schedules are left out
+	@Query("SELECT c FROM Customer c JOIN FETCH c.emiSchedules s ORDER BY c.phoneNumber ASC, s.monthNumber ASC")
+	List<Customer> findAllWithSchedules();
+
+	@Query("SELECT c FROM Customer c LEFT JOIN FETCH c.emiSchedules s WHERE c.phoneNumber = :phoneNumber "
+			+ "ORDER BY s.monthNumber ASC")
+	Optional<Customer> findWithSchedulesByPhoneNumber(@Param("phoneNumber") String phoneNumber);
 
 	long countByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 	
@@ -4,13 +4,24 @@ import org.springframework.data.domain.Pageable; // ✅ CORRECT
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerScheduleAggregate;
+import com.ssdev.rsfinanceandinvestiments.dto.EMIScheduleResponse;
 import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
 import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
 
@@ -21,6 +32,16 @@ public interface EMIScheduleRepository extends JpaRepository<EMISchedule, Long>
  @Query("SELECT e FROM EMISchedule e WHERE e.customerPhone = :customerPhone ORDER BY e.monthNumber ASC")
  List<EMISchedule> findByCustomerPhoneOrderByMonth(@Param("customerPhone") String customerPhone);
  
+ // Read path for the schedule screen: straight into the response, no entities in the persistence context
+ @Query("SELECT new com.ssdev.rsfinanceandinvestiments.dto.EMIScheduleResponse(e.id, e.customerPhone, e.monthNumber, "
+		 + "e.monthName, e.emiAmount, e.dueDate, e.status, e.paidDate, e.paidAmount, e.pendingAmount, e.cumulativePending) "
+		 + "FROM EMISchedule e WHERE e.customerPhone = :customerPhone ORDER BY e.monthNumber ASC")
+ List<EMIScheduleResponse> findResponsesByCustomerPhone(@Param("customerPhone") String customerPhone);
+
+ // Owner of a schedule row, to take the customer's lock before loading anything
+ @Query("SELECT e.customerPhone FROM EMISchedule e WHERE e.id = :id")
+ Optional<String> findCustomerPhoneById(@Param("id") Long id);
+
  @Query("SELECT e FROM EMISchedule e WHERE e.customerPhone = :customerPhone AND e.monthNumber <= :currentMonth ORDER BY e.monthNumber ASC")
  List<EMISchedule> findPendingEMIsUpToMonth(@Param("customerPhone") String customerPhone, @Param("currentMonth") Integer currentMonth);
  
@@ -37,16 +58,19 @@ public interface EMIScheduleRepository extends JpaRepository<EMISchedule, Long>
  @Query("SELECT e FROM EMISchedule e ORDER BY e.dueDate DESC")
  List<EMISchedule> findTop20PaidWithCustomer(Pageable pageable);
 
-// updated query for reports
- @Query(value = "SELECT DISTINCT ON (customer_phone) * FROM emi_schedules ORDER BY customer_phone, due_date DESC", 
-	       nativeQuery = true)
-List<EMISchedule> findAllUniqueCustomers();
 
 
 
  
- @Query("SELECT e FROM EMISchedule e WHERE EXTRACT(MONTH FROM e.dueDate) = :month AND EXTRACT(YEAR FROM e.dueDate) = :year")
- List<EMISchedule> findByMonthAndYear(@Param("month") int month, @Param("year") int year);
+ // Half-open [startDate, endDate) so the due_date index can be range-scanned
+ @Query("SELECT e FROM EMISchedule e WHERE e.dueDate >= :startDate AND e.dueDate < :endDate")
+ List<EMISchedule> findDueBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+ // Customer joined in on customer_id, so reports need no second lookup by phone
+ @Query("SELECT e FROM EMISchedule e LEFT JOIN FETCH e.customer "
+		 + "WHERE e.status = 'PAID' AND e.dueDate >= :startDate AND e.dueDate < :endDate "
+		 + "ORDER BY e.customerPhone ASC, e.monthNumber ASC")
+ List<EMISchedule> findPaidDueBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
 
 
@@ -54,6 +78,44 @@ List<EMISchedule> findAllUniqueCustomers();
  @Query("SELECT e FROM EMISchedule e WHERE e.dueDate >= :startDate")
  List<EMISchedule> findInLastNMonths(@Param("startDate") LocalDate startDate);
 
+ // Forward-only cursor over the whole table; caller must be in a transaction and detach rows as it goes
+ @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+		 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+ @Query("SELECT e FROM EMISchedule e")
+ Stream<EMISchedule> streamAll();
+
+ @Query("SELECT e FROM EMISchedule e WHERE e.customerPhone IN :customerPhones ORDER BY e.customerPhone ASC, e.monthNumber ASC")
+ List<EMISchedule> findByCustomerPhonesOrderByMonth(@Param("customerPhones") Collection<String> customerPhones);
+
+ @Query("SELECT e FROM EMISchedule e LEFT JOIN FETCH e.customer WHERE e.customerPhone IN :customerPhones "
+		 + "ORDER BY e.customerPhone ASC, e.monthNumber ASC")
+ List<EMISchedule> findWithCustomerByCustomerPhones(@Param("customerPhones") Collection<String> customerPhones);
+
+ @Query("SELECT COUNT(DISTINCT e.customerPhone) FROM EMISchedule e WHERE e.dueDate >= :periodStart AND e.dueDate < :periodEnd")
+ long countCustomersDueBetween(@Param("periodStart") LocalDate periodStart, @Param("periodEnd") LocalDate periodEnd);
+
+ // One row per customer with an EMI in [periodStart, periodEnd): period sums plus full-tenure balances
+ @Query("""
+		select new com.ssdev.rsfinanceandinvestiments.dto.CustomerScheduleAggregate(
+		    e.customerPhone,
+		    sum(case when e.dueDate >= :periodStart and e.dueDate < :periodEnd then 1 else 0 end),
+		    sum(case when e.dueDate >= :periodStart and e.dueDate < :periodEnd and e.status = 'PAID' then 1 else 0 end),
+		    coalesce(sum(case when e.dueDate >= :periodStart and e.dueDate < :periodEnd then e.emiAmount end), 0),
+		    coalesce(sum(case when e.dueDate >= :periodStart and e.dueDate < :periodEnd and e.status = 'PAID' then e.paidAmount end), 0),
+		    sum(case when e.status <> 'PAID' and e.dueDate < :today then 1 else 0 end),
+		    sum(case when e.status <> 'PAID' and e.dueDate <= :today then 1 else 0 end),
+		    coalesce(sum(case when e.status <> 'PAID' and e.dueDate <= :today then e.emiAmount end), 0),
+		    coalesce(sum(case when e.status = 'PENDING' or e.status = 'OVERDUE' then e.emiAmount end), 0),
+		    coalesce(sum(case when e.status = 'PENDING' or e.status = 'OVERDUE' then e.pendingAmount end), 0))
+		from EMISchedule e
+		where e.customerPhone in (
+		    select p.customerPhone from EMISchedule p
+		    where p.dueDate >= :periodStart and p.dueDate < :periodEnd)
+		group by e.customerPhone
+		""")
+ List<CustomerScheduleAggregate> aggregateByCustomer(@Param("periodStart") LocalDate periodStart,
+		 @Param("periodEnd") LocalDate periodEnd, @Param("today") LocalDate today);
+
  @Query("SELECT e.customerPhone FROM EMISchedule e " +
 	       "WHERE e.status != 'PAID' AND e.dueDate <= :olderThanDate " +
 	       "GROUP BY e.customerPhone " +
@@ -80,6 +142,12 @@ List<EMISchedule> findAllUniqueCustomers();
 		List<String> findWaitlistCustomersForMonth(@Param("today") LocalDate today);
 
  		void deleteByCustomerPhone(String phoneNumber);
+
+ 		// The customer's phone changed: carry it onto their schedules, found by customer_id
+ 		@Modifying(flushAutomatically = true, clearAutomatically = true)
+ 		@Query("UPDATE EMISchedule e SET e.customerPhone = :customerPhone, e.version = e.version + 1 "
+ 				+ "WHERE e.customer.id = :customerId")
+ 		int renameCustomerPhone(@Param("customerId") Long customerId, @Param("customerPhone") String customerPhone);
  		
  		
  		@Query("SELECT COALESCE(SUM(e.paidAmount), 0) FROM EMISchedule e")
@@ -93,6 +161,51 @@ List<EMISchedule> findAllUniqueCustomers();
  	   @Query("SELECT e FROM EMISchedule e WHERE e.status != :status")
  	   List<EMISchedule> findByStatusNot(@Param("status") PaymentStatus status);
 
+ 	   // Incremental sweep: only rows whose due date lies between the last evaluated threshold and the new one,
+ 	   // for one partition's customers (found with findCustomersWithStatusDueBetween). Versions are bumped so a
+ 	   // posting that read the old status fails its commit and retries
+ 	   @Modifying(flushAutomatically = true, clearAutomatically = true)
+ 	   @Query("UPDATE EMISchedule e SET e.status = com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus.OVERDUE, "
+ 			   + "e.version = e.version + 1 "
+ 			   + "WHERE e.status = com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus.PENDING "
+ 			   + "AND e.dueDate >= :from AND e.dueDate < :to AND e.customerPhone IN :customerPhones")
+ 	   int markOverdueBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+ 			   @Param("customerPhones") Collection<String> customerPhones);
+
+ 	   // The same window back to PENDING, when the threshold moved backwards (clock set back)
+ 	   @Modifying(flushAutomatically = true, clearAutomatically = true)
+ 	   @Query("UPDATE EMISchedule e SET e.status = com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus.PENDING, "
+ 			   + "e.version = e.version + 1 "
+ 			   + "WHERE e.status = com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus.OVERDUE "
+ 			   + "AND e.dueDate >= :from AND e.dueDate < :to AND e.customerPhone IN :customerPhones")
+ 	   int markPendingBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+ 			   @Param("customerPhones") Collection<String> customerPhones);
+
+ 	   // Timer-fired transitions (OverdueTransitionTimer): rows paid or already swept since they were registered are skipped
+ 	   @Modifying(flushAutomatically = true, clearAutomatically = true)
+ 	   @Query("UPDATE EMISchedule e SET e.status = com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus.OVERDUE, "
+ 			   + "e.version = e.version + 1 "
+ 			   + "WHERE e.id IN :ids AND e.status = com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus.PENDING "
+ 			   + "AND e.dueDate < :threshold")
+ 	   int markOverdueByIds(@Param("ids") Collection<Long> ids, @Param("threshold") LocalDate threshold);
+
+ 	   // [id, dueDate] of PENDING rows due in [from, to), off idx_emi_schedules_status_due_date
+ 	   @Query("SELECT e.id, e.dueDate FROM EMISchedule e "
+ 			   + "WHERE e.status = com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus.PENDING "
+ 			   + "AND e.dueDate >= :from AND e.dueDate < :to")
+ 	   List<Object[]> findPendingDueDatesBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+ 	   @Query("SELECT DISTINCT e.customerPhone FROM EMISchedule e "
+ 			   + "WHERE e.status = :status AND e.dueDate >= :from AND e.dueDate < :to")
+ 	   List<String> findCustomersWithStatusDueBetween(@Param("status") PaymentStatus status,
+ 			   @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+ 	   // Customers whose due-unpaid count or overdue flag (and so waitlist membership) differs between the two days
+ 	   @Query("SELECT DISTINCT e.customerPhone FROM EMISchedule e "
+ 			   + "WHERE e.status <> com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus.PAID "
+ 			   + "AND e.dueDate >= :from AND e.dueDate <= :to")
+ 	   List<String> findCustomersWithUnpaidDueBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
  	   
  	  @Query("SELECT COALESCE(SUM(e.paidAmount), 0) FROM EMISchedule e " +
  		       "WHERE e.paidDate BETWEEN :startDate AND :endDate")
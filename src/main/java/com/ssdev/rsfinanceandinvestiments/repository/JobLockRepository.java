@@ -0,0 +1,32 @@
+package com.ssdev.rsfinanceandinvestiments.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ssdev.rsfinanceandinvestiments.entity.JobLock;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+	// 1 when this node now holds the lock; the row lock makes two nodes racing for an expired lock serialise
+	@Modifying
+	@Query("UPDATE JobLock l SET l.lockedBy = :owner, l.lockedAt = :now, l.lockedUntil = :until "
+			+ "WHERE l.jobName = :jobName AND l.lockedUntil <= :now")
+	int tryAcquire(@Param("jobName") String jobName, @Param("owner") String owner, @Param("now") LocalDateTime now,
+			@Param("until") LocalDateTime until);
+
+	// Plain INSERT (never a merge), so a node that lost the race gets a key violation instead of taking over
+	@Modifying
+	@Query("INSERT INTO JobLock (jobName, lockedBy, lockedAt, lockedUntil) VALUES (:jobName, :owner, :now, :until)")
+	int insert(@Param("jobName") String jobName, @Param("owner") String owner, @Param("now") LocalDateTime now,
+			@Param("until") LocalDateTime until);
+
+	@Modifying
+	@Query("UPDATE JobLock l SET l.lockedUntil = :until WHERE l.jobName = :jobName AND l.lockedBy = :owner")
+	int release(@Param("jobName") String jobName, @Param("owner") String owner, @Param("until") LocalDateTime until);
+}
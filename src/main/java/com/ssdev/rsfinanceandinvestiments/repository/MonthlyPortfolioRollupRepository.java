@@ -0,0 +1,102 @@
+package com.ssdev.rsfinanceandinvestiments.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ssdev.rsfinanceandinvestiments.entity.MonthlyPortfolioRollup;
+import com.ssdev.rsfinanceandinvestiments.entity.MonthlyPortfolioRollupId;
+
+@Repository
+public interface MonthlyPortfolioRollupRepository extends JpaRepository<MonthlyPortfolioRollup, MonthlyPortfolioRollupId> {
+
+	boolean existsByAsOf(LocalDate asOf);
+
+	// Every row carries the same as_of: the day the whole rollup is correct for
+	@Query("SELECT MAX(r.asOf) FROM MonthlyPortfolioRollup r")
+	Optional<LocalDate> findAsOf();
+
+	@Modifying
+	@Query("UPDATE MonthlyPortfolioRollup r SET r.asOf = :to WHERE r.asOf = :from")
+	int restamp(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	@Modifying
+	@Query(value = "DELETE FROM monthly_portfolio_rollup", nativeQuery = true)
+	int deleteAllRows();
+
+	// Same rules as PortfolioAggregation: waitlist = overdue AND 3+ unpaid due <= today, pending = other due-unpaid
+	@Modifying
+	@Query(value = """
+			WITH customer_state AS (
+			    SELECT customer_phone,
+			           COUNT(*) FILTER (WHERE status <> 'PAID' AND due_date < :today) > 0
+			               AND COUNT(*) FILTER (WHERE status <> 'PAID' AND due_date <= :today) >= 3 AS waitlisted,
+			           COUNT(*) FILTER (WHERE status <> 'PAID' AND due_date <= :today) > 0 AS due_unpaid,
+			           COALESCE(SUM(emi_amount) FILTER (WHERE status <> 'PAID' AND due_date <= :today), 0) AS due_unpaid_amount
+			    FROM emi_schedules
+			    GROUP BY customer_phone
+			), customer_month AS (
+			    SELECT customer_phone,
+			           CAST(EXTRACT(YEAR FROM due_date) AS integer) AS rollup_year,
+			           CAST(EXTRACT(MONTH FROM due_date) AS integer) AS rollup_month,
+			           COALESCE(SUM(emi_amount), 0) AS expected_amount,
+			           COALESCE(SUM(paid_amount) FILTER (WHERE status = 'PAID'), 0) AS collected_amount,
+			           bool_or(status = 'PAID') AS paid
+			    FROM emi_schedules
+			    GROUP BY customer_phone, 2, 3
+			)
+			INSERT INTO monthly_portfolio_rollup (rollup_year, rollup_month, total_customers, paid_customers,
+			    pending_customers, waitlist_customers, expected_amount, collected_amount, unpaid_amount,
+			    pending_unpaid_amount, waitlist_unpaid_amount, as_of, updated_at)
+			SELECT cm.rollup_year, cm.rollup_month,
+			       COUNT(*),
+			       COUNT(*) FILTER (WHERE cm.paid),
+			       COUNT(*) FILTER (WHERE cs.due_unpaid AND NOT cs.waitlisted),
+			       COUNT(*) FILTER (WHERE cs.waitlisted),
+			       SUM(cm.expected_amount),
+			       SUM(cm.collected_amount),
+			       SUM(cs.due_unpaid_amount),
+			       COALESCE(SUM(cs.due_unpaid_amount) FILTER (WHERE cs.due_unpaid AND NOT cs.waitlisted), 0),
+			       COALESCE(SUM(cs.due_unpaid_amount) FILTER (WHERE cs.waitlisted), 0),
+			       CAST(:today AS date), now()
+			FROM customer_month cm
+			JOIN customer_state cs ON cs.customer_phone = cm.customer_phone
+			GROUP BY cm.rollup_year, cm.rollup_month
+			""", nativeQuery = true)
+	int rebuildFromSchedules(@Param("today") LocalDate today);
+
+	// Atomic delta so concurrent payment postings never overwrite each other's counts
+	@Modifying
+	@Query(value = """
+			INSERT INTO monthly_portfolio_rollup AS r (rollup_year, rollup_month, total_customers, paid_customers,
+			    pending_customers, waitlist_customers, expected_amount, collected_amount, unpaid_amount,
+			    pending_unpaid_amount, waitlist_unpaid_amount, as_of, updated_at)
+			VALUES (:year, :month, :totalCustomers, :paidCustomers, :pendingCustomers, :waitlistCustomers,
+			    :expectedAmount, :collectedAmount, :unpaidAmount, :pendingUnpaidAmount, :waitlistUnpaidAmount,
+			    :today, now())
+			ON CONFLICT (rollup_year, rollup_month) DO UPDATE SET
+			    total_customers = r.total_customers + EXCLUDED.total_customers,
+			    paid_customers = r.paid_customers + EXCLUDED.paid_customers,
+			    pending_customers = r.pending_customers + EXCLUDED.pending_customers,
+			    waitlist_customers = r.waitlist_customers + EXCLUDED.waitlist_customers,
+			    expected_amount = r.expected_amount + EXCLUDED.expected_amount,
+			    collected_amount = r.collected_amount + EXCLUDED.collected_amount,
+			    unpaid_amount = r.unpaid_amount + EXCLUDED.unpaid_amount,
+			    pending_unpaid_amount = r.pending_unpaid_amount + EXCLUDED.pending_unpaid_amount,
+			    waitlist_unpaid_amount = r.waitlist_unpaid_amount + EXCLUDED.waitlist_unpaid_amount,
+			    updated_at = now()
+			WHERE r.as_of = EXCLUDED.as_of
+			""", nativeQuery = true)
+	int applyDelta(@Param("year") int year, @Param("month") int month,
+			@Param("totalCustomers") int totalCustomers, @Param("paidCustomers") int paidCustomers,
+			@Param("pendingCustomers") int pendingCustomers, @Param("waitlistCustomers") int waitlistCustomers,
+			@Param("expectedAmount") BigDecimal expectedAmount, @Param("collectedAmount") BigDecimal collectedAmount,
+			@Param("unpaidAmount") BigDecimal unpaidAmount, @Param("pendingUnpaidAmount") BigDecimal pendingUnpaidAmount,
+			@Param("waitlistUnpaidAmount") BigDecimal waitlistUnpaidAmount, @Param("today") LocalDate today);
+}
@@ -0,0 +1,40 @@
+package com.ssdev.rsfinanceandinvestiments.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ssdev.rsfinanceandinvestiments.entity.ScheduleGenerationJob;
+import com.ssdev.rsfinanceandinvestiments.entity.ScheduleGenerationJob.JobStatus;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface ScheduleGenerationJobRepository extends JpaRepository<ScheduleGenerationJob, Long> {
+
+	long countByStatus(JobStatus status);
+
+	// Due QUEUED rows and RUNNING rows whose worker lease ran out; lock timeout -2 = SKIP LOCKED, so nodes never
+	// wait on (or double-claim) each other's rows
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	@Query("SELECT j FROM ScheduleGenerationJob j "
+			+ "WHERE (j.status = com.ssdev.rsfinanceandinvestiments.entity.ScheduleGenerationJob.JobStatus.QUEUED AND j.nextAttemptAt <= :now) "
+			+ "OR (j.status = com.ssdev.rsfinanceandinvestiments.entity.ScheduleGenerationJob.JobStatus.RUNNING AND j.leaseUntil < :now) "
+			+ "ORDER BY j.id ASC")
+	List<ScheduleGenerationJob> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+
+	// The customer's phone changed: queued jobs must still find them
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE ScheduleGenerationJob j SET j.customerPhone = :newPhone WHERE j.customerPhone = :oldPhone")
+	int renameCustomerPhone(@Param("oldPhone") String oldPhone, @Param("newPhone") String newPhone);
+}
@@ -0,0 +1,11 @@
+package com.ssdev.rsfinanceandinvestiments.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ssdev.rsfinanceandinvestiments.entity.SweepWatermark;
+
+// Only the node holding the sweep's job lock (JobLockService) reads and moves a watermark
+@Repository
+public interface SweepWatermarkRepository extends JpaRepository<SweepWatermark, String> {
+}
@@ -0,0 +1,69 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+import org.springframework.stereotype.Component;
+
+import com.ssdev.rsfinanceandinvestiments.Enums.MonthCategory;
+import com.ssdev.rsfinanceandinvestiments.dto.MonthlyAnalyticsResponse;
+
+/**
+ * Single-pass aggregation shared by the analytics and customer list endpoints.
+ *
+ * Callers feed period and full-tenure EMI rows (or per-customer aggregate rows)
+ * into a {@link PortfolioAggregation} and turn the resulting
+ * {@link PortfolioTotals} into a response here.
+ */
+@Component
+public class AnalyticsAggregationEngine {
+
+	/**
+	 * Start a new fold; rows can be discarded as soon as they are folded.
+	 */
+	public PortfolioAggregation newAggregation(LocalDate today) {
+		return new PortfolioAggregation(today);
+	}
+
+	/**
+	 * Percentages and directions for the dashboard cards
+	 */
+	public MonthlyAnalyticsResponse toMonthlyResponse(PortfolioTotals totals, MonthCategory monthCategory, int year,
+			int prevCustomerCount) {
+		int totalCustomers = totals.totalCustomers();
+		BigDecimal totalCollected = totals.totalPaidAmount();
+		BigDecimal totalExpected = totals.totalExpected();
+
+		double customerGrowthPercentage = prevCustomerCount == 0 ? 100.0
+				: ((totalCustomers - prevCustomerCount) * 100.0) / prevCustomerCount;
+		double paidPercentage = totalCustomers == 0 ? 0.0 : (totals.paidCustomers() * 100.0) / totalCustomers;
+		double pendingPercentage = totalCustomers == 0 ? 0.0 : (totals.pendingCustomers() * 100.0) / totalCustomers;
+		double waitlistPercentage = totalCustomers == 0 ? 0.0 : (totals.waitlistCustomers() * 100.0) / totalCustomers;
+		double collectionPercentage = totalExpected.compareTo(BigDecimal.ZERO) == 0 ? 0.0
+				: totalCollected.multiply(BigDecimal.valueOf(100)).divide(totalExpected, 2, RoundingMode.HALF_UP)
+						.doubleValue();
+
+		MonthlyAnalyticsResponse response = new MonthlyAnalyticsResponse();
+		response.setMonth(monthCategory.name());
+		response.setYear(year);
+		response.setTotalCustomers(totalCustomers);
+		response.setPaidCustomers(totals.paidCustomers());
+		response.setPendingCustomers(totals.pendingCustomers());
+		response.setWaitlistCustomers(totals.waitlistCustomers());
+		response.setTotalCollectedAmount(totalCollected);
+		response.setTotalPaidAmount(totals.totalPaidAmount());
+		response.setTotalUnpaidAmount(totals.totalUnpaidAmount());
+		response.setCustomerGrowthPercentage(customerGrowthPercentage);
+		response.setPaidPercentage(paidPercentage);
+		response.setPendingPercentage(pendingPercentage);
+		response.setWaitlistPercentage(waitlistPercentage);
+		response.setCollectionPercentage(collectionPercentage);
+		response.setCustomerGrowthDirection(customerGrowthPercentage >= 0 ? "+" : "-");
+		response.setPaidDirection(paidPercentage >= 50 ? "+" : "-");
+		response.setPendingDirection(pendingPercentage < 50 ? "+" : "-");
+		response.setWaitlistDirection(waitlistPercentage < 20 ? "+" : "-");
+		response.setCollectionDirection(collectionPercentage >= 80 ? "+" : "-");
+		return response;
+	}
+}
@@ -0,0 +1,143 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Size- and TTL-bounded cache of analytics responses.
+ *
+ * Writers call {@link #invalidateMonths} with the calendar months whose EMIs
+ * they touched; every cached view whose period overlaps one of those months is
+ * dropped once the writing transaction commits. A computation that started
+ * before an invalidation is not stored, so a slow reader cannot put back a
+ * result built from the old rows.
+ */
+@Component
+public class AnalyticsCache {
+
+	private final Cache<AnalyticsCacheKey, Object> cache;
+
+	// Bumped on every invalidation; results computed across a bump are not cached
+	private final AtomicLong generation = new AtomicLong();
+	private final AtomicLong invalidatedEntries = new AtomicLong();
+
+	private static final Logger log = LoggerFactory.getLogger(AnalyticsCache.class);
+
+	public AnalyticsCache(@Value("${analytics.cache.maximum-size:500}") long maximumSize,
+			@Value("${analytics.cache.ttl:10m}") Duration ttl) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T get(AnalyticsCacheKey key, Supplier<T> loader) {
+		Object cached = cache.getIfPresent(key);
+		if (cached != null) {
+			return (T) cached;
+		}
+
+		long startGeneration = generation.get();
+		T value = loader.get();
+		if (value != null && generation.get() == startGeneration) {
+			cache.put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Drop every view whose period overlaps one of the months, after the current
+	 * transaction commits (immediately when there is none)
+	 */
+	public void invalidateMonths(Collection<YearMonth> months) {
+		if (months.isEmpty()) {
+			return;
+		}
+		Set<YearMonth> affected = Set.copyOf(months);
+		afterCommit(() -> evict(affected));
+	}
+
+	public void invalidateAll() {
+		afterCommit(() -> {
+			generation.incrementAndGet();
+			invalidatedEntries.addAndGet(cache.estimatedSize());
+			cache.invalidateAll();
+			log.info("🧹 Analytics cache cleared");
+		});
+	}
+
+	/**
+	 * Calendar months covered by a tenure starting at startDate
+	 */
+	public static Set<YearMonth> tenureMonths(LocalDate startDate, Integer tenure) {
+		if (startDate == null || tenure == null) {
+			return Set.of();
+		}
+		YearMonth first = YearMonth.from(startDate);
+		return IntStream.range(0, tenure)
+				.mapToObj(first::plusMonths)
+				.collect(Collectors.toSet());
+	}
+
+	public Map<String, Object> stats() {
+		CacheStats stats = cache.stats();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("size", cache.estimatedSize());
+		result.put("hitCount", stats.hitCount());
+		result.put("missCount", stats.missCount());
+		result.put("hitRate", stats.hitRate());
+		result.put("evictionCount", stats.evictionCount());
+		result.put("invalidatedCount", invalidatedEntries.get());
+		return result;
+	}
+
+	private void evict(Set<YearMonth> months) {
+		generation.incrementAndGet();
+		Set<AnalyticsCacheKey> stale = cache.asMap().keySet().stream()
+				.filter(key -> overlaps(key.period(), months))
+				.collect(Collectors.toSet());
+		cache.invalidateAll(stale);
+		invalidatedEntries.addAndGet(stale.size());
+		log.debug("Analytics cache: evicted {} views for months {}", stale.size(), months);
+	}
+
+	private static boolean overlaps(AnalyticsPeriod period, Set<YearMonth> months) {
+		return months.stream().anyMatch(month -> period.start().isBefore(month.plusMonths(1).atDay(1))
+				&& month.atDay(1).isBefore(period.end()));
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+}
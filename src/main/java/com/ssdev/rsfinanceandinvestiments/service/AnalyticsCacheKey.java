@@ -0,0 +1,24 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.time.LocalDate;
+
+import com.ssdev.rsfinanceandinvestiments.Enums.MonthCategory;
+
+/**
+ * Cache key for one analytics view. The day is part of the key because
+ * pending/waitlist classification depends on "today".
+ */
+public record AnalyticsCacheKey(View view, MonthCategory monthCategory, int year, LocalDate asOf) {
+
+	public enum View {
+		MONTHLY, ALL, PAID, PENDING
+	}
+
+	public static AnalyticsCacheKey of(View view, MonthCategory monthCategory, int year) {
+		return new AnalyticsCacheKey(view, monthCategory, year, LocalDate.now());
+	}
+
+	public AnalyticsPeriod period() {
+		return AnalyticsPeriod.of(monthCategory, year, asOf);
+	}
+}
@@ -0,0 +1,64 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.time.LocalDate;
+
+import com.ssdev.rsfinanceandinvestiments.Enums.MonthCategory;
+
+/**
+ * Half-open due-date range [start, end) selected by a MonthCategory.
+ */
+public record AnalyticsPeriod(LocalDate start, LocalDate end) {
+
+	/** Bounds used for open-ended categories; both fit PostgreSQL's date type */
+	public static final LocalDate UNBOUNDED_START = LocalDate.of(1, 1, 1);
+	public static final LocalDate UNBOUNDED_END = LocalDate.of(9999, 12, 31);
+
+	public static AnalyticsPeriod of(MonthCategory monthCategory, int year, LocalDate today) {
+		Integer monthNumber = monthNumber(monthCategory);
+		if (monthNumber != null) {
+			LocalDate start = LocalDate.of(year, monthNumber, 1);
+			return new AnalyticsPeriod(start, start.plusMonths(1));
+		}
+
+		return switch (monthCategory) {
+		case LAST_3_MONTHS -> new AnalyticsPeriod(today.minusMonths(3), UNBOUNDED_END);
+		case LAST_6_MONTHS -> new AnalyticsPeriod(today.minusMonths(6), UNBOUNDED_END);
+		case ALL -> new AnalyticsPeriod(UNBOUNDED_START, UNBOUNDED_END);
+		default -> throw new IllegalArgumentException("Unhandled MonthCategory: " + monthCategory);
+		};
+	}
+
+	/**
+	 * Calendar month of the category, or null for ALL, LAST_3_MONTHS, LAST_6_MONTHS
+	 */
+	public static Integer monthNumber(MonthCategory monthCategory) {
+		return switch (monthCategory) {
+		case JANUARY -> 1;
+		case FEBRUARY -> 2;
+		case MARCH -> 3;
+		case APRIL -> 4;
+		case MAY -> 5;
+		case JUNE -> 6;
+		case JULY -> 7;
+		case AUGUST -> 8;
+		case SEPTEMBER -> 9;
+		case OCTOBER -> 10;
+		case NOVEMBER -> 11;
+		case DECEMBER -> 12;
+		default -> null;
+		};
+	}
+
+	public boolean contains(LocalDate dueDate) {
+		return !dueDate.isBefore(start) && dueDate.isBefore(end);
+	}
+
+	/**
+	 * The calendar month before this period (the growth comparison baseline)
+	 */
+	public AnalyticsPeriod previousMonth(MonthCategory monthCategory, LocalDate today) {
+		LocalDate prevStart = monthNumber(monthCategory) != null ? start.minusMonths(1)
+				: today.minusMonths(1).withDayOfMonth(1);
+		return new AnalyticsPeriod(prevStart, prevStart.plusMonths(1));
+	}
+}
@@ -0,0 +1,32 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ssdev.rsfinanceandinvestiments.utility.SingleFlight;
+
+/**
+ * Shares one in-flight analytics computation between identical concurrent
+ * requests (e.g. every operator opening the dashboard at month end)
+ */
+@Component
+public class AnalyticsRequestCoalescer {
+
+	private final SingleFlight<AnalyticsCacheKey, Object> singleFlight = new SingleFlight<>();
+
+	@Value("${analytics.coalescing.timeout:30s}")
+	private Duration timeout;
+
+	@SuppressWarnings("unchecked")
+	public <T> T execute(AnalyticsCacheKey key, Supplier<T> computation) {
+		return (T) singleFlight.execute(key, computation::get, timeout);
+	}
+
+	public Map<String, Object> stats() {
+		return singleFlight.stats();
+	}
+}
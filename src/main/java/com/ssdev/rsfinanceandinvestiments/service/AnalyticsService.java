@@ -1,25 +1,30 @@
 package com.ssdev.rsfinanceandinvestiments.service;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.ssdev.rsfinanceandinvestiments.Enums.AnalyticsAggregationMode;
 import com.ssdev.rsfinanceandinvestiments.Enums.MonthCategory;
 import com.ssdev.rsfinanceandinvestiments.dto.MonthlyAnalyticsResponse;
 import com.ssdev.rsfinanceandinvestiments.dto.RecentPayerResponse;
+import com.ssdev.rsfinanceandinvestiments.entity.CustomerBalance;
 import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
 import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
-import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
 import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.service.AnalyticsCacheKey.View;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.ssdev.rsfinanceandinvestiments.entity.Customer;
 
 @Service
 public class AnalyticsService {
@@ -28,255 +33,118 @@ public class AnalyticsService {
 	private EMIScheduleRepository emiScheduleRepository;
 
 	@Autowired
-	private CustomerRepository customerRepository;
+	private RecentPayerAssembler recentPayerAssembler;
 
-	private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+	@Autowired
+	private AnalyticsAggregationEngine aggregationEngine;
 
-public MonthlyAnalyticsResponse getMonthlyAnalytics(MonthCategory monthCategory, int year) {
-    List<EMISchedule> filteredSchedules;
-
-    Integer monthNumber = switch (monthCategory) {
-        case JANUARY -> 1; case FEBRUARY -> 2; case MARCH -> 3; 
-        case APRIL -> 4; case MAY -> 5; case JUNE -> 6;
-        case JULY -> 7; case AUGUST -> 8; case SEPTEMBER -> 9;
-        case OCTOBER -> 10; case NOVEMBER -> 11; case DECEMBER -> 12;
-        default -> null;
-    };
-
-    log.info("🚀 ANALYTICS START: Month={}, Year={}, MonthNumber={}", monthCategory, year, monthNumber);
-
-    if (monthNumber != null) {
-        filteredSchedules = emiScheduleRepository.findByMonthAndYear(monthNumber, year);
-    } else {
-        switch (monthCategory) {
-            case LAST_3_MONTHS -> filteredSchedules = emiScheduleRepository.findInLastNMonths(LocalDate.now().minusMonths(3));
-            case LAST_6_MONTHS -> filteredSchedules = emiScheduleRepository.findInLastNMonths(LocalDate.now().minusMonths(6));
-            case ALL -> filteredSchedules = emiScheduleRepository.findAll();
-            default -> throw new IllegalArgumentException("Unsupported MonthCategory: " + monthCategory);
-        }
-    }
+	@Autowired
+	private PortfolioRollupService portfolioRollupService;
 
-    LocalDate today = LocalDate.now();
+	@Autowired
+	private CustomerBalanceService customerBalanceService;
 
-    Set<String> customerPhones = filteredSchedules.stream()
-        .map(EMISchedule::getCustomerPhone)
-        .collect(Collectors.toSet());
-
-    int totalCustomers = customerPhones.size();
-
-    int paidCustomers = (int) customerPhones.stream()
-        .filter(phone -> filteredSchedules.stream()
-            .anyMatch(s -> s.getCustomerPhone().equals(phone) && s.getStatus() == PaymentStatus.PAID))
-        .count();
-
-    List<EMISchedule> allSchedules = emiScheduleRepository.findAll();
-    List<String> waitlistPhones = emiScheduleRepository.findWaitlistCustomers(today);
-
-    // Overdue = strictly before today
-    Set<String> allOverdueCustomers = allSchedules.stream()
-        .filter(s -> s.getStatus() != PaymentStatus.PAID && s.getDueDate().isBefore(today))
-        .map(EMISchedule::getCustomerPhone)
-        .filter(customerPhones::contains)
-        .collect(Collectors.toSet());
-
-    Set<String> waitlistCustomersInPeriod = allOverdueCustomers.stream()
-        .filter(waitlistPhones::contains)
-        .collect(Collectors.toSet());
-
-    // ✅ Pending customers now include overdue + current-month pending
-    Set<String> pendingCustomersInPeriod = customerPhones.stream()
-        .filter(phone ->
-            allSchedules.stream().anyMatch(s -> s.getCustomerPhone().equals(phone)
-                    && s.getStatus() != PaymentStatus.PAID
-                    && (s.getDueDate().isBefore(today) || s.getDueDate().isEqual(today)))
-            && !waitlistCustomersInPeriod.contains(phone)
-        ).collect(Collectors.toSet());
-
-    int pendingCustomers = pendingCustomersInPeriod.size();
-    int waitlistCustomersCount = waitlistCustomersInPeriod.size();
-
-    BigDecimal totalPaidAmount = filteredSchedules.stream()
-        .filter(s -> s.getStatus() == PaymentStatus.PAID)
-        .map(EMISchedule::getPaidAmount)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-    // ✅ Include current-month unpaid in totals
-    BigDecimal totalUnpaidAmount = allSchedules.stream()
-        .filter(s -> s.getStatus() != PaymentStatus.PAID
-                && (s.getDueDate().isBefore(today) || s.getDueDate().isEqual(today)))
-        .filter(s -> customerPhones.contains(s.getCustomerPhone()))
-        .map(EMISchedule::getEmiAmount)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-    BigDecimal pendingUnpaidAmount = allSchedules.stream()
-        .filter(s -> s.getStatus() != PaymentStatus.PAID
-                && (s.getDueDate().isBefore(today) || s.getDueDate().isEqual(today)))
-        .filter(s -> pendingCustomersInPeriod.contains(s.getCustomerPhone()))
-        .map(EMISchedule::getEmiAmount)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-    BigDecimal waitlistUnpaidAmount = allSchedules.stream()
-        .filter(s -> s.getStatus() != PaymentStatus.PAID
-                && (s.getDueDate().isBefore(today) || s.getDueDate().isEqual(today)))
-        .filter(s -> waitlistCustomersInPeriod.contains(s.getCustomerPhone()))
-        .map(EMISchedule::getEmiAmount)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-    BigDecimal totalCollected = totalPaidAmount;
-    BigDecimal totalExpected = filteredSchedules.stream()
-        .map(EMISchedule::getEmiAmount)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-    // --- Percentage and direction logic stays exactly the same ---
-    LocalDate prevMonthDate = LocalDate.now().minusMonths(1);
-    if (monthNumber != null) {
-        try { prevMonthDate = LocalDate.of(year, monthNumber, 1).minusMonths(1); }
-        catch (Exception e) { log.warn("⚠️ Failed prev month date: {}", e.getMessage()); }
-    }
-    List<EMISchedule> prevSchedules = emiScheduleRepository.findByMonthAndYear(prevMonthDate.getMonthValue(), prevMonthDate.getYear());
-    int prevCustomerCount = (int) prevSchedules.stream().map(EMISchedule::getCustomerPhone).distinct().count();
-
-    double customerGrowthPercentage = prevCustomerCount == 0 ? 100.0 :
-        ((totalCustomers - prevCustomerCount) * 100.0) / prevCustomerCount;
-    double paidPercentage = totalCustomers == 0 ? 0.0 : (paidCustomers * 100.0) / totalCustomers;
-    double pendingPercentage = totalCustomers == 0 ? 0.0 : (pendingCustomers * 100.0) / totalCustomers;
-    double waitlistPercentage = totalCustomers == 0 ? 0.0 : (waitlistCustomersCount * 100.0) / totalCustomers;
-    double collectionPercentage = totalExpected.compareTo(BigDecimal.ZERO) == 0 ? 0.0 :
-        totalCollected.multiply(BigDecimal.valueOf(100)).divide(totalExpected, 2, BigDecimal.ROUND_HALF_UP).doubleValue();
-
-    String customerDirection = customerGrowthPercentage >= 0 ? "+" : "-";
-    String paidDirection = paidPercentage >= 50 ? "+" : "-";
-    String pendingDirection = pendingPercentage < 50 ? "+" : "-";
-    String waitlistDirection = waitlistPercentage < 20 ? "+" : "-";
-    String collectionDirection = collectionPercentage >= 80 ? "+" : "-";
-
-    MonthlyAnalyticsResponse response = new MonthlyAnalyticsResponse();
-    response.setMonth(monthCategory.name());
-    response.setYear(year);
-    response.setTotalCustomers(totalCustomers);
-    response.setPaidCustomers(paidCustomers);
-    response.setPendingCustomers(pendingCustomers);
-    response.setWaitlistCustomers(waitlistCustomersCount);
-    response.setTotalCollectedAmount(totalCollected);
-    response.setTotalPaidAmount(totalPaidAmount);
-    response.setTotalUnpaidAmount(totalUnpaidAmount);
-    response.setCustomerGrowthPercentage(customerGrowthPercentage);
-    response.setPaidPercentage(paidPercentage);
-    response.setPendingPercentage(pendingPercentage);
-    response.setWaitlistPercentage(waitlistPercentage);
-    response.setCollectionPercentage(collectionPercentage);
-    response.setCustomerGrowthDirection(customerDirection);
-    response.setPaidDirection(paidDirection);
-    response.setPendingDirection(pendingDirection);
-    response.setWaitlistDirection(waitlistDirection);
-    response.setCollectionDirection(collectionDirection);
+	@Autowired
+	private AnalyticsCache analyticsCache;
 
-    return response;
-}
+	@Autowired
+	private AnalyticsRequestCoalescer requestCoalescer;
+
+	@Autowired
+	private StreamingScheduleAggregator streamingAggregator;
 
+	// DATABASE: GROUP BY per customer in PostgreSQL, IN_MEMORY: fold full rows in Java
+	@Value("${analytics.aggregation-mode:DATABASE}")
+	private AnalyticsAggregationMode aggregationMode;
+
+	private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+
+	public MonthlyAnalyticsResponse getMonthlyAnalytics(MonthCategory monthCategory, int year) {
+		return cachedOrCoalesced(AnalyticsCacheKey.of(View.MONTHLY, monthCategory, year),
+				() -> computeMonthlyAnalytics(monthCategory, year));
+	}
+
+	public List<RecentPayerResponse> getAllCustomers(MonthCategory monthCategory, int year) {
+		return cachedOrCoalesced(AnalyticsCacheKey.of(View.ALL, monthCategory, year),
+				() -> computeAllCustomers(monthCategory, year));
+	}
+
+	public List<RecentPayerResponse> getPaidCustomers(MonthCategory monthCategory, int year) {
+		return cachedOrCoalesced(AnalyticsCacheKey.of(View.PAID, monthCategory, year),
+				() -> computePaidCustomers(monthCategory, year));
+	}
+
+	public List<RecentPayerResponse> getPendingCustomers(MonthCategory monthCategory, int year) {
+		return cachedOrCoalesced(AnalyticsCacheKey.of(View.PENDING, monthCategory, year),
+				() -> computePendingCustomers(monthCategory, year));
+	}
 
 	/**
-	 * Centralized method to filter EMI schedules by MonthCategory
+	 * Cache hit, or one shared computation for all concurrent misses on the key
 	 */
-	private List<EMISchedule> getFilteredSchedules(MonthCategory monthCategory, int year) {
-		List<EMISchedule> filteredSchedules;
-		Integer monthNumber = switch (monthCategory) {
-		case JANUARY -> 1;
-		case FEBRUARY -> 2;
-		case MARCH -> 3;
-		case APRIL -> 4;
-		case MAY -> 5;
-		case JUNE -> 6;
-		case JULY -> 7;
-		case AUGUST -> 8;
-		case SEPTEMBER -> 9;
-		case OCTOBER -> 10;
-		case NOVEMBER -> 11;
-		case DECEMBER -> 12;
-		default -> null; // for ALL, LAST_3_MONTHS, LAST_6_MONTHS
-		};
-
-		log.info("Filtering schedules for {} year={} resolvedMonth={}", monthCategory, year, monthNumber);
+	private <T> T cachedOrCoalesced(AnalyticsCacheKey key, Supplier<T> computation) {
+		return analyticsCache.get(key, () -> requestCoalescer.execute(key, computation));
+	}
 
+	private MonthlyAnalyticsResponse computeMonthlyAnalytics(MonthCategory monthCategory, int year) {
+		log.info("🚀 ANALYTICS START: Month={}, Year={}, Mode={}", monthCategory, year, aggregationMode);
+
+		Integer monthNumber = AnalyticsPeriod.monthNumber(monthCategory);
 		if (monthNumber != null) {
-			// Regular month
-			filteredSchedules = emiScheduleRepository.findByMonthAndYear(monthNumber, year);
-		} else {
-			// Range categories
-			switch (monthCategory) {
-			case LAST_3_MONTHS ->
-				filteredSchedules = emiScheduleRepository.findInLastNMonths(LocalDate.now().minusMonths(3));
-			case LAST_6_MONTHS ->
-				filteredSchedules = emiScheduleRepository.findInLastNMonths(LocalDate.now().minusMonths(6));
-			case ALL -> filteredSchedules = emiScheduleRepository.findAll(); // If supported
-			default -> throw new IllegalArgumentException("Unhandled MonthCategory: " + monthCategory);
+			// Calendar months are two primary-key reads while the rollup is current
+			YearMonth month = YearMonth.of(year, monthNumber);
+			Optional<PortfolioTotals> current = portfolioRollupService.lookup(month);
+			Optional<PortfolioTotals> previous = portfolioRollupService.lookup(month.minusMonths(1));
+			if (current.isPresent() && previous.isPresent()) {
+				log.info("⚡ Monthly analytics served from rollup for {}", month);
+				return aggregationEngine.toMonthlyResponse(current.get(), monthCategory, year,
+						previous.get().totalCustomers());
 			}
 		}
 
-		log.debug("Total EMI schedules found: {}", filteredSchedules.size());
-		return filteredSchedules;
+		LocalDate today = LocalDate.now();
+		AnalyticsPeriod period = AnalyticsPeriod.of(monthCategory, year, today);
+		PortfolioAggregation aggregation = aggregate(monthCategory, year, today);
+
+		AnalyticsPeriod prevMonth = period.previousMonth(monthCategory, today);
+		int prevCustomerCount = (int) emiScheduleRepository.countCustomersDueBetween(prevMonth.start(), prevMonth.end());
+
+		return aggregationEngine.toMonthlyResponse(aggregation.totals(), monthCategory, year, prevCustomerCount);
 	}
 
 	/**
-	 * Build RecentPayerResponse from phone
+	 * Per-customer flags and balances for the period, folded from one row per
+	 * customer (DATABASE) or from one streamed pass over every EMI row (IN_MEMORY)
 	 */
-	// Helper: Build RecentPayerResponse for given phone with all schedules, sets
-	// balance
-	private RecentPayerResponse buildResponseWithBalance(String phone, List<EMISchedule> allSchedules) {
-		RecentPayerResponse dto = new RecentPayerResponse();
-		Customer customer = customerRepository.findByPhoneNumber(phone).orElse(null);
-
-		// All EMI schedules for this customer (entire tenure)
-		List<EMISchedule> customerSchedules = allSchedules.stream().filter(s -> s.getCustomerPhone().equals(phone))
-				.toList();
-
-		dto.setCustomer(customer);
-		dto.setEmiSchedules(customerSchedules);
-
-		// Calculate balance = sum of all unpaid EMI pendingAmount
-		BigDecimal balance = customerSchedules.stream()
-				.filter(s -> s.getStatus() == PaymentStatus.PENDING || s.getStatus() == PaymentStatus.OVERDUE)
-				.map(EMISchedule::getPendingAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-
-		dto.setBalance(balance);
-		return dto;
+	private PortfolioAggregation aggregate(MonthCategory monthCategory, int year, LocalDate today) {
+		AnalyticsPeriod period = AnalyticsPeriod.of(monthCategory, year, today);
+
+		if (aggregationMode == AnalyticsAggregationMode.DATABASE) {
+			PortfolioAggregation aggregation = aggregationEngine.newAggregation(today);
+			emiScheduleRepository.aggregateByCustomer(period.start(), period.end(), today)
+					.forEach(aggregation::acceptCustomerAggregate);
+			return aggregation;
+		}
+		return streamingAggregator.aggregate(period, today);
 	}
 
-
 // 2️⃣ Paid customers
-public List<RecentPayerResponse> getPaidCustomers(MonthCategory monthCategory, int year) {
+private List<RecentPayerResponse> computePaidCustomers(MonthCategory monthCategory, int year) {
     long startTime = System.currentTimeMillis();
     log.info("Fetching PAID customers for {} year={}", monthCategory, year);
 
-    LocalDate today = LocalDate.now();
-    List<EMISchedule> filteredSchedules = getFilteredSchedules(monthCategory, year);
-    List<EMISchedule> allSchedules = emiScheduleRepository.findAll();
-
-    List<RecentPayerResponse> response = filteredSchedules.stream()
-            .filter(s -> s.getStatus() == PaymentStatus.PAID)
-            .map(EMISchedule::getCustomerPhone)
-            .distinct()
-            .map(phone -> {
-                RecentPayerResponse dto = new RecentPayerResponse();
-                Customer customer = customerRepository.findByPhoneNumber(phone).orElse(null);
-                dto.setCustomer(customer);
-
-                dto.setEmiSchedules(filteredSchedules.stream()
-                        .filter(s -> s.getCustomerPhone().equals(phone) && s.getStatus() == PaymentStatus.PAID)
-                        .toList());
-
-                // ✅ Include EMIs due on/before today in balance
-                BigDecimal balance = allSchedules.stream()
-                        .filter(s -> s.getCustomerPhone().equals(phone))
-                        .filter(s -> s.getStatus() == PaymentStatus.PENDING || s.getStatus() == PaymentStatus.OVERDUE)
-                        .map(EMISchedule::getEmiAmount)  // Sum full EMI amount
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                dto.setBalance(balance);
-                log.info("📊 PAID Customer={} Balance={}", phone, balance);
-                return dto;
-            })
-            .toList();
+    // Only the PAID months of the period are loaded; a customer is "paid" when they have one
+    AnalyticsPeriod period = AnalyticsPeriod.of(monthCategory, year, LocalDate.now());
+    Map<String, List<EMISchedule>> paidSchedules = emiScheduleRepository
+            .findPaidDueBetween(period.start(), period.end()).stream()
+            .collect(Collectors.groupingBy(EMISchedule::getCustomerPhone, LinkedHashMap::new, Collectors.toList()));
+
+    List<String> paidPhones = List.copyOf(paidSchedules.keySet());
+    Map<String, CustomerBalance> balances = customerBalanceService.balancesFor(paidPhones);
+
+    // ✅ Balance = full EMI amount of every PENDING/OVERDUE month
+    List<RecentPayerResponse> response = recentPayerAssembler.assemble(paidPhones, paidSchedules,
+            phone -> CustomerBalanceService.outstandingAmount(balances, phone));
 
     log.info("Total paid customers: {}", response.size());
     log.debug("Execution time: {} ms", (System.currentTimeMillis() - startTime));
@@ -284,89 +152,56 @@ public List<RecentPayerResponse> getPaidCustomers(MonthCategory monthCategory, i
 }
 
 // 3️⃣ Pending customers - EMI schedules up to current month, balance covers full tenure
-public List<RecentPayerResponse> getPendingCustomers(MonthCategory monthCategory, int year) {
+private List<RecentPayerResponse> computePendingCustomers(MonthCategory monthCategory, int year) {
     long startTime = System.currentTimeMillis();
     log.info("🚀 FETCHING PENDING CUSTOMERS: Month={}, Year={}", monthCategory, year);
 
-    List<EMISchedule> filteredSchedules = getFilteredSchedules(monthCategory, year);
-    List<EMISchedule> allSchedules = emiScheduleRepository.findAll();
     LocalDate today = LocalDate.now();
+    PortfolioAggregation aggregation = aggregate(monthCategory, year, today);
 
-    List<String> waitlistPhones = emiScheduleRepository.findWaitlistCustomers(today);
-
-    Set<String> filteredCustomerPhones = filteredSchedules.stream()
-            .map(EMISchedule::getCustomerPhone)
-            .collect(Collectors.toSet());
-
-    List<RecentPayerResponse> response = filteredCustomerPhones.stream()
-            .filter(phone -> {
-                boolean hasOverdueOrDueToday = allSchedules.stream()
-                        .anyMatch(s -> s.getCustomerPhone().equals(phone)
-                                && s.getStatus() != PaymentStatus.PAID
-                                && (s.getDueDate().isBefore(today) || s.getDueDate().isEqual(today)));
-                boolean isWaitlist = waitlistPhones.contains(phone);
-                return hasOverdueOrDueToday && !isWaitlist;
-            })
-            .map(phone -> {
-                List<EMISchedule> upToCurrentMonthSchedules = allSchedules.stream()
-                        .filter(s -> s.getCustomerPhone().equals(phone))
-                        .filter(s -> s.getDueDate().isBefore(today)
-                                || s.getDueDate().isEqual(today)
-                                || (s.getDueDate().getYear() == today.getYear()
-                                    && s.getDueDate().getMonthValue() == today.getMonthValue()))
-                        .sorted((s1, s2) -> s1.getMonthNumber().compareTo(s2.getMonthNumber()))
-                        .toList();
-
-                RecentPayerResponse dto = buildResponseWithBalance(phone, allSchedules);
-                dto.setEmiSchedules(upToCurrentMonthSchedules);
-                return dto;
-            })
+    List<String> pendingPhones = aggregation.getPeriodCustomers().stream()
+            .filter(customer -> customer.hasDueUnpaid() && !customer.isWaitlistCandidate())
+            .map(PortfolioAggregation.CustomerAccumulator::getPhone)
             .toList();
+    Map<String, List<EMISchedule>> schedulesByPhone = recentPayerAssembler.loadSchedules(pendingPhones);
+    Map<String, CustomerBalance> balances = customerBalanceService.balancesFor(pendingPhones);
+
+    Map<String, List<EMISchedule>> upToCurrentMonthSchedules = new LinkedHashMap<>();
+    schedulesByPhone.forEach((phone, schedules) -> upToCurrentMonthSchedules.put(phone, schedules.stream()
+            .filter(s -> !s.getDueDate().isAfter(today)
+                    || (s.getDueDate().getYear() == today.getYear()
+                        && s.getDueDate().getMonthValue() == today.getMonthValue()))
+            .toList()));
+
+    List<RecentPayerResponse> response = recentPayerAssembler.assemble(pendingPhones, upToCurrentMonthSchedules,
+            phone -> CustomerBalanceService.outstandingPendingAmount(balances, phone));
 
     log.info("🎯 FINAL: Total pending customers: {}", response.size());
     log.debug("Execution time: {} ms", (System.currentTimeMillis() - startTime));
     return response;
 }
 
-// 1️⃣ All customers with balance = sum of all unpaid EMI amounts due <= today
-public List<RecentPayerResponse> getAllCustomers(MonthCategory monthCategory, int year) {
+// 1️⃣ All customers with balance = sum of all unpaid EMI amounts
+private List<RecentPayerResponse> computeAllCustomers(MonthCategory monthCategory, int year) {
     long startTime = System.currentTimeMillis();
     log.info("Fetching ALL customers for {} year={}", monthCategory, year);
 
     LocalDate today = LocalDate.now();
+    AnalyticsPeriod period = AnalyticsPeriod.of(monthCategory, year, today);
+    PortfolioAggregation aggregation = aggregate(monthCategory, year, today);
 
-    // EMIs for the selected month/period
-    List<EMISchedule> filteredSchedules = getFilteredSchedules(monthCategory, year);
-
-    // All schedules for balance calculation (full tenure data)
-    List<EMISchedule> allSchedules = emiScheduleRepository.findAll();
-
-    List<RecentPayerResponse> response = filteredSchedules.stream()
-            .map(EMISchedule::getCustomerPhone)
-            .distinct()
-            .map(phone -> {
-                RecentPayerResponse dto = new RecentPayerResponse();
-
-                // Customer info
-                Customer customer = customerRepository.findByPhoneNumber(phone).orElse(null);
-                dto.setCustomer(customer);
-
-                // 🔹 EMI schedules for the selected month/period only
-                dto.setEmiSchedules(filteredSchedules.stream()
-                        .filter(s -> s.getCustomerPhone().equals(phone))
-                        .toList());
+    List<String> phones = aggregation.getPeriodCustomers().stream()
+            .map(PortfolioAggregation.CustomerAccumulator::getPhone)
+            .toList();
+    Map<String, CustomerBalance> balances = customerBalanceService.balancesFor(phones);
 
-                BigDecimal balance = allSchedules.stream()
-                        .filter(s -> s.getCustomerPhone().equals(phone))
-                        .filter(s -> s.getStatus() == PaymentStatus.PENDING || s.getStatus() == PaymentStatus.OVERDUE)
-                        .map(EMISchedule::getEmiAmount)  // Sum full EMI amount
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // 🔹 EMI schedules for the selected month/period only (of the listed customers), balance over the full tenure
+    Map<String, List<EMISchedule>> periodSchedules = new LinkedHashMap<>();
+    recentPayerAssembler.loadSchedules(phones).forEach((phone, schedules) -> periodSchedules.put(phone,
+            schedules.stream().filter(s -> period.contains(s.getDueDate())).toList()));
 
-                dto.setBalance(balance);
-
-                return dto;
-            })
-            .toList();
+    List<RecentPayerResponse> response = recentPayerAssembler.assemble(phones, periodSchedules,
+            phone -> CustomerBalanceService.outstandingAmount(balances, phone));
 
     log.info("Total customers found: {}", response.size());
     log.debug("Execution time: {} ms", (System.currentTimeMillis() - startTime));
@@ -384,29 +219,13 @@ public List<RecentPayerResponse> getWaitlistCustomers() {
 
  log.info("Fetching WAITLIST customers pending before {}", cutoff);
 
- List<EMISchedule> allSchedules = emiScheduleRepository.findAll();
  List<String> waitlistPhones = emiScheduleRepository.findWaitlistCustomers(cutoff);
+ Map<String, List<EMISchedule>> schedulesByPhone = recentPayerAssembler.loadSchedules(waitlistPhones);
+ Map<String, CustomerBalance> balances = customerBalanceService.balancesFor(waitlistPhones);
 
- List<RecentPayerResponse> response = waitlistPhones.stream()
-         .map(phone -> {
-             RecentPayerResponse dto = new RecentPayerResponse();
-             Customer customer = customerRepository.findByPhoneNumber(phone).orElse(null);
-             dto.setCustomer(customer);
-
-             dto.setEmiSchedules(
-                     emiScheduleRepository.findByCustomerPhoneOrderByMonth(phone)
-             );
-
-             BigDecimal balance = allSchedules.stream()
-            	        .filter(s -> s.getCustomerPhone().equals(phone))
-            	        .filter(s -> s.getStatus() == PaymentStatus.PENDING || s.getStatus() == PaymentStatus.OVERDUE)
-            	        .map(EMISchedule::getEmiAmount)  // Sum full EMI amount
-            	        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-             dto.setBalance(balance);
-             return dto;
-         })
-         .toList();
+ List<RecentPayerResponse> response = recentPayerAssembler.assemble(
+         waitlistPhones.stream().filter(schedulesByPhone::containsKey).toList(), schedulesByPhone,
+         phone -> CustomerBalanceService.outstandingAmount(balances, phone));
 
  log.info("Total waitlist customers: {}", response.size());
  log.debug("Execution time: {} ms", (System.currentTimeMillis() - startTime));
@@ -418,4 +237,4 @@ public List<RecentPayerResponse> getWaitlistCustomers() {
 
 
 
-}
\ No newline at end of file
+}
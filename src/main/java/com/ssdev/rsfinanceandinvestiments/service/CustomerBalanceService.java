@@ -0,0 +1,95 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.entity.CustomerBalance;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerBalanceRepository;
+
+/**
+ * Maintains customer_balances, the per-customer outstanding ledger read by the
+ * analytics list endpoints.
+ *
+ * Every write to a customer's EMI rows ends with {@link #refresh}, which
+ * recomputes that one customer in the database inside the caller's transaction.
+ */
+@Service
+public class CustomerBalanceService {
+
+	@Autowired
+	private CustomerBalanceRepository customerBalanceRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private static final Logger log = LoggerFactory.getLogger(CustomerBalanceService.class);
+
+	@Transactional
+	public void refresh(String customerPhone) {
+		if (customerBalanceRepository.refreshForCustomer(customerPhone) == 0) {
+			// No EMI rows left for this phone
+			customerBalanceRepository.deleteByPhone(customerPhone);
+		}
+	}
+
+	@Transactional
+	public void remove(String customerPhone) {
+		customerBalanceRepository.deleteByPhone(customerPhone);
+	}
+
+	/**
+	 * Recompute every customer from emi_schedules in bulk
+	 */
+	@Transactional
+	public int rebuild() {
+		long startTime = System.currentTimeMillis();
+		customerBalanceRepository.deleteAllRows();
+		int customers = customerBalanceRepository.rebuildFromSchedules();
+		log.info("✅ Customer balances rebuilt: {} customers in {} ms", customers,
+				System.currentTimeMillis() - startTime);
+		return customers;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildOnStartup() {
+		try {
+			transactionTemplate.executeWithoutResult(status -> rebuild());
+		} catch (Exception e) {
+			log.error("❌ Customer balance rebuild on startup failed: {}", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Ledger rows for the given customers, keyed by phone (one query)
+	 */
+	@Transactional(readOnly = true)
+	public Map<String, CustomerBalance> balancesFor(Collection<String> customerPhones) {
+		if (customerPhones.isEmpty()) {
+			return Map.of();
+		}
+		return customerBalanceRepository.findByCustomerPhoneIn(customerPhones).stream()
+				.collect(Collectors.toMap(CustomerBalance::getCustomerPhone, Function.identity()));
+	}
+
+	public static BigDecimal outstandingAmount(Map<String, CustomerBalance> balances, String customerPhone) {
+		CustomerBalance balance = balances.get(customerPhone);
+		return balance != null ? balance.getOutstandingAmount() : BigDecimal.ZERO;
+	}
+
+	public static BigDecimal outstandingPendingAmount(Map<String, CustomerBalance> balances, String customerPhone) {
+		CustomerBalance balance = balances.get(customerPhone);
+		return balance != null ? balance.getOutstandingPendingAmount() : BigDecimal.ZERO;
+	}
+}
@@ -0,0 +1,267 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssdev.rsfinanceandinvestiments.Enums.CustomerImportFormat;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerImportResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerRequest;
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.utility.ConstraintChecker;
+import com.ssdev.rsfinanceandinvestiments.utility.CsvLineParser;
+
+/**
+ * Bulk onboarding: reads a CSV or NDJSON upload line by line, validates each
+ * row as a CustomerRequest and inserts customers with their EMI schedules in
+ * chunks, one transaction per chunk. Only the current chunk is held in memory.
+ *
+ * Summary tables are rebuilt once at the end instead of per customer. If the
+ * upload stops being readable part way (bad encoding, broken connection) the
+ * report so far comes back with error set.
+ */
+@Service
+public class CustomerImportService {
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private EMIScheduleService emiScheduleService;
+
+	@Autowired
+	private PortfolioRollupService portfolioRollupService;
+
+	@Autowired
+	private CustomerBalanceService customerBalanceService;
+
+	@Autowired
+	private AnalyticsCache analyticsCache;
+
+	@Autowired
+	private OverdueTransitionTimer overdueTransitionTimer;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${customers.import.chunk-size:500}")
+	private int chunkSize;
+
+	@Value("${customers.import.max-reported-errors:1000}")
+	private int maxReportedErrors;
+
+	private static final Logger log = LoggerFactory.getLogger(CustomerImportService.class);
+
+	private record ImportRow(long lineNumber, CustomerRequest request) {
+	}
+
+	public CustomerImportResponse importCustomers(InputStream input, CustomerImportFormat format) {
+		long startTime = System.currentTimeMillis();
+		CustomerImportResponse report = new CustomerImportResponse();
+		LocalDate today = LocalDate.now();
+
+		// Phones accepted so far, to reject repeats within the same file
+		Set<String> seenPhones = new HashSet<>();
+		List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+		// Strict decoding: a file in another encoding is rejected rather than imported with mangled names
+		CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, utf8))) {
+			List<String> header = null;
+			long lineNumber = 0;
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank()) {
+					continue;
+				}
+				if (format == CustomerImportFormat.CSV && header == null) {
+					// Strip a UTF-8 byte order mark left by spreadsheet exports
+					header = CsvLineParser.parse(line.replace("\uFEFF", ""));
+					continue;
+				}
+
+				report.setTotalRows(report.getTotalRows() + 1);
+				CustomerRequest request;
+				try {
+					request = parse(line, format, header);
+				} catch (Exception e) {
+					reject(report, lineNumber, null, List.of("Unreadable row: " + e.getMessage()));
+					continue;
+				}
+
+				List<String> violations = ConstraintChecker.violations(request);
+				if (!violations.isEmpty()) {
+					reject(report, lineNumber, request.getPhoneNumber(), violations);
+					continue;
+				}
+				if (!seenPhones.add(request.getPhoneNumber())) {
+					reject(report, lineNumber, request.getPhoneNumber(), List.of("Duplicate phone number in file"));
+					continue;
+				}
+
+				chunk.add(new ImportRow(lineNumber, request));
+				if (chunk.size() >= chunkSize) {
+					insertChunk(chunk, report, today);
+					chunk.clear();
+				}
+			}
+			insertChunk(chunk, report, today);
+		} catch (IOException e) {
+			// Chunks inserted before the failure stay committed and stay in the report; the rest is not read
+			report.setError("Failed to read import after " + report.getImportedCount() + " imported rows: "
+					+ (e instanceof CharacterCodingException ? "not valid UTF-8" : e.getMessage()));
+			log.warn("⚠️ {}", report.getError());
+		}
+
+		if (report.getImportedCount() > 0) {
+			refreshSummaries();
+		}
+
+		log.info("✅ Customer import finished in {} ms: {} rows, {} imported, {} failed",
+				System.currentTimeMillis() - startTime, report.getTotalRows(), report.getImportedCount(),
+				report.getFailedCount());
+		return report;
+	}
+
+	private CustomerRequest parse(String line, CustomerImportFormat format, List<String> header) throws IOException {
+		if (format == CustomerImportFormat.NDJSON) {
+			return objectMapper.readValue(line, CustomerRequest.class);
+		}
+
+		List<String> values = CsvLineParser.parse(line);
+		if (values.size() != header.size()) {
+			throw new IllegalArgumentException("Expected " + header.size() + " columns, found " + values.size());
+		}
+		Map<String, String> fields = new HashMap<>();
+		for (int i = 0; i < header.size(); i++) {
+			// Empty cell = missing value, so NotNull/NotBlank report it
+			fields.put(header.get(i), values.get(i).isEmpty() ? null : values.get(i));
+		}
+		return objectMapper.convertValue(fields, CustomerRequest.class);
+	}
+
+	private void insertChunk(List<ImportRow> chunk, CustomerImportResponse report, LocalDate today) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+
+		Set<String> existingPhones = customerRepository
+				.findByPhoneNumberIn(chunk.stream().map(row -> row.request().getPhoneNumber()).toList()).stream()
+				.map(Customer::getPhoneNumber)
+				.collect(Collectors.toSet());
+		List<ImportRow> newRows = new ArrayList<>();
+		for (ImportRow row : chunk) {
+			if (existingPhones.contains(row.request().getPhoneNumber())) {
+				reject(report, row.lineNumber(), row.request().getPhoneNumber(), List.of("Customer already exists"));
+			} else {
+				newRows.add(row);
+			}
+		}
+
+		try {
+			transactionTemplate.executeWithoutResult(status -> insert(newRows, today));
+			report.setImportedCount(report.getImportedCount() + newRows.size());
+		} catch (Exception e) {
+			// One bad row rolls back the chunk; retry row by row to find it
+			log.warn("⚠️ Import chunk of {} rows failed ({}), retrying row by row", newRows.size(), e.getMessage());
+			for (ImportRow row : newRows) {
+				try {
+					transactionTemplate.executeWithoutResult(status -> insert(List.of(row), today));
+					report.setImportedCount(report.getImportedCount() + 1);
+				} catch (Exception rowError) {
+					reject(report, row.lineNumber(), row.request().getPhoneNumber(),
+							List.of("Insert failed: " + rootMessage(rowError)));
+				}
+			}
+		}
+	}
+
+	private void insert(List<ImportRow> rows, LocalDate today) {
+		List<Customer> customers = customerRepository.saveAll(rows.stream().map(row -> toCustomer(row.request())).toList());
+
+		List<EMISchedule> schedules = new ArrayList<>();
+		customers.forEach(customer -> schedules.addAll(emiScheduleService.buildSchedule(customer, today)));
+		emiScheduleRepository.saveAll(schedules);
+		overdueTransitionTimer.track(schedules);
+	}
+
+	private void refreshSummaries() {
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				portfolioRollupService.rebuild();
+				customerBalanceService.rebuild();
+			});
+		} catch (Exception e) {
+			// Analytics fall back to live queries until the next rebuild
+			log.error("❌ Summary rebuild after import failed: {}", e.getMessage(), e);
+		}
+		analyticsCache.invalidateAll();
+	}
+
+	private void reject(CustomerImportResponse report, long lineNumber, String phoneNumber, List<String> messages) {
+		report.setFailedCount(report.getFailedCount() + 1);
+		if (report.getErrors().size() < maxReportedErrors) {
+			report.getErrors().add(new CustomerImportResponse.RowError(lineNumber, phoneNumber, messages));
+		} else {
+			report.setErrorsTruncated(true);
+		}
+	}
+
+	private static Customer toCustomer(CustomerRequest request) {
+		Customer customer = new Customer();
+		customer.setName(request.getName());
+		customer.setPlace(request.getPlace());
+		customer.setReferBy(request.getReferBy());
+		customer.setJob(request.getJob());
+		customer.setPhoneNumber(request.getPhoneNumber());
+		customer.setAmountTaken(request.getAmountTaken());
+		customer.setInterest(request.getInterest());
+		customer.setTenure(request.getTenure());
+		customer.setMonthlyEmi(request.getMonthlyEmi());
+		customer.setTotalAmount(request.getTotalAmount());
+		customer.setStartDate(request.getStartDate());
+		customer.setEndDate(request.getEndDate());
+		return customer;
+	}
+
+	private static String rootMessage(Throwable e) {
+		Throwable root = e;
+		while (root.getCause() != null) {
+			root = root.getCause();
+		}
+		return root.getMessage();
+	}
+}
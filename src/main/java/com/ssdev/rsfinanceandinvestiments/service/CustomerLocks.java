@@ -0,0 +1,107 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.utility.StripedLocks;
+
+/**
+ * Serialises schedule recalculations per customer. On this node a posting
+ * holds its customers' lock stripes around the whole transaction, so two
+ * postings for the same customer run one after the other and postings for
+ * other customers are not held up. Postings from other nodes are caught by
+ * the {@code @Version} columns: the loser's commit fails and its transaction
+ * is run again from a fresh read, up to payments.optimistic-lock.max-attempts
+ * times.
+ */
+@Component
+public class CustomerLocks {
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final StripedLocks<String> locks;
+	private final int maxAttempts;
+	private final Duration retryBackoff;
+
+	private final LongAdder transactions = new LongAdder();
+	private final LongAdder conflicts = new LongAdder();
+	private final LongAdder exhausted = new LongAdder();
+
+	private static final Logger log = LoggerFactory.getLogger(CustomerLocks.class);
+
+	public CustomerLocks(@Value("${payments.lock-stripes:1024}") int stripes,
+			@Value("${payments.optimistic-lock.max-attempts:3}") int maxAttempts,
+			@Value("${payments.optimistic-lock.retry-backoff:25ms}") Duration retryBackoff) {
+		this.locks = new StripedLocks<>(stripes);
+		this.maxAttempts = maxAttempts;
+		this.retryBackoff = retryBackoff;
+	}
+
+	/**
+	 * Runs work in a new transaction while holding the locks of the given
+	 * customers, retrying it on a version conflict
+	 */
+	public <T> T inTransaction(Collection<String> customerPhones, Supplier<T> work) {
+		for (int attempt = 1;; attempt++) {
+			try {
+				transactions.increment();
+				return locks.withLocks(customerPhones, () -> transactionTemplate.execute(status -> work.get()));
+			} catch (OptimisticLockingFailureException e) {
+				conflicts.increment();
+				if (attempt >= maxAttempts) {
+					exhausted.increment();
+					log.error("❌ Version conflict for {} customers persisted after {} attempts", customerPhones.size(),
+							attempt);
+					throw e;
+				}
+				log.warn("⚠️ Version conflict for {} customers (attempt {}/{}), retrying: {}", customerPhones.size(),
+						attempt, maxAttempts, e.getMessage());
+				// Locks are released by now; the jitter keeps two nodes from colliding again in step
+				backOff(retryBackoff.toMillis() * attempt);
+			}
+		}
+	}
+
+	public void inTransaction(Collection<String> customerPhones, Runnable work) {
+		inTransaction(customerPhones, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	public Map<String, Object> stats() {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("stripes", locks.stripes());
+		result.put("maxAttempts", maxAttempts);
+		result.put("transactions", transactions.sum());
+		result.put("conflicts", conflicts.sum());
+		result.put("exhausted", exhausted.sum());
+		return result;
+	}
+
+	private static void backOff(long maxMillis) {
+		if (maxMillis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis / 2, maxMillis + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting to retry", e);
+		}
+	}
+}
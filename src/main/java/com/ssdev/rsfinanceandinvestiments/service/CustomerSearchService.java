@@ -0,0 +1,95 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerSearchResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerSummary;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Operator search: the term is matched as a case-insensitive substring of
+ * name, place and referBy, and its digits as a substring of the phone number.
+ * On PostgreSQL every LIKE is served by a trigram index (V13), so a search
+ * reads only the matching rows. Results are ranked exact phone, exact name,
+ * name or phone prefix, name or phone substring, then place / referBy only;
+ * ties by name and id.
+ */
+@Service
+public class CustomerSearchService {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	// Trigram indexes cannot help below three characters
+	@Value("${customers.search.min-length:3}")
+	private int minLength;
+
+	@Value("${customers.page.max-size:200}")
+	private int maxPageSize;
+
+	private static final Logger log = LoggerFactory.getLogger(CustomerSearchService.class);
+
+	@Transactional(readOnly = true)
+	public CustomerSearchResponse search(String query, int page, int size) {
+		String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+		if (term.length() < minLength) {
+			throw new IllegalArgumentException("Search needs at least " + minLength + " characters");
+		}
+		if (page < 0) {
+			throw new IllegalArgumentException("Page cannot be negative: " + page);
+		}
+		int pageSize = Math.max(1, Math.min(size, maxPageSize));
+		String digits = term.replaceAll("\\D", "");
+		boolean byPhone = digits.length() >= minLength;
+
+		String where = "LOWER(c.name) LIKE :contains ESCAPE '\\' OR LOWER(c.place) LIKE :contains ESCAPE '\\' "
+				+ "OR LOWER(c.referBy) LIKE :contains ESCAPE '\\'"
+				+ (byPhone ? " OR c.phoneNumber LIKE :phoneContains" : "");
+		String rank = (byPhone ? "WHEN c.phoneNumber = :digits THEN 0 " : "")
+				+ "WHEN LOWER(c.name) = :term THEN 1 "
+				+ "WHEN LOWER(c.name) LIKE :prefix ESCAPE '\\' "
+				+ (byPhone ? "OR c.phoneNumber LIKE :phonePrefix " : "") + "THEN 2 "
+				+ "WHEN LOWER(c.name) LIKE :contains ESCAPE '\\' "
+				+ (byPhone ? "OR c.phoneNumber LIKE :phoneContains " : "") + "THEN 3 ";
+
+		TypedQuery<CustomerSummary> search = entityManager.createQuery("SELECT new "
+				+ "com.ssdev.rsfinanceandinvestiments.dto.CustomerSummary(c.id, c.name, c.place, c.referBy, "
+				+ "c.phoneNumber, c.amountTaken, c.monthlyEmi, c.tenure, c.startDate, c.endDate, c.status, "
+				+ "c.createdAt) FROM Customer c WHERE " + where
+				+ " ORDER BY CASE " + rank + "ELSE 4 END, c.name, c.id", CustomerSummary.class)
+				.setParameter("term", term)
+				.setParameter("prefix", escapeLike(term) + "%")
+				.setParameter("contains", "%" + escapeLike(term) + "%")
+				.setFirstResult(page * pageSize)
+				.setMaxResults(pageSize + 1);
+		if (byPhone) {
+			// Digits only, never wildcards
+			search.setParameter("digits", digits)
+					.setParameter("phonePrefix", digits + "%")
+					.setParameter("phoneContains", "%" + digits + "%");
+		}
+
+		long startTime = System.currentTimeMillis();
+		List<CustomerSummary> rows = search.getResultList();
+		boolean hasMore = rows.size() > pageSize;
+		log.debug("🔍 Customer search '{}' page {}: {} rows in {} ms", term, page, Math.min(rows.size(), pageSize),
+				System.currentTimeMillis() - startTime);
+		return new CustomerSearchResponse(query.trim(), page, pageSize, hasMore,
+				hasMore ? rows.subList(0, pageSize) : rows);
+	}
+
+	// Typed % and _ match themselves
+	static String escapeLike(String term) {
+		return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+}
@@ -5,23 +5,39 @@ import java.sql.Date;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.ssdev.rsfinanceandinvestiments.Enums.CustomerSortField;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerPageRequest;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerPageResponse;
 import com.ssdev.rsfinanceandinvestiments.dto.CustomerRequest;
 import com.ssdev.rsfinanceandinvestiments.dto.CustomerResponse;
 import com.ssdev.rsfinanceandinvestiments.dto.CustomerUpdateRequest;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerSummary;
 import com.ssdev.rsfinanceandinvestiments.dto.DashboardStatsDTO;
 import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.entity.ScheduleGenerationJob;
 import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
 import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.ScheduleGenerationJobRepository;
 
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -33,6 +49,27 @@ public class CustomerService {
 	
 	@Autowired
 	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private PortfolioRollupService portfolioRollupService;
+
+	@Autowired
+	private CustomerBalanceService customerBalanceService;
+
+	@Autowired
+	private AnalyticsCache analyticsCache;
+
+	@Autowired
+	private ScheduleGenerationJobService scheduleGenerationJobService;
+
+	@Autowired
+	private ScheduleGenerationJobRepository scheduleGenerationJobRepository;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${customers.page.max-size:200}")
+	private int maxPageSize;
 	
 	 private static final Logger log = LoggerFactory.getLogger(EMIScheduleService.class);
 
@@ -41,12 +78,90 @@ public class CustomerService {
        
 		return customerRepository.save(request);
     }
+
+	/**
+	 * Save the customer and its schedule generation job in one transaction, so
+	 * a committed customer always has a job that will build its schedule
+	 */
+	@Transactional
+	public ScheduleGenerationJob createCustomerAndEnqueueSchedule(Customer request) {
+		Customer customer = customerRepository.save(request);
+		return scheduleGenerationJobService.enqueue(customer.getPhoneNumber());
+	}
 	
 	
 	public List<Customer> findAll()
 	{
 		return customerRepository.findAll();
 	}
+
+	/**
+	 * One page of the customers screen. Keyset paging: the page starts right
+	 * after the previous page's last row (afterId, plus afterName when sorted by
+	 * name), so every page is a range scan of size + 1 rows on the (sort column,
+	 * id) index however deep the client is, with no OFFSET and no COUNT.
+	 */
+	@Transactional(readOnly = true)
+	public CustomerPageResponse findPage(CustomerPageRequest request) {
+		CustomerSortField sort = CustomerSortField.valueOf(request.getSort().trim().toUpperCase());
+		Sort.Direction direction = Sort.Direction.fromString(request.getDirection());
+		int size = Math.max(1, Math.min(request.getSize(), maxPageSize));
+		String compare = direction.isAscending() ? ">" : "<";
+
+		StringBuilder jpql = new StringBuilder("SELECT new com.ssdev.rsfinanceandinvestiments.dto.CustomerSummary("
+				+ "c.id, c.name, c.place, c.referBy, c.phoneNumber, c.amountTaken, c.monthlyEmi, c.tenure, "
+				+ "c.startDate, c.endDate, c.status, c.createdAt) FROM Customer c WHERE 1 = 1");
+		Map<String, Object> parameters = new HashMap<>();
+		if (request.getStatus() != null && !request.getStatus().isBlank()) {
+			jpql.append(" AND c.status = :status");
+			parameters.put("status", Customer.CustomerStatus.valueOf(request.getStatus().trim().toUpperCase()));
+		}
+		if (request.getPlace() != null && !request.getPlace().isBlank()) {
+			jpql.append(" AND c.place = :place");
+			parameters.put("place", request.getPlace().trim());
+		}
+		if (request.getReferBy() != null && !request.getReferBy().isBlank()) {
+			jpql.append(" AND c.referBy = :referBy");
+			parameters.put("referBy", request.getReferBy().trim());
+		}
+		if (request.getCreatedFrom() != null) {
+			jpql.append(" AND c.createdAt >= :createdFrom");
+			parameters.put("createdFrom", request.getCreatedFrom().atStartOfDay());
+		}
+		if (request.getCreatedTo() != null) {
+			jpql.append(" AND c.createdAt < :createdBefore");
+			parameters.put("createdBefore", request.getCreatedTo().plusDays(1).atStartOfDay());
+		}
+
+		if (request.getAfterId() != null) {
+			if (sort == CustomerSortField.NAME) {
+				if (request.getAfterName() == null) {
+					throw new IllegalArgumentException("afterName is required with afterId when sorting by name");
+				}
+				// The first condition alone bounds the index range; the second skips the rows already shown
+				jpql.append(" AND c.name ").append(compare).append("= :afterName AND (c.name ").append(compare)
+						.append(" :afterName OR c.id ").append(compare).append(" :afterId)");
+				parameters.put("afterName", request.getAfterName());
+			} else {
+				jpql.append(" AND c.id ").append(compare).append(" :afterId");
+			}
+			parameters.put("afterId", request.getAfterId());
+		}
+		jpql.append(sort == CustomerSortField.NAME ? " ORDER BY c.name " + direction + ", c.id " + direction
+				: " ORDER BY c.id " + direction);
+
+		TypedQuery<CustomerSummary> query = entityManager.createQuery(jpql.toString(), CustomerSummary.class)
+				.setMaxResults(size + 1);
+		parameters.forEach(query::setParameter);
+		List<CustomerSummary> rows = query.getResultList();
+
+		// The extra row only tells whether another page exists
+		boolean hasMore = rows.size() > size;
+		List<CustomerSummary> page = hasMore ? rows.subList(0, size) : rows;
+		CustomerSummary last = page.isEmpty() ? null : page.get(page.size() - 1);
+		return new CustomerPageResponse(page, hasMore, hasMore ? last.getId() : null,
+				hasMore && sort == CustomerSortField.NAME ? last.getName() : null);
+	}
 	
 	
 	@Transactional
@@ -65,6 +180,9 @@ public Customer updateCustomer(String phoneNumber, CustomerUpdateRequest request
 
         log.info("🔍 Found existing customer: {}", existingCustomer.getName());
 
+        Set<YearMonth> affectedMonths = new HashSet<>(
+                AnalyticsCache.tenureMonths(existingCustomer.getStartDate(), existingCustomer.getTenure()));
+
         // 2. Calculate EMI and Total Amount
         request.calculateAndSetEMI(); // calculate and update EMI + totalAmount inside the DTO
 
@@ -88,6 +206,13 @@ public Customer updateCustomer(String phoneNumber, CustomerUpdateRequest request
 
         // 5. Save the updated customer
         Customer updatedCustomer = customerRepository.save(existingCustomer);
+        if (!phoneNumber.equals(updatedCustomer.getPhoneNumber())) {
+            renamePhone(updatedCustomer.getId(), phoneNumber, updatedCustomer.getPhoneNumber());
+        }
+
+        // Cached analytics embed the customer row
+        affectedMonths.addAll(AnalyticsCache.tenureMonths(startDate, updatedCustomer.getTenure()));
+        analyticsCache.invalidateMonths(affectedMonths);
 
         log.info("✅ Customer updated successfully: {}", updatedCustomer.getName());
         log.info("📊 Updated EMI: ₹{}, Total Amount: ₹{}", request.getMonthlyEmi(), request.getTotalAmount());
@@ -117,12 +242,13 @@ public Customer updateCustomer(String phoneNumber, CustomerUpdateRequest request
             Customer customer = optionalCustomer.get();
             log.info("🔍 Found customer to delete: {}", customer.getName());
 
-            // Delete EMI schedules first (if not configured for cascade delete)
-            log.info("🗑️ Deleting EMI schedules for customer: {}", phoneNumber);
-            emiScheduleRepository.deleteByCustomerPhone(phoneNumber);
-            
-            // Delete customer
-            customerRepository.deleteByPhoneNumber(phoneNumber);
+            Map<YearMonth, PortfolioTotals> rollupBefore = portfolioRollupService.snapshot(phoneNumber);
+
+            // EMI schedules go with the row, joined on customer_id
+            customerRepository.deleteWithSchedulesById(customer.getId());
+            portfolioRollupService.applyChange(phoneNumber, rollupBefore);
+            customerBalanceService.remove(phoneNumber);
+            analyticsCache.invalidateMonths(rollupBefore.keySet());
             
             log.info("✅ Customer and associated EMI schedules deleted successfully: {}", phoneNumber);
 
@@ -132,6 +258,18 @@ public Customer updateCustomer(String phoneNumber, CustomerUpdateRequest request
         }
     }
 
+    /**
+     * Everything still keyed by phone follows the customer to the new number:
+     * schedules (by customer_id), the balance row and schedule generation jobs
+     */
+    private void renamePhone(Long customerId, String oldPhone, String newPhone) {
+        int schedules = emiScheduleRepository.renameCustomerPhone(customerId, newPhone);
+        scheduleGenerationJobRepository.renameCustomerPhone(oldPhone, newPhone);
+        customerBalanceService.remove(oldPhone);
+        customerBalanceService.refresh(newPhone);
+        log.info("📱 Customer {} moved from {} to {} with {} EMI schedules", customerId, oldPhone, newPhone, schedules);
+    }
+
     // 🔥 NEW: GET CUSTOMER BY PHONE NUMBER
     public Optional<Customer> findByPhoneNumber(String phoneNumber) {
         try {
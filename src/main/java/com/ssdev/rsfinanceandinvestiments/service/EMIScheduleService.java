@@ -2,28 +2,32 @@ package com.ssdev.rsfinanceandinvestiments.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.ssdev.rsfinanceandinvestiments.dto.BulkPaymentEntry;
 import com.ssdev.rsfinanceandinvestiments.dto.EMIScheduleResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.PaymentAllocationResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.PaymentReceipt;
 import com.ssdev.rsfinanceandinvestiments.entity.Customer;
 import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
 import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
 import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
 
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -34,22 +38,79 @@ public class EMIScheduleService {
 	@Autowired
 	private EMIScheduleRepository emiScheduleRepository;
 
+	@Autowired
+	private PortfolioRollupService portfolioRollupService;
+
+	@Autowired
+	private CustomerBalanceService customerBalanceService;
+
+	@Autowired
+	private AnalyticsCache analyticsCache;
+
+	@Autowired
+	private PaymentAllocationEngine paymentAllocationEngine;
+
+	@Autowired
+	private OverdueTransitionTimer overdueTransitionTimer;
+
 	private static final Logger log = LoggerFactory.getLogger(EMIScheduleService.class);
 
 	/**
-	 * Generate EMI schedule when customer is created
+	 * Generate EMI schedule when customer is created (in the background, via
+	 * ScheduleGenerationJobService). Idempotent: months already present are
+	 * skipped, so a retried job only fills the gaps. Returns the months inserted.
 	 */
-	@Async
-	public void generateEMIScheduleForCustomer(Customer customer) {
+	public int generateEMIScheduleForCustomer(Customer customer) {
 		log.info("🔥 Generating EMI schedule for customer: {}", customer.getPhoneNumber());
 
 		LocalDate startDate = customer.getStartDate();
+		String phone = customer.getPhoneNumber();
+
+		List<EMISchedule> existing = emiScheduleRepository.findByCustomerPhoneOrderByMonth(phone);
+		Set<Integer> existingMonths = existing.stream().map(EMISchedule::getMonthNumber).collect(Collectors.toSet());
+		Map<YearMonth, PortfolioTotals> rollupBefore = existing.isEmpty() ? Map.of()
+				: portfolioRollupService.snapshot(phone);
+
+		// Whole schedule built in memory, cumulative pending and statuses included, then one batched insert
+		List<EMISchedule> missing = buildSchedule(customer, LocalDate.now()).stream()
+				.filter(schedule -> !existingMonths.contains(schedule.getMonthNumber()))
+				.toList();
+		if (missing.isEmpty()) {
+			log.info("✅ EMI schedule already complete for customer: {}", phone);
+			return 0;
+		}
+		emiScheduleRepository.saveAll(missing);
+		if (!existing.isEmpty()) {
+			// Running totals span old and new months
+			calculateCumulativePending(phone);
+		}
+
+		portfolioRollupService.applyChange(phone, rollupBefore);
+		customerBalanceService.refresh(phone);
+		analyticsCache.invalidateMonths(AnalyticsCache.tenureMonths(startDate, customer.getTenure()));
+		overdueTransitionTimer.track(existing);
+		overdueTransitionTimer.track(missing);
+
+		log.info("✅ EMI schedule generated successfully for customer: {} ({} months, {} already present)", phone,
+				missing.size(), existing.size());
+		return missing.size();
+	}
+
+	/**
+	 * New, unsaved schedule for a customer, in the state calculateCumulativePending
+	 * would leave it
+	 */
+	List<EMISchedule> buildSchedule(Customer customer, LocalDate today) {
+		LocalDate startDate = customer.getStartDate();
+		List<EMISchedule> schedules = new ArrayList<>(customer.getTenure());
 
 		for (int month = 1; month <= customer.getTenure(); month++) {
 			LocalDate dueDate = startDate.plusMonths(month - 1);
 
 			EMISchedule schedule = new EMISchedule();
 			schedule.setCustomerPhone(customer.getPhoneNumber());
+			// customer_id only once the customer row exists
+			schedule.setCustomer(customer.getId() != null ? customer : null);
 			schedule.setMonthNumber(month);
 			schedule.setMonthName(getMonthName(dueDate));
 			schedule.setEmiAmount(customer.getMonthlyEmi());
@@ -58,69 +119,161 @@ public class EMIScheduleService {
 			schedule.setPaidAmount(BigDecimal.ZERO);
 			schedule.setPendingAmount(customer.getMonthlyEmi());
 			schedule.setCumulativePending(BigDecimal.ZERO);
-
-			emiScheduleRepository.save(schedule);
+			schedules.add(schedule);
 		}
 
-		// 🔥 Calculate cumulative pending for all months
-		calculateCumulativePending(customer.getPhoneNumber());
+		applyCumulativePending(schedules, today);
+		return schedules;
+	}
 
-		log.info("✅ EMI schedule generated successfully for customer: {}", customer.getPhoneNumber());
+	public void calculateCumulativePending(String customerPhone) {
+		List<EMISchedule> schedules = emiScheduleRepository.findByCustomerPhoneOrderByMonth(customerPhone);
+		applyCumulativePending(schedules, LocalDate.now());
+		emiScheduleRepository.saveAll(schedules);
 	}
 
-public void calculateCumulativePending(String customerPhone) {
-    List<EMISchedule> schedules = emiScheduleRepository.findByCustomerPhoneOrderByMonth(customerPhone);
-    LocalDate today = LocalDate.now();
-    BigDecimal runningPending = BigDecimal.ZERO;
-
-    int consecutiveUnpaid = 0;
-    List<EMISchedule> currentUnpaidChain = new ArrayList<>();
-
-    for (EMISchedule schedule : schedules) {
-        if (schedule.getStatus() != PaymentStatus.PAID) {
-            runningPending = runningPending.add(schedule.getPendingAmount());
-        }
-        if (schedule.getDueDate().isAfter(today)) {
-            schedule.setStatus(PaymentStatus.PENDING);
-            schedule.setCumulativePending(runningPending);
-            emiScheduleRepository.save(schedule);
-            continue;
-        }
-        if (schedule.getStatus() == PaymentStatus.PAID) {
-            schedule.setStatus(PaymentStatus.PAID);
-            consecutiveUnpaid = 0;
-            currentUnpaidChain.clear();
-        } else {
-            consecutiveUnpaid++;
-            currentUnpaidChain.add(schedule);
-
-            // Mark as pending for now, may fix to OVERDUE later
-            schedule.setStatus(PaymentStatus.PENDING);
-            schedule.setCumulativePending(runningPending);
-            emiScheduleRepository.save(schedule);
-        }
-    }
-
-    // If most recent unpaid chain up to today is >=3, those must ALL be overdue!
-    if (consecutiveUnpaid >= 3 && !currentUnpaidChain.isEmpty()) {
-        for (EMISchedule s : currentUnpaidChain) {
-            if (s.getStatus() != PaymentStatus.PAID) {
-                s.setStatus(PaymentStatus.OVERDUE);
-                emiScheduleRepository.save(s);
-            }
-        }
-    }
-}
+	/**
+	 * Running pending total and calculateEMIStatus for every month of a
+	 * customer's schedules ordered by month (applyFromMonth from the first)
+	 */
+	static void applyCumulativePending(List<EMISchedule> schedules, LocalDate today) {
+		applyFromMonth(schedules, 1, today);
+	}
 
+	/**
+	 * Record the payment and recalculate from its month on. The customer's
+	 * schedule is read once, before anything is dirty, so nothing is flushed
+	 * early; months before the changed one do not depend on it, and dirty
+	 * checking writes only the rows that changed, in one batch at commit.
+	 * Returns the customer's schedule.
+	 */
+	List<EMISchedule> applyPayment(EMISchedule schedule, PaymentStatus newStatus, String paidDateStr,
+			BigDecimal paidAmount, LocalDate today) {
+		List<EMISchedule> schedules = emiScheduleRepository.findByCustomerPhoneOrderByMonth(schedule.getCustomerPhone());
 
+		// --- 1️⃣ Update the requested EMI's payment details ---
+		recordPayment(schedule, newStatus, paidDateStr, paidAmount);
 
+		// --- 2️⃣ Recalculate cumulative pending and 3-month status from this month on ---
+		applyFromMonth(schedules, schedule.getMonthNumber(), today);
+		return schedules;
+	}
 
+	/**
+	 * Post several receipts of one customer (bulk posting): every payment is
+	 * recorded on the schedule read once, then it is recalculated once from the
+	 * earliest month touched and the summaries are updated once
+	 */
+	public void applyPayments(String customerPhone, List<BulkPaymentEntry> payments) {
+		LocalDate today = LocalDate.now();
+		List<EMISchedule> schedules = emiScheduleRepository.findByCustomerPhoneOrderByMonth(customerPhone);
+		Map<YearMonth, PortfolioTotals> rollupBefore = portfolioRollupService.contributions(schedules, today);
+		Map<Long, EMISchedule> byId = schedules.stream().collect(Collectors.toMap(EMISchedule::getId, s -> s));
+
+		int fromMonth = Integer.MAX_VALUE;
+		for (BulkPaymentEntry payment : payments) {
+			EMISchedule schedule = byId.get(payment.getScheduleId());
+			if (schedule == null) {
+				throw new RuntimeException(
+						"EMI Schedule " + payment.getScheduleId() + " does not belong to customer " + customerPhone);
+			}
+			recordPayment(schedule, PaymentStatus.valueOf(payment.getStatus().toUpperCase()), payment.getPaidDate(),
+					payment.getPaidAmount());
+			fromMonth = Math.min(fromMonth, schedule.getMonthNumber());
+		}
+		applyFromMonth(schedules, fromMonth, today);
 
+		portfolioRollupService.applyChange(customerPhone, rollupBefore, schedules);
+		customerBalanceService.refresh(customerPhone);
+		analyticsCache.invalidateMonths(rollupBefore.keySet());
+		overdueTransitionTimer.track(schedules);
+	}
 
 	/**
-	 * Calculate EMI status based on due date and cascading rule (updated). This
-	 * method is now trivial; the cascading logic is handled in
-	 * calculateCumulativePending. You may adjust or keep it if needed elsewhere.
+	 * Spread lump-sum receipts of one customer over their unpaid EMIs, oldest
+	 * first, with partial payments. Same shape as applyPayments: one read, one
+	 * recalculation from the earliest month touched, changed rows written in one
+	 * batch at commit.
+	 */
+	public List<PaymentAllocationResponse> allocatePayments(String customerPhone, List<PaymentReceipt> receipts) {
+		LocalDate today = LocalDate.now();
+		List<EMISchedule> schedules = emiScheduleRepository.findByCustomerPhoneOrderByMonth(customerPhone);
+		if (schedules.isEmpty()) {
+			throw new RuntimeException("No EMI schedule found for customer: " + customerPhone);
+		}
+		Map<YearMonth, PortfolioTotals> rollupBefore = portfolioRollupService.contributions(schedules, today);
+
+		List<PaymentAllocationResponse> responses = new ArrayList<>();
+		int fromMonth = Integer.MAX_VALUE;
+		for (PaymentReceipt receipt : receipts) {
+			PaymentAllocation allocation = paymentAllocationEngine.allocate(schedules, receipt.getAmount(),
+					LocalDate.parse(receipt.getPaidDate()));
+
+			PaymentAllocationResponse response = new PaymentAllocationResponse(customerPhone, receipt.getAmount());
+			response.setAllocatedAmount(allocation.allocated());
+			response.setUnallocatedAmount(allocation.unallocated());
+			for (PaymentAllocation.Line line : allocation.lines()) {
+				EMISchedule schedule = line.schedule();
+				response.getInstallments().add(new PaymentAllocationResponse.Installment(schedule.getId(),
+						schedule.getMonthNumber(), line.applied(), schedule.getPaidAmount(),
+						schedule.getPendingAmount(), schedule.getStatus().name()));
+				fromMonth = Math.min(fromMonth, schedule.getMonthNumber());
+			}
+			responses.add(response);
+		}
+		if (fromMonth == Integer.MAX_VALUE) {
+			// Nothing was owed; no row changed
+			return responses;
+		}
+		applyFromMonth(schedules, fromMonth, today);
+
+		portfolioRollupService.applyChange(customerPhone, rollupBefore, schedules);
+		customerBalanceService.refresh(customerPhone);
+		analyticsCache.invalidateMonths(rollupBefore.keySet());
+		overdueTransitionTimer.track(schedules);
+
+		log.info("💰 Allocated {} receipt(s) for {} from month {}", receipts.size(), customerPhone, fromMonth);
+		return responses;
+	}
+
+	private static void recordPayment(EMISchedule schedule, PaymentStatus newStatus, String paidDateStr,
+			BigDecimal paidAmount) {
+		schedule.setStatus(newStatus);
+		if (newStatus == PaymentStatus.PAID) {
+			schedule.setPaidDate(LocalDate.parse(paidDateStr));
+			schedule.setPaidAmount(paidAmount != null ? paidAmount : schedule.getEmiAmount());
+			schedule.setPendingAmount(BigDecimal.ZERO);
+		} else {
+			schedule.setPaidDate(null);
+			schedule.setPaidAmount(BigDecimal.ZERO);
+			schedule.setPendingAmount(schedule.getEmiAmount());
+		}
+	}
+
+	/**
+	 * Cumulative pending and calculateEMIStatus for every month from fromMonth
+	 * on, carrying the unpaid total of the earlier months in
+	 */
+	static void applyFromMonth(List<EMISchedule> schedules, int fromMonth, LocalDate today) {
+		BigDecimal runningPending = BigDecimal.ZERO;
+
+		for (EMISchedule schedule : schedules) {
+			boolean paid = schedule.getStatus() == PaymentStatus.PAID;
+			if (!paid) {
+				runningPending = runningPending.add(schedule.getPendingAmount());
+			}
+			if (schedule.getMonthNumber() < fromMonth || paid && !schedule.getDueDate().isAfter(today)) {
+				continue;
+			}
+			schedule.setCumulativePending(runningPending);
+			schedule.setStatus(calculateEMIStatus(schedule.getDueDate(), schedule.getStatus(), today));
+		}
+	}
+
+	/**
+	 * The status rule every writer, the overdue sweep and the transition timer
+	 * share: an unpaid EMI is OVERDUE from the first day of the third month
+	 * counting its due month, PENDING before that
 	 */
 	public static PaymentStatus calculateEMIStatus(LocalDate dueDate, PaymentStatus currentStatus, LocalDate today) {
 		if (currentStatus == PaymentStatus.PAID) {
@@ -153,89 +306,52 @@ public void calculateCumulativePending(String customerPhone) {
 
 		EMISchedule schedule = optionalSchedule.get();
 		PaymentStatus newStatus = PaymentStatus.valueOf(status.toUpperCase());
+		Map<YearMonth, PortfolioTotals> rollupBefore = portfolioRollupService.snapshot(schedule.getCustomerPhone());
 
-		// --- 1️⃣ Update the requested EMI's payment details ---
-		schedule.setStatus(newStatus);
-		if (newStatus == PaymentStatus.PAID) {
-			schedule.setPaidDate(LocalDate.parse(paidDateStr));
-			schedule.setPaidAmount(paidAmount != null ? paidAmount : schedule.getEmiAmount());
-			schedule.setPendingAmount(BigDecimal.ZERO);
-		} else {
-			schedule.setPaidDate(null);
-			schedule.setPaidAmount(BigDecimal.ZERO);
-			schedule.setPendingAmount(schedule.getEmiAmount());
-		}
-
-		emiScheduleRepository.save(schedule);
+		List<EMISchedule> schedules = applyPayment(schedule, newStatus, paidDateStr, paidAmount, LocalDate.now());
 
-		// --- 2️⃣ Recalculate cumulative pending for the entire customer ---
-		calculateCumulativePending(schedule.getCustomerPhone());
-
-		// --- 3️⃣ Update ALL EMI statuses for this customer based on 3-month rule ---
-		LocalDate today = LocalDate.now();
-		List<EMISchedule> customerSchedules = emiScheduleRepository
-				.findByCustomerPhoneOrderByMonth(schedule.getCustomerPhone());
-
-		for (EMISchedule emi : customerSchedules) {
-			if (emi.getStatus() != PaymentStatus.PAID) { // Only update non-paid EMIs
-				PaymentStatus recalculatedStatus = calculateEMIStatus(emi.getDueDate(), emi.getStatus(), today);
-				if (emi.getStatus() != recalculatedStatus) {
-					log.info("📅 Status change for {} Month {}: {} -> {}", emi.getCustomerPhone(), emi.getMonthName(),
-							emi.getStatus(), recalculatedStatus);
-					emi.setStatus(recalculatedStatus);
-					emiScheduleRepository.save(emi);
-				}
-			}
-		}
+		portfolioRollupService.applyChange(schedule.getCustomerPhone(), rollupBefore);
+		customerBalanceService.refresh(schedule.getCustomerPhone());
+		// The customer's classification shows up in every month they have an EMI in
+		analyticsCache.invalidateMonths(rollupBefore.keySet());
+		// A reopened EMI needs its timer back, a paid one loses it
+		overdueTransitionTimer.track(schedules);
 
 		log.info("✅ Payment status updated and other EMI statuses recalculated for customer {}",
 				schedule.getCustomerPhone());
 	}
 
 	/**
-	 * Get EMI schedule with cumulative pending amounts
+	 * Get EMI schedule with cumulative pending amounts. Read only: generation,
+	 * import and payments store cumulative pending and the calculateEMIStatus
+	 * status. The same rule is applied to each row for today, so a row whose
+	 * due date has aged past the threshold is served OVERDUE whether or not the
+	 * overdue sweep has written it yet; the answer never changes with a sweep.
 	 */
+	@Transactional(readOnly = true)
 	public List<EMIScheduleResponse> getEMIScheduleWithCumulative(String customerPhone) {
-		log.info("🔥 Fetching EMI schedule with cumulative pending for customer: {}", customerPhone);
-
-		// First ensure cumulative amounts are up to date
-		calculateCumulativePending(customerPhone);
-
-		List<EMISchedule> schedules = emiScheduleRepository.findByCustomerPhoneOrderByMonth(customerPhone);
+		return getEMIScheduleWithCumulative(customerPhone, LocalDate.now());
+	}
 
-		return schedules.stream().map(this::convertToResponse).collect(Collectors.toList());
+	List<EMIScheduleResponse> getEMIScheduleWithCumulative(String customerPhone, LocalDate today) {
+		log.info("🔥 Fetching EMI schedule with cumulative pending for customer: {}", customerPhone);
+		List<EMIScheduleResponse> schedules = emiScheduleRepository.findResponsesByCustomerPhone(customerPhone);
+		for (EMIScheduleResponse schedule : schedules) {
+			schedule.setStatus(calculateEMIStatus(LocalDate.parse(schedule.getDueDate()),
+					PaymentStatus.valueOf(schedule.getStatus()), today).name());
+		}
+		return schedules;
 	}
 
+
 	/**
-	 * 🔥 SMART STATUS UPDATE: Auto-mark overdue EMIs based on 3-month rule
+	 * First day of last month: an unpaid EMI due before it is at least three
+	 * calendar months old (calculateEMIStatus), anything on or after it is not
 	 */
-	@Scheduled(fixedRate = 3600000) // Run every hour
-	public void updateOverdueEMIs() {
-		log.info("🔥 Running scheduled overdue EMI update with 3-month rule...");
-
-		LocalDate today = LocalDate.now();
-		List<EMISchedule> allUnpaidEMIs = emiScheduleRepository.findByStatusNot(PaymentStatus.PAID);
-
-		int updatedCount = 0;
-
-		for (EMISchedule emi : allUnpaidEMIs) {
-			PaymentStatus oldStatus = emi.getStatus();
-			PaymentStatus newStatus = calculateEMIStatus(emi.getDueDate(), emi.getStatus(), today);
-
-			if (oldStatus != newStatus) {
-				emi.setStatus(newStatus);
-				emiScheduleRepository.save(emi);
-				updatedCount++;
-
-				log.info("📅 EMI Status Updated: Customer={}, Month={}, DueDate={}, {} -> {}", emi.getCustomerPhone(),
-						emi.getMonthName(), emi.getDueDate(), oldStatus, newStatus);
-			}
-		}
-
-		log.info("✅ Overdue EMI update completed. Updated {} EMIs", updatedCount);
+	static LocalDate overdueThreshold(LocalDate today) {
+		return today.withDayOfMonth(1).minusMonths(1);
 	}
 
-
 	/**
 	 * FIXED: Update status based on 3-month rule instead of immediate overdue
 	 */
@@ -252,20 +368,4 @@ public void calculateCumulativePending(String customerPhone) {
 	private String getMonthName(LocalDate date) {
 		return date.getMonth().getDisplayName(TextStyle.SHORT, Locale.ENGLISH) + " " + date.getYear();
 	}
-
-	private EMIScheduleResponse convertToResponse(EMISchedule schedule) {
-		EMIScheduleResponse response = new EMIScheduleResponse();
-		response.setId(schedule.getId());
-		response.setCustomerPhone(schedule.getCustomerPhone());
-		response.setMonthNumber(schedule.getMonthNumber());
-		response.setMonthName(schedule.getMonthName());
-		response.setEmiAmount(schedule.getEmiAmount());
-		response.setDueDate(schedule.getDueDate().toString());
-		response.setStatus(schedule.getStatus().name());
-		response.setPaidDate(schedule.getPaidDate() != null ? schedule.getPaidDate().toString() : null);
-		response.setPaidAmount(schedule.getPaidAmount());
-		response.setPendingAmount(schedule.getPendingAmount());
-		response.setCumulativePending(schedule.getCumulativePending());
-		return response;
-	}
 }
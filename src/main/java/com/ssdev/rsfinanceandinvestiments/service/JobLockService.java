@@ -0,0 +1,91 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.repository.JobLockRepository;
+
+/**
+ * Runs a scheduled job on one node of the cluster at a time, using job_locks.
+ * The lock is held while the job runs, at least lockAtLeast (nodes whose
+ * schedules fire a few minutes apart must not each run the job every period)
+ * and at most lockAtMost (a node that died holding it is given up on). Call
+ * outside a transaction: the lock has to be committed to be seen.
+ */
+@Service
+public class JobLockService {
+
+	@Autowired
+	private JobLockRepository jobLockRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	// Fresh per process, so a restarted node never mistakes an old lock for its own
+	private final String owner = hostName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+	private static final Logger log = LoggerFactory.getLogger(JobLockService.class);
+
+	/**
+	 * Run job if no other node holds jobName; false when it was skipped
+	 */
+	public boolean runExclusively(String jobName, Duration lockAtMost, Duration lockAtLeast, Runnable job) {
+		LocalDateTime lockedAt = LocalDateTime.now();
+		if (!acquire(jobName, lockedAt, lockedAt.plus(lockAtMost))) {
+			log.info("⏭️ Skipping {}: another node holds the job lock", jobName);
+			return false;
+		}
+		log.info("🔒 {} acquired job lock {}", owner, jobName);
+		try {
+			job.run();
+			return true;
+		} finally {
+			release(jobName, lockedAt.plus(lockAtLeast));
+		}
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	private boolean acquire(String jobName, LocalDateTime now, LocalDateTime until) {
+		try {
+			return transactionTemplate.execute(status -> jobLockRepository.tryAcquire(jobName, owner, now, until) == 1
+					// First run of this job anywhere
+					|| !jobLockRepository.existsById(jobName)
+							&& jobLockRepository.insert(jobName, owner, now, until) == 1);
+		} catch (DataIntegrityViolationException e) {
+			// Another node created the row first and holds it
+			return false;
+		}
+	}
+
+	private void release(String jobName, LocalDateTime notBefore) {
+		LocalDateTime now = LocalDateTime.now();
+		try {
+			transactionTemplate.executeWithoutResult(status -> jobLockRepository.release(jobName, owner,
+					now.isAfter(notBefore) ? now : notBefore));
+		} catch (Exception e) {
+			// Expires at lockAtMost anyway
+			log.warn("⚠️ Could not release job lock {}: {}", jobName, e.getMessage());
+		}
+	}
+
+	private static String hostName() {
+		try {
+			return InetAddress.getLocalHost().getHostName();
+		} catch (UnknownHostException e) {
+			return "unknown-host";
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+import com.ssdev.rsfinanceandinvestiments.entity.SweepWatermark;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.SweepWatermarkRepository;
+import com.ssdev.rsfinanceandinvestiments.utility.StripedLocks;
+
+/**
+ * 🔥 SMART STATUS UPDATE: auto-marks overdue EMIs by the 3-month rule, with the
+ * same outcome as calculateEMIStatus on every unpaid row.
+ *
+ * Generation, import and payments store the calculateEMIStatus status, so a
+ * row only goes stale when the threshold moves past it (once a month). Each
+ * run touches just the rows due between the threshold of the last run (kept
+ * in sweep_watermarks) and today's: PENDING to OVERDUE when it moved forward,
+ * OVERDUE back to PENDING when the clock was set back, both directions over
+ * every due date on the first run. A run with the same threshold updates
+ * nothing. The window is split by customer phone hash into
+ * emi.overdue-sweep.partitions partitions, updated in parallel on the
+ * overdueSweepExecutor, each in its own short transaction. The watermark only
+ * moves once every partition has committed; a failed run is repeated as a
+ * whole, which is harmless because the updates only match rows still in the
+ * old status.
+ *
+ * OverdueTransitionTimer marks most rows as they fall due; the sweep catches
+ * what it missed (rows written on other nodes, a timer that failed). With
+ * several instances, the job lock lets one node run each sweep.
+ */
+@Service
+public class OverdueSweepService {
+
+	static final String OVERDUE_SWEEP = "emi-overdue";
+
+	// Customers per IN list inside a partition
+	private static final int IN_LIST_SIZE = 1_000;
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private SweepWatermarkRepository sweepWatermarkRepository;
+
+	@Autowired
+	private PortfolioRollupService portfolioRollupService;
+
+	@Autowired
+	private AnalyticsCache analyticsCache;
+
+	@Autowired
+	private JobLockService jobLockService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	@Qualifier("overdueSweepExecutor")
+	private ExecutorService executor;
+
+	@Value("${emi.overdue-sweep.partitions:8}")
+	private int partitions;
+
+	@Value("${emi.overdue-sweep.lock-at-most:PT50M}")
+	private Duration lockAtMost;
+
+	@Value("${emi.overdue-sweep.lock-at-least:PT5M}")
+	private Duration lockAtLeast;
+
+	private static final Logger log = LoggerFactory.getLogger(OverdueSweepService.class);
+
+	@Scheduled(fixedRateString = "${emi.overdue-sweep.rate:PT1H}") // Run every hour
+	public void scheduledSweep() {
+		jobLockService.runExclusively(OVERDUE_SWEEP, lockAtMost, lockAtLeast,
+				() -> updateOverdueEMIs(LocalDate.now()));
+	}
+
+	/**
+	 * Sweep as of today; returns the number of EMIs whose status changed
+	 */
+	public int updateOverdueEMIs(LocalDate today) {
+		log.info("🔥 Running scheduled overdue EMI update with 3-month rule...");
+		long startTime = System.currentTimeMillis();
+
+		LocalDate threshold = EMIScheduleService.overdueThreshold(today);
+		Optional<SweepWatermark> watermark = sweepWatermarkRepository.findById(OVERDUE_SWEEP);
+		// No watermark yet: every due date, in both directions
+		LocalDate previous = watermark.map(SweepWatermark::getOverdueThreshold).orElse(null);
+		LocalDate overdueFrom = previous != null ? previous : AnalyticsPeriod.UNBOUNDED_START;
+		LocalDate pendingTo = previous != null ? previous : AnalyticsPeriod.UNBOUNDED_END;
+
+		int overdueCount = 0;
+		if (overdueFrom.isBefore(threshold)) {
+			overdueCount = sweepWindow(PaymentStatus.PENDING, overdueFrom, threshold,
+					emiScheduleRepository::markOverdueBetween);
+		}
+		int pendingCount = 0;
+		if (threshold.isBefore(pendingTo)) {
+			pendingCount = sweepWindow(PaymentStatus.OVERDUE, threshold, pendingTo,
+					emiScheduleRepository::markPendingBetween);
+		}
+		int updatedCount = overdueCount + pendingCount;
+		if (updatedCount > 0) {
+			analyticsCache.invalidateAll();
+		}
+
+		transactionTemplate.executeWithoutResult(status -> {
+			SweepWatermark mark = watermark.orElseGet(() -> new SweepWatermark(OVERDUE_SWEEP));
+			mark.setEvaluatedOn(today);
+			mark.setOverdueThreshold(threshold);
+			mark.setUpdatedAt(LocalDateTime.now());
+			sweepWatermarkRepository.save(mark);
+
+			// PENDING <-> OVERDUE does not move the rollup, but a new day does for customers with EMIs falling due
+			portfolioRollupService.rollForward(today);
+		});
+
+		log.info("📅 EMI statuses swept in {} ms: {} -> OVERDUE, {} -> PENDING (threshold {}, previous {})",
+				System.currentTimeMillis() - startTime, overdueCount, pendingCount, threshold,
+				previous);
+		log.info("✅ Overdue EMI update completed. Updated {} EMIs", updatedCount);
+		return updatedCount;
+	}
+
+	private interface WindowUpdate {
+		int apply(LocalDate from, LocalDate to, Collection<String> customerPhones);
+	}
+
+	/**
+	 * Applies update to the customers with a row in status due in [from, to),
+	 * one transaction per phone-hash partition, partitions in parallel
+	 */
+	private int sweepWindow(PaymentStatus status, LocalDate from, LocalDate to, WindowUpdate update) {
+		Map<Integer, List<String>> byPartition = emiScheduleRepository
+				.findCustomersWithStatusDueBetween(status, from, to).stream()
+				// A customer's rows always land in the same partition
+				.collect(Collectors.groupingBy(phone -> StripedLocks.stripeOf(phone, partitions)));
+
+		List<Future<Integer>> results = new ArrayList<>();
+		for (List<String> phones : byPartition.values()) {
+			results.add(executor.submit(() -> transactionTemplate.execute(tx -> {
+				int updated = 0;
+				for (int i = 0; i < phones.size(); i += IN_LIST_SIZE) {
+					updated += update.apply(from, to, phones.subList(i, Math.min(i + IN_LIST_SIZE, phones.size())));
+				}
+				return updated;
+			})));
+		}
+
+		// Wait for every partition before reporting, so a retry never overlaps one still running
+		int updated = 0;
+		RuntimeException failure = null;
+		for (Future<Integer> result : results) {
+			try {
+				updated += result.get();
+			} catch (ExecutionException e) {
+				log.error("❌ Overdue sweep partition failed: {}", e.getCause().getMessage(), e.getCause());
+				failure = new RuntimeException("Overdue sweep partition failed: " + e.getCause().getMessage(),
+						e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for overdue sweep partitions", e);
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+
+		log.info("🧩 Swept {} window [{}, {}): {} customers in {} partitions, {} EMIs updated", status, from, to,
+				byPartition.values().stream().mapToInt(List::size).sum(), byPartition.size(), updated);
+		return updated;
+	}
+}
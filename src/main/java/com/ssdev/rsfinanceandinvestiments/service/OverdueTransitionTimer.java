@@ -0,0 +1,222 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.utility.HierarchicalTimerWheel;
+
+/**
+ * Turns unpaid EMIs OVERDUE when calculateEMIStatus would, instead of
+ * waiting for the next overdue sweep. Every PENDING EMI that turns overdue
+ * before the end of next month is registered in a HierarchicalTimerWheel
+ * under its transition minute; a one-minute tick advances the wheel and marks
+ * whatever came due in batched, conditional UPDATEs. Writers re-register the
+ * rows they change (track), and the following month is loaded from the
+ * (status, due_date) index as each month begins, so nothing is polled in
+ * between. The wheel is rebuilt on startup. Rows written on another node are
+ * only in that node's wheel; the overdue sweep remains the safety net.
+ */
+@Service
+public class OverdueTransitionTimer {
+
+	// Ids per UPDATE
+	private static final int BATCH_SIZE = 1_000;
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private AnalyticsCache analyticsCache;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private record Registration(Long scheduleId, long tick) {
+	}
+
+	// Guarded by this; null until the first load
+	private HierarchicalTimerWheel<Registration> wheel;
+	// Schedule id -> tick it is registered for; wheel entries that no longer match were cancelled
+	private final Map<Long, Long> registered = new HashMap<>();
+	// Transitions before this day are in the wheel
+	private LocalDate loadedUntil;
+
+	private static final Logger log = LoggerFactory.getLogger(OverdueTransitionTimer.class);
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		try {
+			load(LocalDateTime.now());
+		} catch (Exception e) {
+			// Statuses still move with the overdue sweep
+			log.error("❌ Loading overdue transition timers failed: {}", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Rebuild the wheel: every PENDING EMI that turns overdue before the end of
+	 * next month (already overdue ones fire on the next tick)
+	 */
+	public void load(LocalDateTime now) {
+		long startTime = System.currentTimeMillis();
+		LocalDate until = horizon(now.toLocalDate());
+		synchronized (this) {
+			wheel = new HierarchicalTimerWheel<>(tickOf(now));
+			registered.clear();
+			loadedUntil = until;
+		}
+		int loaded = register(emiScheduleRepository.findPendingDueDatesBetween(LocalDate.EPOCH, dueBefore(until)));
+		log.info("⏰ Overdue transition timers loaded in {} ms: {} EMIs turning overdue before {}",
+				System.currentTimeMillis() - startTime, loaded, until);
+	}
+
+	@Scheduled(fixedDelayString = "${emi.status-timer.tick:PT1M}")
+	public void tick() {
+		fireDue(LocalDateTime.now());
+	}
+
+	/**
+	 * Marks the EMIs whose transition is due by now; returns the number updated
+	 */
+	public int fireDue(LocalDateTime now) {
+		extendHorizon(now.toLocalDate());
+
+		List<Long> dueIds;
+		synchronized (this) {
+			if (wheel == null) {
+				return 0;
+			}
+			dueIds = wheel.advanceTo(tickOf(now)).stream()
+					.filter(timer -> registered.remove(timer.scheduleId(), timer.tick()))
+					.map(Registration::scheduleId)
+					.toList();
+		}
+		if (dueIds.isEmpty()) {
+			return 0;
+		}
+
+		LocalDate threshold = EMIScheduleService.overdueThreshold(now.toLocalDate());
+		int updated = 0;
+		for (int from = 0; from < dueIds.size(); from += BATCH_SIZE) {
+			List<Long> batch = dueIds.subList(from, Math.min(from + BATCH_SIZE, dueIds.size()));
+			try {
+				updated += transactionTemplate.execute(status -> emiScheduleRepository.markOverdueByIds(batch, threshold));
+			} catch (Exception e) {
+				log.error("❌ Marking {} EMIs overdue failed, leaving them to the sweep: {}", batch.size(),
+						e.getMessage(), e);
+			}
+		}
+		if (updated > 0) {
+			analyticsCache.invalidateAll();
+		}
+		log.info("⏰ {} overdue transition timers fired, {} EMIs marked OVERDUE", dueIds.size(), updated);
+		return updated;
+	}
+
+	/**
+	 * Re-register schedules a writer just saved: PENDING ones at their
+	 * transition, the rest cancelled. Safe before the commit, as firing
+	 * re-checks the row.
+	 */
+	public synchronized void track(Collection<EMISchedule> schedules) {
+		if (wheel == null) {
+			return;
+		}
+		for (EMISchedule schedule : schedules) {
+			if (schedule.getId() == null) {
+				continue;
+			}
+			if (schedule.getStatus() == PaymentStatus.PENDING) {
+				register(schedule.getId(), schedule.getDueDate());
+			} else {
+				registered.remove(schedule.getId());
+			}
+		}
+	}
+
+	synchronized int registeredCount() {
+		return registered.size();
+	}
+
+	/**
+	 * First moment calculateEMIStatus reports an unpaid EMI as OVERDUE: the
+	 * start of the second month after the one it falls due in
+	 */
+	static LocalDateTime transitionOf(LocalDate dueDate) {
+		return dueDate.withDayOfMonth(1).plusMonths(2).atStartOfDay();
+	}
+
+	// Once a month has begun, the next one is loaded
+	private void extendHorizon(LocalDate today) {
+		LocalDate until = horizon(today);
+		LocalDate from;
+		synchronized (this) {
+			if (wheel == null || !until.isAfter(loadedUntil)) {
+				return;
+			}
+			// Moved first, so a writer tracking a row meanwhile registers it itself
+			from = loadedUntil;
+			loadedUntil = until;
+		}
+		int loaded = register(emiScheduleRepository.findPendingDueDatesBetween(dueBefore(from), dueBefore(until)));
+		log.info("📅 {} EMIs turning overdue between {} and {} added to the timers", loaded, from, until);
+	}
+
+	private int register(List<Object[]> pendingDueDates) {
+		int registeredRows = 0;
+		synchronized (this) {
+			for (Object[] row : pendingDueDates) {
+				if (register((Long) row[0], (LocalDate) row[1])) {
+					registeredRows++;
+				}
+			}
+		}
+		return registeredRows;
+	}
+
+	private boolean register(Long scheduleId, LocalDate dueDate) {
+		LocalDateTime transition = transitionOf(dueDate);
+		if (!transition.toLocalDate().isBefore(loadedUntil)) {
+			// Loaded with its month
+			registered.remove(scheduleId);
+			return false;
+		}
+		long tick = tickOf(transition);
+		Long previous = registered.put(scheduleId, tick);
+		if (previous == null || previous != tick) {
+			wheel.schedule(tick, new Registration(scheduleId, tick));
+		}
+		return true;
+	}
+
+	private static LocalDate horizon(LocalDate today) {
+		return today.withDayOfMonth(1).plusMonths(2);
+	}
+
+	// Transitions before until (a month start) belong to EMIs due before this
+	private static LocalDate dueBefore(LocalDate until) {
+		return until.minusMonths(2);
+	}
+
+	// Minutes on the local clock
+	private static long tickOf(LocalDateTime time) {
+		return time.toEpochSecond(ZoneOffset.UTC) / 60;
+	}
+}
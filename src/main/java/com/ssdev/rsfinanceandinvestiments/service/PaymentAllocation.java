@@ -0,0 +1,23 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+
+/**
+ * Outcome of spreading one receipt over a customer's unpaid EMIs:
+ * allocated + unallocated always equals amount.
+ */
+public record PaymentAllocation(
+		BigDecimal amount,
+		BigDecimal allocated,
+		BigDecimal unallocated,
+		List<Line> lines) {
+
+	/**
+	 * Part of the receipt applied to one EMI, oldest first
+	 */
+	public record Line(EMISchedule schedule, BigDecimal applied) {
+	}
+}
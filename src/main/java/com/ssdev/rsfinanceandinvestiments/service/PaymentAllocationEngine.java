@@ -0,0 +1,60 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+
+/**
+ * Oldest-first allocation of a lump-sum receipt across a customer's unpaid
+ * EMIs, in one pass over the schedule. An EMI is PAID once its pending amount
+ * reaches zero; the last one touched may be left partly paid. Money is
+ * conserved: every rupee is either moved from pendingAmount to paidAmount of
+ * some EMI or reported as unallocated (more than the customer owes).
+ *
+ * The rows are changed in place; cumulative pending and status of the later
+ * months are the caller's job (EMIScheduleService.applyFromMonth).
+ */
+@Component
+public class PaymentAllocationEngine {
+
+	/**
+	 * @param schedules one customer's schedule ordered by month
+	 */
+	public PaymentAllocation allocate(List<EMISchedule> schedules, BigDecimal amount, LocalDate paidDate) {
+		if (amount == null || amount.signum() <= 0) {
+			throw new IllegalArgumentException("Payment amount must be positive");
+		}
+
+		BigDecimal remaining = amount;
+		List<PaymentAllocation.Line> lines = new ArrayList<>();
+		for (EMISchedule schedule : schedules) {
+			if (remaining.signum() == 0) {
+				break;
+			}
+			BigDecimal pending = schedule.getPendingAmount() != null ? schedule.getPendingAmount() : BigDecimal.ZERO;
+			if (schedule.getStatus() == PaymentStatus.PAID || pending.signum() <= 0) {
+				continue;
+			}
+
+			BigDecimal applied = remaining.min(pending);
+			BigDecimal paid = schedule.getPaidAmount() != null ? schedule.getPaidAmount() : BigDecimal.ZERO;
+			schedule.setPaidAmount(paid.add(applied));
+			schedule.setPendingAmount(pending.subtract(applied));
+			schedule.setPaidDate(paidDate);
+			if (schedule.getPendingAmount().signum() == 0) {
+				schedule.setStatus(PaymentStatus.PAID);
+			}
+
+			remaining = remaining.subtract(applied);
+			lines.add(new PaymentAllocation.Line(schedule, applied));
+		}
+
+		return new PaymentAllocation(amount, amount.subtract(remaining), remaining, lines);
+	}
+}
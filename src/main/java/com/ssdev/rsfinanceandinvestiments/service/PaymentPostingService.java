@@ -0,0 +1,242 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ssdev.rsfinanceandinvestiments.dto.BulkPaymentEntry;
+import com.ssdev.rsfinanceandinvestiments.dto.BulkPaymentResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.BulkPaymentResponse.EntryResult;
+import com.ssdev.rsfinanceandinvestiments.dto.PaymentAllocationResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.PaymentReceipt;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+
+/**
+ * Bulk receipt posting: entries (per-EMI status updates or lump-sum receipts)
+ * are validated, grouped by customer and applied with one schedule
+ * recalculation per customer. Customers are committed in chunks, one
+ * transaction per chunk; a failing chunk is retried customer by customer so
+ * one bad customer does not fail the others. Every posting transaction holds
+ * its customers' {@link CustomerLocks}, so concurrent postings for the same
+ * customer cannot overwrite each other's recalculation.
+ */
+@Service
+public class PaymentPostingService {
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private EMIScheduleService emiScheduleService;
+
+	@Autowired
+	private CustomerLocks customerLocks;
+
+	@Value("${payments.bulk.chunk-size:50}")
+	private int chunkSize;
+
+	private static final Logger log = LoggerFactory.getLogger(PaymentPostingService.class);
+
+	public BulkPaymentResponse postPayments(List<BulkPaymentEntry> entries) {
+		long startTime = System.currentTimeMillis();
+		BulkPaymentResponse report = new BulkPaymentResponse();
+		report.setTotalEntries(entries.size());
+
+		List<EntryResult> results = new ArrayList<>(entries.size());
+		entries.forEach(entry -> results.add(new EntryResult(entry.getScheduleId())));
+		report.setResults(results);
+
+		// Owner of every schedule id in one query
+		Map<Long, String> phoneById = new HashMap<>();
+		emiScheduleRepository.findAllById(entries.stream().map(BulkPaymentEntry::getScheduleId)
+				.filter(id -> id != null).distinct().toList())
+				.forEach(schedule -> phoneById.put(schedule.getId(), schedule.getCustomerPhone()));
+
+		// Customer -> indexes of its valid entries, in request order
+		Map<String, List<Integer>> byCustomer = new LinkedHashMap<>();
+		Map<Long, Integer> seenIds = new HashMap<>();
+		for (int i = 0; i < entries.size(); i++) {
+			BulkPaymentEntry entry = entries.get(i);
+			String error = validate(entry);
+			if (error == null && !phoneById.containsKey(entry.getScheduleId())) {
+				error = "EMI Schedule not found with ID: " + entry.getScheduleId();
+			}
+			if (error == null && seenIds.putIfAbsent(entry.getScheduleId(), i) != null) {
+				error = "Duplicate schedule ID in request";
+			}
+			if (error != null) {
+				results.get(i).setMessage(error);
+				continue;
+			}
+			String phone = phoneById.get(entry.getScheduleId());
+			results.get(i).setCustomerPhone(phone);
+			byCustomer.computeIfAbsent(phone, key -> new ArrayList<>()).add(i);
+		}
+
+		inChunks(new ArrayList<>(byCustomer.keySet()),
+				phone -> emiScheduleService.applyPayments(phone, entriesOf(phone, byCustomer, entries)),
+				phone -> posted(phone, byCustomer, results, report),
+				(phone, e) -> byCustomer.get(phone)
+						.forEach(i -> results.get(i).setMessage("Posting failed: " + e.getMessage())));
+
+		report.setPostedCount((int) results.stream().filter(EntryResult::isPosted).count());
+		report.setFailedCount(report.getTotalEntries() - report.getPostedCount());
+		log.info("✅ Bulk payment posting finished in {} ms: {} entries, {} posted, {} failed, {} customers",
+				System.currentTimeMillis() - startTime, report.getTotalEntries(), report.getPostedCount(),
+				report.getFailedCount(), report.getCustomersRecalculated());
+		return report;
+	}
+
+	/**
+	 * Single EMI status update (PUT /emi-schedule/{id}/status) under the owning
+	 * customer's lock
+	 */
+	public void updatePaymentStatus(Long scheduleId, String status, String paidDate, BigDecimal paidAmount) {
+		String phone = emiScheduleRepository.findCustomerPhoneById(scheduleId)
+				.orElseThrow(() -> new RuntimeException("EMI Schedule not found with ID: " + scheduleId));
+		customerLocks.inTransaction(List.of(phone),
+				() -> emiScheduleService.updatePaymentStatus(scheduleId, status, paidDate, paidAmount));
+	}
+
+	/**
+	 * Lump-sum receipts, allocated oldest EMI first per customer; results in
+	 * request order
+	 */
+	public List<PaymentAllocationResponse> allocateReceipts(List<PaymentReceipt> receipts) {
+		long startTime = System.currentTimeMillis();
+		List<PaymentAllocationResponse> responses = new ArrayList<>(receipts.size());
+		Map<String, List<Integer>> byCustomer = new LinkedHashMap<>();
+		for (int i = 0; i < receipts.size(); i++) {
+			PaymentReceipt receipt = receipts.get(i);
+			PaymentAllocationResponse response = new PaymentAllocationResponse(receipt.getCustomerPhone(),
+					receipt.getAmount());
+			responses.add(response);
+			String error = validate(receipt);
+			if (error != null) {
+				response.setError(error);
+				continue;
+			}
+			byCustomer.computeIfAbsent(receipt.getCustomerPhone(), key -> new ArrayList<>()).add(i);
+		}
+
+		// Filled inside the chunk transaction, copied to the responses once it commits
+		Map<String, List<PaymentAllocationResponse>> allocated = new HashMap<>();
+		inChunks(new ArrayList<>(byCustomer.keySet()),
+				phone -> allocated.put(phone, emiScheduleService.allocatePayments(phone,
+						byCustomer.get(phone).stream().map(receipts::get).toList())),
+				phone -> {
+					List<Integer> indexes = byCustomer.get(phone);
+					for (int k = 0; k < indexes.size(); k++) {
+						responses.set(indexes.get(k), allocated.get(phone).get(k));
+					}
+				},
+				(phone, e) -> byCustomer.get(phone)
+						.forEach(i -> responses.get(i).setError("Posting failed: " + e.getMessage())));
+
+		log.info("✅ {} receipts for {} customers allocated in {} ms", receipts.size(), byCustomer.size(),
+				System.currentTimeMillis() - startTime);
+		return responses;
+	}
+
+	/**
+	 * Runs perCustomer for chunkSize customers per transaction. A failed chunk is
+	 * retried customer by customer; committed / failed are told the outcome of
+	 * each customer after its transaction ends.
+	 */
+	private void inChunks(List<String> customers, Consumer<String> perCustomer, Consumer<String> committed,
+			BiConsumer<String, Exception> failed) {
+		for (int from = 0; from < customers.size(); from += chunkSize) {
+			List<String> chunk = customers.subList(from, Math.min(from + chunkSize, customers.size()));
+			try {
+				customerLocks.inTransaction(chunk, () -> chunk.forEach(perCustomer));
+				chunk.forEach(committed);
+			} catch (Exception e) {
+				// One bad customer rolls back the chunk; retry customer by customer to find it
+				log.warn("⚠️ Payment chunk of {} customers failed ({}), retrying customer by customer", chunk.size(),
+						e.getMessage());
+				for (String phone : chunk) {
+					try {
+						customerLocks.inTransaction(List.of(phone), () -> perCustomer.accept(phone));
+						committed.accept(phone);
+					} catch (Exception customerError) {
+						log.error("❌ Posting payments for {} failed: {}", phone, customerError.getMessage());
+						failed.accept(phone, customerError);
+					}
+				}
+			}
+		}
+	}
+
+	private static List<BulkPaymentEntry> entriesOf(String phone, Map<String, List<Integer>> byCustomer,
+			List<BulkPaymentEntry> entries) {
+		return byCustomer.get(phone).stream().map(entries::get).toList();
+	}
+
+	private static void posted(String phone, Map<String, List<Integer>> byCustomer, List<EntryResult> results,
+			BulkPaymentResponse report) {
+		byCustomer.get(phone).forEach(i -> {
+			results.get(i).setPosted(true);
+			results.get(i).setMessage("Status updated successfully");
+		});
+		report.setCustomersRecalculated(report.getCustomersRecalculated() + 1);
+	}
+
+	private static String validate(PaymentReceipt receipt) {
+		if (receipt.getCustomerPhone() == null || receipt.getCustomerPhone().isBlank()) {
+			return "Customer phone is required";
+		}
+		if (receipt.getAmount() == null || receipt.getAmount().signum() <= 0) {
+			return "Payment amount must be positive";
+		}
+		if (receipt.getPaidDate() == null) {
+			return "Paid date is required";
+		}
+		try {
+			LocalDate.parse(receipt.getPaidDate());
+		} catch (DateTimeParseException e) {
+			return "Invalid paid date: " + receipt.getPaidDate();
+		}
+		return null;
+	}
+
+	// Same checks updatePaymentStatus would fail on, reported per entry instead of thrown
+	private static String validate(BulkPaymentEntry entry) {
+		if (entry.getScheduleId() == null) {
+			return "Schedule ID is required";
+		}
+		PaymentStatus status;
+		try {
+			status = PaymentStatus.valueOf(String.valueOf(entry.getStatus()).toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return "Invalid status: " + entry.getStatus();
+		}
+		if (status == PaymentStatus.PAID) {
+			if (entry.getPaidDate() == null) {
+				return "Paid date is required for PAID";
+			}
+			try {
+				LocalDate.parse(entry.getPaidDate());
+			} catch (DateTimeParseException e) {
+				return "Invalid paid date: " + entry.getPaidDate();
+			}
+			if (entry.getPaidAmount() != null && entry.getPaidAmount().signum() < 0) {
+				return "Paid amount cannot be negative";
+			}
+		}
+		return null;
+	}
+}
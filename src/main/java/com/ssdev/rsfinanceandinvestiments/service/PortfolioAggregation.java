@@ -0,0 +1,225 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerScheduleAggregate;
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+
+/**
+ * Mutable fold over EMI schedules, bucketed by customer phone.
+ *
+ * Period rows (the selected month/range) go through {@link #acceptPeriod} and
+ * full-tenure rows through {@link #acceptAll}; every row is visited once and
+ * never compared against other rows. When the database already grouped the rows,
+ * {@link #acceptCustomerAggregate} folds one pre-aggregated customer instead.
+ */
+public class PortfolioAggregation {
+
+	private final LocalDate today;
+
+	private final Map<String, CustomerAccumulator> customers = new HashMap<>();
+	private final List<CustomerAccumulator> periodCustomers = new ArrayList<>();
+
+	private BigDecimal totalExpected = BigDecimal.ZERO;
+	private BigDecimal totalPaidAmount = BigDecimal.ZERO;
+
+	PortfolioAggregation(LocalDate today) {
+		this.today = today;
+	}
+
+	/**
+	 * Fold one EMI that falls inside the selected period
+	 */
+	public void acceptPeriod(EMISchedule schedule) {
+		CustomerAccumulator customer = customer(schedule.getCustomerPhone());
+		markInPeriod(customer);
+
+		totalExpected = totalExpected.add(amount(schedule.getEmiAmount()));
+		if (schedule.getStatus() == PaymentStatus.PAID) {
+			customer.paidInPeriod = true;
+			totalPaidAmount = totalPaidAmount.add(amount(schedule.getPaidAmount()));
+		}
+	}
+
+	/**
+	 * Fold one EMI from the customer's full tenure (balances, overdue and waitlist
+	 * flags)
+	 */
+	public void acceptAll(EMISchedule schedule) {
+		CustomerAccumulator customer = customer(schedule.getCustomerPhone());
+		PaymentStatus status = schedule.getStatus();
+		LocalDate dueDate = schedule.getDueDate();
+
+		if (status != PaymentStatus.PAID && !dueDate.isAfter(today)) {
+			customer.dueUnpaidCount++;
+			customer.dueUnpaidAmount = customer.dueUnpaidAmount.add(amount(schedule.getEmiAmount()));
+			if (dueDate.isBefore(today)) {
+				customer.overdue = true;
+			}
+		}
+
+		if (status == PaymentStatus.PENDING || status == PaymentStatus.OVERDUE) {
+			customer.outstandingEmiAmount = customer.outstandingEmiAmount.add(amount(schedule.getEmiAmount()));
+			customer.outstandingPendingAmount = customer.outstandingPendingAmount
+					.add(amount(schedule.getPendingAmount()));
+		}
+	}
+
+	/**
+	 * Fold one customer already grouped by the database (same rules as
+	 * acceptPeriod + acceptAll over that customer's rows)
+	 */
+	public void acceptCustomerAggregate(CustomerScheduleAggregate aggregate) {
+		CustomerAccumulator customer = customer(aggregate.customerPhone());
+		if (aggregate.periodEmiCount() > 0) {
+			markInPeriod(customer);
+			totalExpected = totalExpected.add(amount(aggregate.periodEmiAmount()));
+		}
+		if (aggregate.periodPaidCount() > 0) {
+			customer.paidInPeriod = true;
+			totalPaidAmount = totalPaidAmount.add(amount(aggregate.periodPaidAmount()));
+		}
+
+		customer.overdue |= aggregate.overdueCount() > 0;
+		customer.dueUnpaidCount += aggregate.dueUnpaidCount().intValue();
+		customer.dueUnpaidAmount = customer.dueUnpaidAmount.add(amount(aggregate.dueUnpaidAmount()));
+		customer.outstandingEmiAmount = customer.outstandingEmiAmount.add(amount(aggregate.outstandingEmiAmount()));
+		customer.outstandingPendingAmount = customer.outstandingPendingAmount
+				.add(amount(aggregate.outstandingPendingAmount()));
+	}
+
+	/**
+	 * Customers with at least one EMI in the period, in first-seen order
+	 */
+	public List<CustomerAccumulator> getPeriodCustomers() {
+		return Collections.unmodifiableList(periodCustomers);
+	}
+
+	public CustomerAccumulator getCustomer(String phone) {
+		return customers.get(phone);
+	}
+
+	public Collection<CustomerAccumulator> getCustomers() {
+		return Collections.unmodifiableCollection(customers.values());
+	}
+
+	public PortfolioTotals totals() {
+		int paidCustomers = 0;
+		int pendingCustomers = 0;
+		int waitlistCustomers = 0;
+		BigDecimal totalUnpaid = BigDecimal.ZERO;
+		BigDecimal pendingUnpaid = BigDecimal.ZERO;
+		BigDecimal waitlistUnpaid = BigDecimal.ZERO;
+
+		for (CustomerAccumulator customer : periodCustomers) {
+			if (customer.paidInPeriod) {
+				paidCustomers++;
+			}
+			totalUnpaid = totalUnpaid.add(customer.dueUnpaidAmount);
+
+			if (customer.isWaitlisted()) {
+				waitlistCustomers++;
+				waitlistUnpaid = waitlistUnpaid.add(customer.dueUnpaidAmount);
+			} else if (customer.hasDueUnpaid()) {
+				pendingCustomers++;
+				pendingUnpaid = pendingUnpaid.add(customer.dueUnpaidAmount);
+			}
+		}
+
+		return new PortfolioTotals(periodCustomers.size(), paidCustomers, pendingCustomers, waitlistCustomers,
+				totalExpected, totalPaidAmount, totalUnpaid, pendingUnpaid, waitlistUnpaid);
+	}
+
+	private void markInPeriod(CustomerAccumulator customer) {
+		if (!customer.inPeriod) {
+			customer.inPeriod = true;
+			periodCustomers.add(customer);
+		}
+	}
+
+	private CustomerAccumulator customer(String phone) {
+		return customers.computeIfAbsent(phone, CustomerAccumulator::new);
+	}
+
+	private static BigDecimal amount(BigDecimal value) {
+		return value != null ? value : BigDecimal.ZERO;
+	}
+
+	/**
+	 * Per-customer running state of the fold
+	 */
+	public static class CustomerAccumulator {
+
+		private final String phone;
+
+		private boolean inPeriod;
+		private boolean paidInPeriod;
+		private boolean overdue;
+		private int dueUnpaidCount;
+		private BigDecimal dueUnpaidAmount = BigDecimal.ZERO;
+		private BigDecimal outstandingEmiAmount = BigDecimal.ZERO;
+		private BigDecimal outstandingPendingAmount = BigDecimal.ZERO;
+
+		CustomerAccumulator(String phone) {
+			this.phone = phone;
+		}
+
+		public String getPhone() {
+			return phone;
+		}
+
+		public boolean isInPeriod() {
+			return inPeriod;
+		}
+
+		public boolean isPaidInPeriod() {
+			return paidInPeriod;
+		}
+
+		/** At least one unpaid EMI strictly before today */
+		public boolean isOverdue() {
+			return overdue;
+		}
+
+		/** Unpaid EMIs due on or before today */
+		public int getDueUnpaidCount() {
+			return dueUnpaidCount;
+		}
+
+		public boolean hasDueUnpaid() {
+			return dueUnpaidCount > 0;
+		}
+
+		/** 3+ unpaid EMIs due on or before today */
+		public boolean isWaitlistCandidate() {
+			return dueUnpaidCount >= 3;
+		}
+
+		/** Waitlist as counted on the analytics dashboard: overdue and 3+ unpaid */
+		public boolean isWaitlisted() {
+			return overdue && isWaitlistCandidate();
+		}
+
+		public BigDecimal getDueUnpaidAmount() {
+			return dueUnpaidAmount;
+		}
+
+		/** Sum of EMI amounts over every PENDING/OVERDUE month of the tenure */
+		public BigDecimal getOutstandingEmiAmount() {
+			return outstandingEmiAmount;
+		}
+
+		/** Sum of pending amounts over every PENDING/OVERDUE month of the tenure */
+		public BigDecimal getOutstandingPendingAmount() {
+			return outstandingPendingAmount;
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.MonthlyPortfolioRollup;
+import com.ssdev.rsfinanceandinvestiments.entity.MonthlyPortfolioRollupId;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.MonthlyPortfolioRollupRepository;
+
+/**
+ * Maintains monthly_portfolio_rollup so calendar-month analytics are a primary
+ * key lookup.
+ *
+ * Writers take a {@link #snapshot} of the customer before changing schedules
+ * and call {@link #applyChange} afterwards, in the same transaction; only the
+ * difference of that customer's per-month contribution is added to the rows.
+ * Both are evaluated for the rollup's as_of day, so the rollup stays exact for
+ * that day even after midnight, and {@link #rollForward} can move it to a new
+ * day by re-evaluating only the customers the new day affects.
+ */
+@Service
+public class PortfolioRollupService {
+
+	@Autowired
+	private MonthlyPortfolioRollupRepository rollupRepository;
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private AnalyticsAggregationEngine aggregationEngine;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	// Customers whose schedules are loaded per query when rolling forward
+	private static final int ROLL_FORWARD_BATCH = 1_000;
+
+	private static final Logger log = LoggerFactory.getLogger(PortfolioRollupService.class);
+
+	/**
+	 * Recompute every month from emi_schedules in bulk (repairs drift, and rolls
+	 * the rollup over to a new day)
+	 */
+	@Transactional
+	public int rebuild() {
+		long startTime = System.currentTimeMillis();
+		LocalDate today = LocalDate.now();
+
+		rollupRepository.deleteAllRows();
+		int months = rollupRepository.rebuildFromSchedules(today);
+
+		log.info("✅ Portfolio rollup rebuilt for {}: {} months in {} ms", today, months,
+				System.currentTimeMillis() - startTime);
+		return months;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildOnStartup() {
+		try {
+			// Own transaction, so a failed rebuild cannot leave a rollback-only one behind
+			transactionTemplate.executeWithoutResult(status -> rebuildIfStale());
+		} catch (Exception e) {
+			// Analytics fall back to live queries until the next rebuild
+			log.error("❌ Portfolio rollup rebuild on startup failed: {}", e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Rebuild when the rollup was computed for an earlier day
+	 */
+	@Transactional
+	public void rebuildIfStale() {
+		if (!isCurrent(LocalDate.now())) {
+			log.info("🔥 Portfolio rollup is stale, rebuilding");
+			rebuild();
+		}
+	}
+
+	/**
+	 * Totals for a calendar month, empty when the rollup is not current for today
+	 */
+	@Transactional(readOnly = true)
+	public Optional<PortfolioTotals> lookup(YearMonth month) {
+		LocalDate today = LocalDate.now();
+		Optional<MonthlyPortfolioRollup> row = rollupRepository
+				.findById(new MonthlyPortfolioRollupId(month.getYear(), month.getMonthValue()));
+
+		if (row.isPresent()) {
+			return today.equals(row.get().getAsOf()) ? Optional.of(toTotals(row.get())) : Optional.empty();
+		}
+		// No row in a current rollup means no EMIs in that month
+		return isCurrent(today) ? Optional.of(PortfolioTotals.ZERO) : Optional.empty();
+	}
+
+	/**
+	 * Move the rollup from its as_of day to today. Only customers with an unpaid
+	 * EMI due in between can count differently (due-unpaid, overdue, waitlist);
+	 * everyone else contributes exactly what they did. Rebuilds in full when
+	 * there is nothing to roll forward from.
+	 */
+	@Transactional
+	public void rollForward(LocalDate today) {
+		Optional<LocalDate> asOf = rollupRepository.findAsOf();
+		if (asOf.isEmpty() || asOf.get().isAfter(today)) {
+			rebuild();
+			return;
+		}
+		LocalDate from = asOf.get();
+		if (from.equals(today)) {
+			return;
+		}
+
+		long startTime = System.currentTimeMillis();
+		List<String> phones = emiScheduleRepository.findCustomersWithUnpaidDueBetween(from, today);
+		Map<YearMonth, PortfolioTotals> delta = new HashMap<>();
+		for (int i = 0; i < phones.size(); i += ROLL_FORWARD_BATCH) {
+			List<String> batch = phones.subList(i, Math.min(i + ROLL_FORWARD_BATCH, phones.size()));
+			Collection<List<EMISchedule>> customers = emiScheduleRepository.findByCustomerPhonesOrderByMonth(batch)
+					.stream().collect(Collectors.groupingBy(EMISchedule::getCustomerPhone)).values();
+			rollForwardDelta(customers, from, today).forEach((month, d) -> delta.merge(month, d, PortfolioTotals::plus));
+		}
+		// A posting that read the old as_of and writes after this commits is dropped by applyDelta's as_of
+		// guard; rebuild() (startup, POST /analytics/rollup/rebuild) repairs that
+		applyDeltas(delta, from);
+		int months = rollupRepository.restamp(from, today);
+
+		log.info("✅ Portfolio rollup rolled forward from {} to {} in {} ms: {} customers re-evaluated, {} of {} months changed",
+				from, today, System.currentTimeMillis() - startTime, phones.size(),
+				delta.values().stream().filter(d -> !d.isZero()).count(), months);
+	}
+
+	/**
+	 * What the rollup gains when the given customers are evaluated for to
+	 * instead of from
+	 */
+	Map<YearMonth, PortfolioTotals> rollForwardDelta(Collection<List<EMISchedule>> customers, LocalDate from,
+			LocalDate to) {
+		Map<YearMonth, PortfolioTotals> delta = new HashMap<>();
+		for (List<EMISchedule> customerSchedules : customers) {
+			difference(contributions(customerSchedules, from), contributions(customerSchedules, to))
+					.forEach((month, d) -> delta.merge(month, d, PortfolioTotals::plus));
+		}
+		return delta;
+	}
+
+	/**
+	 * Per-month contribution of one customer before a change
+	 */
+	public Map<YearMonth, PortfolioTotals> snapshot(String customerPhone) {
+		return contributions(emiScheduleRepository.findByCustomerPhoneOrderByMonth(customerPhone),
+				rollupRepository.findAsOf().orElseGet(LocalDate::now));
+	}
+
+	/**
+	 * Add (after - before) for one customer to the affected months
+	 */
+	@Transactional
+	public void applyChange(String customerPhone, Map<YearMonth, PortfolioTotals> before) {
+		applyChange(customerPhone, before, emiScheduleRepository.findByCustomerPhoneOrderByMonth(customerPhone));
+	}
+
+	/**
+	 * Same, for a caller that already holds the customer's updated schedules
+	 */
+	@Transactional
+	public void applyChange(String customerPhone, Map<YearMonth, PortfolioTotals> before,
+			List<EMISchedule> customerSchedules) {
+		Optional<LocalDate> asOf = rollupRepository.findAsOf();
+		if (asOf.isEmpty()) {
+			log.debug("No portfolio rollup yet, skipping delta for {}", customerPhone);
+			return;
+		}
+
+		applyDeltas(difference(before, contributions(customerSchedules, asOf.get())), asOf.get());
+	}
+
+	private void applyDeltas(Map<YearMonth, PortfolioTotals> deltas, LocalDate asOf) {
+		deltas.forEach((month, delta) -> {
+			if (!delta.isZero()) {
+				rollupRepository.applyDelta(month.getYear(), month.getMonthValue(), delta.totalCustomers(),
+						delta.paidCustomers(), delta.pendingCustomers(), delta.waitlistCustomers(),
+						delta.totalExpected(), delta.totalPaidAmount(), delta.totalUnpaidAmount(),
+						delta.pendingUnpaidAmount(), delta.waitlistUnpaidAmount(), asOf);
+			}
+		});
+	}
+
+	private static Map<YearMonth, PortfolioTotals> difference(Map<YearMonth, PortfolioTotals> before,
+			Map<YearMonth, PortfolioTotals> after) {
+		Set<YearMonth> months = new HashSet<>(before.keySet());
+		months.addAll(after.keySet());
+		Map<YearMonth, PortfolioTotals> delta = new HashMap<>();
+		for (YearMonth month : months) {
+			delta.put(month, after.getOrDefault(month, PortfolioTotals.ZERO)
+					.minus(before.getOrDefault(month, PortfolioTotals.ZERO)));
+		}
+		return delta;
+	}
+
+	/**
+	 * What one customer adds to each calendar month they have EMIs in
+	 */
+	Map<YearMonth, PortfolioTotals> contributions(List<EMISchedule> customerSchedules, LocalDate today) {
+		Map<YearMonth, List<EMISchedule>> byMonth = customerSchedules.stream()
+				.collect(Collectors.groupingBy(s -> YearMonth.from(s.getDueDate())));
+
+		Map<YearMonth, PortfolioTotals> contributions = new HashMap<>();
+		byMonth.forEach((month, monthSchedules) -> {
+			PortfolioAggregation aggregation = aggregationEngine.newAggregation(today);
+			monthSchedules.forEach(aggregation::acceptPeriod);
+			customerSchedules.forEach(aggregation::acceptAll);
+			contributions.put(month, aggregation.totals());
+		});
+		return contributions;
+	}
+
+	private boolean isCurrent(LocalDate today) {
+		return rollupRepository.existsByAsOf(today);
+	}
+
+	private PortfolioTotals toTotals(MonthlyPortfolioRollup row) {
+		return new PortfolioTotals(row.getTotalCustomers(), row.getPaidCustomers(), row.getPendingCustomers(),
+				row.getWaitlistCustomers(), row.getExpectedAmount(), row.getCollectedAmount(), row.getUnpaidAmount(),
+				row.getPendingUnpaidAmount(), row.getWaitlistUnpaidAmount());
+	}
+}
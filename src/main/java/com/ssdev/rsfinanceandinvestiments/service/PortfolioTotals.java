@@ -0,0 +1,53 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Portfolio-level numbers behind a MonthlyAnalyticsResponse for one period.
+ */
+public record PortfolioTotals(
+		int totalCustomers,
+		int paidCustomers,
+		int pendingCustomers,
+		int waitlistCustomers,
+		BigDecimal totalExpected,
+		BigDecimal totalPaidAmount,
+		BigDecimal totalUnpaidAmount,
+		BigDecimal pendingUnpaidAmount,
+		BigDecimal waitlistUnpaidAmount) {
+
+	public static final PortfolioTotals ZERO = new PortfolioTotals(0, 0, 0, 0, BigDecimal.ZERO, BigDecimal.ZERO,
+			BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+	public PortfolioTotals plus(PortfolioTotals other) {
+		return new PortfolioTotals(
+				totalCustomers + other.totalCustomers,
+				paidCustomers + other.paidCustomers,
+				pendingCustomers + other.pendingCustomers,
+				waitlistCustomers + other.waitlistCustomers,
+				totalExpected.add(other.totalExpected),
+				totalPaidAmount.add(other.totalPaidAmount),
+				totalUnpaidAmount.add(other.totalUnpaidAmount),
+				pendingUnpaidAmount.add(other.pendingUnpaidAmount),
+				waitlistUnpaidAmount.add(other.waitlistUnpaidAmount));
+	}
+
+	public PortfolioTotals minus(PortfolioTotals other) {
+		return new PortfolioTotals(
+				totalCustomers - other.totalCustomers,
+				paidCustomers - other.paidCustomers,
+				pendingCustomers - other.pendingCustomers,
+				waitlistCustomers - other.waitlistCustomers,
+				totalExpected.subtract(other.totalExpected),
+				totalPaidAmount.subtract(other.totalPaidAmount),
+				totalUnpaidAmount.subtract(other.totalUnpaidAmount),
+				pendingUnpaidAmount.subtract(other.pendingUnpaidAmount),
+				waitlistUnpaidAmount.subtract(other.waitlistUnpaidAmount));
+	}
+
+	public boolean isZero() {
+		return totalCustomers == 0 && paidCustomers == 0 && pendingCustomers == 0 && waitlistCustomers == 0
+				&& totalExpected.signum() == 0 && totalPaidAmount.signum() == 0 && totalUnpaidAmount.signum() == 0
+				&& pendingUnpaidAmount.signum() == 0 && waitlistUnpaidAmount.signum() == 0;
+	}
+}
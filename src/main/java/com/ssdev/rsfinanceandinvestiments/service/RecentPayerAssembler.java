@@ -0,0 +1,103 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ssdev.rsfinanceandinvestiments.dto.RecentPayerResponse;
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+
+/**
+ * Builds RecentPayerResponse lists with a fixed number of queries. Schedules
+ * are loaded with their customer joined in on customer_id; only phones whose
+ * schedules came without one cost an IN query for the customers.
+ */
+@Component
+public class RecentPayerAssembler {
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	/**
+	 * Full tenure of the given customers, grouped by phone and ordered by month
+	 */
+	public Map<String, List<EMISchedule>> loadSchedules(Collection<String> phones) {
+		if (phones.isEmpty()) {
+			return Map.of();
+		}
+		return emiScheduleRepository.findWithCustomerByCustomerPhones(phones).stream()
+				.collect(Collectors.groupingBy(EMISchedule::getCustomerPhone, LinkedHashMap::new, Collectors.toList()));
+	}
+
+	/**
+	 * One response per phone, in the given order; customer is null when the phone
+	 * has no customer row
+	 */
+	public List<RecentPayerResponse> assemble(List<String> phones, Map<String, List<EMISchedule>> schedulesByPhone,
+			Function<String, BigDecimal> balance) {
+		Map<String, Customer> customers = new HashMap<>();
+		List<String> missing = new ArrayList<>();
+		for (String phone : phones) {
+			Customer customer = joinedCustomer(schedulesByPhone.getOrDefault(phone, List.of()));
+			if (customer != null) {
+				customers.put(phone, customer);
+			} else {
+				missing.add(phone);
+			}
+		}
+		customers.putAll(loadCustomers(missing));
+
+		return phones.stream().map(phone -> {
+			RecentPayerResponse dto = new RecentPayerResponse();
+			dto.setCustomer(customers.get(phone));
+			dto.setEmiSchedules(schedulesByPhone.getOrDefault(phone, List.of()));
+			dto.setBalance(balance.apply(phone));
+			return dto;
+		}).toList();
+	}
+
+	/**
+	 * Every customer that has schedules, each with its full tenure, from one
+	 * join on customer_id
+	 */
+	public List<RecentPayerResponse> allWithSchedules() {
+		return customerRepository.findAllWithSchedules().stream().map(customer -> {
+			RecentPayerResponse dto = new RecentPayerResponse();
+			dto.setCustomer(customer);
+			dto.setEmiSchedules(List.copyOf(customer.getEmiSchedules()));
+			return dto;
+		}).toList();
+	}
+
+	// The customer fetched along with the schedules, if the query joined it in
+	private static Customer joinedCustomer(List<EMISchedule> schedules) {
+		if (schedules.isEmpty() || !Hibernate.isInitialized(schedules.get(0).getCustomer())) {
+			return null;
+		}
+		return (Customer) Hibernate.unproxy(schedules.get(0).getCustomer());
+	}
+
+	private Map<String, Customer> loadCustomers(Collection<String> phones) {
+		if (phones.isEmpty()) {
+			return Map.of();
+		}
+		return customerRepository.findByPhoneNumberIn(phones).stream()
+				.collect(Collectors.toMap(Customer::getPhoneNumber, Function.identity(), (a, b) -> a));
+	}
+}
@@ -0,0 +1,288 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.entity.ScheduleGenerationJob;
+import com.ssdev.rsfinanceandinvestiments.entity.ScheduleGenerationJob.JobStatus;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.ScheduleGenerationJobRepository;
+
+/**
+ * Durable background EMI schedule generation.
+ *
+ * {@link #enqueue} writes a QUEUED {@link ScheduleGenerationJob} inside the
+ * caller's transaction (the customer insert), so a customer never exists
+ * without a pending job. {@link #drain} claims due jobs in batches with
+ * SKIP LOCKED and a lease, on any node, and generates on virtual threads; at
+ * most emi.generation.max-concurrency run at once. Failures are retried with
+ * exponential backoff up to emi.generation.max-attempts; a job whose worker
+ * died is claimed again once its lease expires. Generation skips months that
+ * already exist, so running a job twice is harmless.
+ */
+@Service
+public class ScheduleGenerationJobService {
+
+	@Autowired
+	private ScheduleGenerationJobRepository jobRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private EMIScheduleService emiScheduleService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	@Qualifier("emiScheduleExecutor")
+	private ExecutorService executor;
+
+	private final int maxConcurrency;
+	private final int maxQueued;
+	private final int batchSize;
+	private final int maxAttempts;
+	private final Duration lease;
+	private final Duration retryBackoff;
+	private final Semaphore permits;
+
+	// Serialises claiming on this node; a second drain just returns and the running one picks the new rows up
+	private final ReentrantLock drainLock = new ReentrantLock();
+
+	// Claimed by this node and not finished yet (waiting for a permit or running)
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger running = new AtomicInteger();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder retried = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder totalQueueWaitMs = new LongAdder();
+	private final LongAdder totalDurationMs = new LongAdder();
+	private final AtomicLong maxQueueWaitMs = new AtomicLong();
+	private final AtomicLong maxDurationMs = new AtomicLong();
+
+	private static final Logger log = LoggerFactory.getLogger(ScheduleGenerationJobService.class);
+
+	public ScheduleGenerationJobService(@Value("${emi.generation.max-concurrency:4}") int maxConcurrency,
+			@Value("${emi.generation.max-queued:500}") int maxQueued,
+			@Value("${emi.generation.batch-size:20}") int batchSize,
+			@Value("${emi.generation.max-attempts:5}") int maxAttempts,
+			@Value("${emi.generation.lease:5m}") Duration lease,
+			@Value("${emi.generation.retry-backoff:10s}") Duration retryBackoff) {
+		this.maxConcurrency = maxConcurrency;
+		this.maxQueued = maxQueued;
+		this.batchSize = batchSize;
+		this.maxAttempts = maxAttempts;
+		this.lease = lease;
+		this.retryBackoff = retryBackoff;
+		this.permits = new Semaphore(maxConcurrency, true);
+	}
+
+	/**
+	 * False once emi.generation.max-queued jobs are waiting in the outbox
+	 */
+	public boolean hasCapacity() {
+		return jobRepository.countByStatus(JobStatus.QUEUED) < maxQueued;
+	}
+
+	/**
+	 * Write a QUEUED job in the current transaction; draining starts once it
+	 * commits
+	 */
+	public ScheduleGenerationJob enqueue(String customerPhone) {
+		LocalDateTime now = LocalDateTime.now();
+		ScheduleGenerationJob job = new ScheduleGenerationJob();
+		job.setCustomerPhone(customerPhone);
+		job.setStatus(JobStatus.QUEUED);
+		job.setQueuedAt(now);
+		job.setNextAttemptAt(now);
+		job = jobRepository.save(job);
+
+		log.info("📥 Schedule generation job {} queued for {}", job.getId(), customerPhone);
+		afterCommit(() -> executor.execute(this::drain));
+		return job;
+	}
+
+	public Optional<ScheduleGenerationJob> findJob(Long jobId) {
+		return jobRepository.findById(jobId);
+	}
+
+	/**
+	 * Picks up jobs queued before a restart, retries that are due, jobs of dead
+	 * workers and rows other nodes have not got to
+	 */
+	@Scheduled(fixedDelayString = "${emi.generation.poll-interval:PT5S}")
+	public void pollOutbox() {
+		drain();
+	}
+
+	/**
+	 * Claim and start due jobs until the outbox is empty or this node is full
+	 */
+	public void drain() {
+		if (!drainLock.tryLock()) {
+			return;
+		}
+		try {
+			int free;
+			while ((free = Math.min(batchSize, 2 * maxConcurrency - inFlight.get())) > 0) {
+				List<ScheduleGenerationJob> claimed = claim(free);
+				if (claimed.isEmpty()) {
+					return;
+				}
+				for (ScheduleGenerationJob job : claimed) {
+					inFlight.incrementAndGet();
+					executor.execute(() -> run(job));
+				}
+			}
+		} catch (Exception e) {
+			log.error("❌ Claiming schedule generation jobs failed: {}", e.getMessage(), e);
+		} finally {
+			drainLock.unlock();
+		}
+	}
+
+	private List<ScheduleGenerationJob> claim(int limit) {
+		return transactionTemplate.execute(status -> {
+			LocalDateTime now = LocalDateTime.now();
+			List<ScheduleGenerationJob> jobs = jobRepository.findClaimable(now, PageRequest.of(0, limit));
+			for (ScheduleGenerationJob job : jobs) {
+				job.setStatus(JobStatus.RUNNING);
+				job.setAttempts(job.getAttempts() + 1);
+				job.setLeaseUntil(now.plus(lease));
+			}
+			return jobs;
+		});
+	}
+
+	private void run(ScheduleGenerationJob job) {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			// Lease expiry hands the job to the next drain
+			Thread.currentThread().interrupt();
+			inFlight.decrementAndGet();
+			return;
+		}
+
+		running.incrementAndGet();
+		long startNanos = System.nanoTime();
+		LocalDateTime startedAt = LocalDateTime.now();
+		long waitMs = Math.max(0, Duration.between(job.getQueuedAt(), startedAt).toMillis());
+		record(totalQueueWaitMs, maxQueueWaitMs, waitMs);
+
+		try {
+			Customer customer = customerRepository.findByPhoneNumber(job.getCustomerPhone())
+					.orElseThrow(() -> new IllegalStateException("Customer not found: " + job.getCustomerPhone()));
+			int months = emiScheduleService.generateEMIScheduleForCustomer(customer);
+
+			long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+			completed.increment();
+			finish(job.getId(), JobStatus.COMPLETED, months, null, startedAt, waitMs, durationMs);
+		} catch (Exception e) {
+			long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+			// A deleted customer will not come back; anything else is worth another try
+			boolean retry = job.getAttempts() < maxAttempts && !(e instanceof IllegalStateException);
+			log.error("❌ Schedule generation job {} failed for {} (attempt {}/{}): {}", job.getId(),
+					job.getCustomerPhone(), job.getAttempts(), maxAttempts, e.getMessage(), e);
+			if (retry) {
+				retried.increment();
+			} else {
+				failed.increment();
+			}
+			finish(job.getId(), retry ? JobStatus.QUEUED : JobStatus.FAILED, null, e.getMessage(), startedAt, waitMs,
+					durationMs);
+		} finally {
+			running.decrementAndGet();
+			inFlight.decrementAndGet();
+			permits.release();
+		}
+	}
+
+	private void finish(Long jobId, JobStatus status, Integer months, String error, LocalDateTime startedAt,
+			long waitMs, long durationMs) {
+		record(totalDurationMs, maxDurationMs, durationMs);
+		try {
+			transactionTemplate.executeWithoutResult(tx -> jobRepository.findById(jobId).ifPresent(job -> {
+				job.setStatus(status);
+				job.setMonthsGenerated(months);
+				job.setErrorMessage(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+				job.setStartedAt(startedAt);
+				job.setQueueWaitMs(waitMs);
+				job.setDurationMs(durationMs);
+				job.setLeaseUntil(null);
+				if (status == JobStatus.QUEUED) {
+					// 10s, 20s, 40s, ... after each failed attempt
+					long factor = 1L << Math.min(job.getAttempts() - 1, 16);
+					job.setNextAttemptAt(LocalDateTime.now().plus(retryBackoff.multipliedBy(factor)));
+				} else {
+					job.setFinishedAt(LocalDateTime.now());
+				}
+			}));
+		} catch (Exception e) {
+			// The lease runs out and the job is claimed again
+			log.error("❌ Could not record outcome of schedule generation job {}: {}", jobId, e.getMessage(), e);
+		}
+	}
+
+	private static void record(LongAdder total, AtomicLong max, long valueMs) {
+		total.add(valueMs);
+		max.accumulateAndGet(valueMs, Math::max);
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+	// Outbox depth and this node's latency, for sizing emi.generation.*
+	public Map<String, Object> stats() {
+		long attempts = completed.sum() + retried.sum() + failed.sum();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("outboxQueued", jobRepository.countByStatus(JobStatus.QUEUED));
+		result.put("inFlight", inFlight.get());
+		result.put("running", running.get());
+		result.put("maxConcurrency", maxConcurrency);
+		result.put("maxQueued", maxQueued);
+		result.put("completed", completed.sum());
+		result.put("retried", retried.sum());
+		result.put("failed", failed.sum());
+		result.put("avgQueueWaitMs", attempts == 0 ? 0 : totalQueueWaitMs.sum() / attempts);
+		result.put("maxQueueWaitMs", maxQueueWaitMs.get());
+		result.put("avgDurationMs", attempts == 0 ? 0 : totalDurationMs.sum() / attempts);
+		result.put("maxDurationMs", maxDurationMs.get());
+		return result;
+	}
+}
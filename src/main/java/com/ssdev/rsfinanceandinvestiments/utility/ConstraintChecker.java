@@ -0,0 +1,104 @@
+package com.ssdev.rsfinanceandinvestiments.utility;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Checks the jakarta.validation constraints declared on a bean's fields
+ * (NotNull, NotBlank, Size, Pattern, Min, Max, DecimalMin, DecimalMax) and
+ * returns their messages. Only the API jar is on the classpath, not a
+ * validation provider, so @Valid does not evaluate them on its own.
+ */
+public final class ConstraintChecker {
+
+	private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+	private ConstraintChecker() {
+	}
+
+	public static List<String> violations(Object bean) {
+		List<String> violations = new ArrayList<>();
+		for (Class<?> type = bean.getClass(); type != Object.class; type = type.getSuperclass()) {
+			for (Field field : type.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				field.setAccessible(true);
+				Object value;
+				try {
+					value = field.get(bean);
+				} catch (IllegalAccessException e) {
+					throw new RuntimeException("Cannot read field " + field.getName(), e);
+				}
+				check(field, value, violations);
+			}
+		}
+		return violations;
+	}
+
+	private static void check(Field field, Object value, List<String> violations) {
+		NotNull notNull = field.getAnnotation(NotNull.class);
+		if (notNull != null && value == null) {
+			violations.add(notNull.message());
+		}
+		NotBlank notBlank = field.getAnnotation(NotBlank.class);
+		if (notBlank != null && (value == null || value.toString().isBlank())) {
+			violations.add(notBlank.message());
+		}
+		// Like the spec, the remaining constraints treat null as valid
+		if (value == null) {
+			return;
+		}
+
+		Size size = field.getAnnotation(Size.class);
+		if (size != null && value instanceof CharSequence text
+				&& (text.length() < size.min() || text.length() > size.max())) {
+			violations.add(size.message());
+		}
+		jakarta.validation.constraints.Pattern pattern = field
+				.getAnnotation(jakarta.validation.constraints.Pattern.class);
+		if (pattern != null && value instanceof CharSequence text
+				&& !PATTERNS.computeIfAbsent(pattern.regexp(), Pattern::compile).matcher(text).matches()) {
+			violations.add(pattern.message());
+		}
+		if (value instanceof Number number) {
+			BigDecimal decimal = new BigDecimal(number.toString());
+			Min min = field.getAnnotation(Min.class);
+			if (min != null && decimal.compareTo(BigDecimal.valueOf(min.value())) < 0) {
+				violations.add(min.message());
+			}
+			Max max = field.getAnnotation(Max.class);
+			if (max != null && decimal.compareTo(BigDecimal.valueOf(max.value())) > 0) {
+				violations.add(max.message());
+			}
+			DecimalMin decimalMin = field.getAnnotation(DecimalMin.class);
+			if (decimalMin != null) {
+				int comparison = decimal.compareTo(new BigDecimal(decimalMin.value()));
+				if (comparison < 0 || (comparison == 0 && !decimalMin.inclusive())) {
+					violations.add(decimalMin.message());
+				}
+			}
+			DecimalMax decimalMax = field.getAnnotation(DecimalMax.class);
+			if (decimalMax != null) {
+				int comparison = decimal.compareTo(new BigDecimal(decimalMax.value()));
+				if (comparison > 0 || (comparison == 0 && !decimalMax.inclusive())) {
+					violations.add(decimalMax.message());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package com.ssdev.rsfinanceandinvestiments.utility;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel over an abstract tick clock. Level k has 64 slots
+ * of 64^k ticks each; a timer sits in the lowest level whose slot still shares
+ * all higher digits with the current tick, and drops a level whenever the
+ * clock reaches its slot. Scheduling is O(1) and advancing jumps straight to
+ * the next occupied slot (one bitmap per level), so an idle wheel costs
+ * nothing however far the clock moves. Timers cannot be cancelled; callers
+ * ignore stale ones when they fire. Not thread-safe.
+ */
+public class HierarchicalTimerWheel<T> {
+
+	private static final int BITS = 6;
+	private static final int SLOTS = 1 << BITS;
+	private static final int LEVELS = (Long.SIZE + BITS - 1) / BITS;
+
+	private record Timer<T>(long deadline, T item) {
+	}
+
+	private final List<List<Timer<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+	private final long[] occupied = new long[LEVELS];
+	// Scheduled at or before the current tick, handed out by the next advance
+	private final List<Timer<T>> due = new ArrayList<>();
+	private long current;
+	private int size;
+
+	public HierarchicalTimerWheel(long startTick) {
+		if (startTick < 0) {
+			throw new IllegalArgumentException("Ticks start at zero: " + startTick);
+		}
+		for (int i = 0; i < LEVELS * SLOTS; i++) {
+			slots.add(null);
+		}
+		current = startTick;
+	}
+
+	public long currentTick() {
+		return current;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void schedule(long deadline, T item) {
+		size++;
+		if (deadline <= current) {
+			due.add(new Timer<>(deadline, item));
+		} else {
+			place(new Timer<>(deadline, item));
+		}
+	}
+
+	/**
+	 * Moves the clock to tick (never backwards) and returns every item due by
+	 * then, in deadline order
+	 */
+	public List<T> advanceTo(long tick) {
+		due.sort(Comparator.comparingLong(Timer::deadline));
+		List<T> fired = new ArrayList<>(due.stream().map(Timer::item).toList());
+		due.clear();
+		for (long next = nextSlotStart(); next <= tick; next = nextSlotStart()) {
+			current = next;
+			// Highest level first: its timers land in the lower slots starting now
+			for (int level = LEVELS - 1; level >= 0; level--) {
+				if ((current & lowMask(level)) != 0) {
+					continue;
+				}
+				int slot = digit(current, level);
+				if ((occupied[level] & (1L << slot)) == 0) {
+					continue;
+				}
+				List<Timer<T>> timers = slots.set(level * SLOTS + slot, null);
+				occupied[level] &= ~(1L << slot);
+				for (Timer<T> timer : timers) {
+					if (timer.deadline() <= current) {
+						fired.add(timer.item());
+					} else {
+						place(timer);
+					}
+				}
+			}
+		}
+		current = Math.max(current, tick);
+		size -= fired.size();
+		return fired;
+	}
+
+	private void place(Timer<T> timer) {
+		// Highest digit where deadline and now differ; the deadline's digit there is the larger
+		int level = (63 - Long.numberOfLeadingZeros(timer.deadline() ^ current)) / BITS;
+		int slot = digit(timer.deadline(), level);
+		List<Timer<T>> timers = slots.get(level * SLOTS + slot);
+		if (timers == null) {
+			timers = new ArrayList<>();
+			slots.set(level * SLOTS + slot, timers);
+			occupied[level] |= 1L << slot;
+		}
+		timers.add(timer);
+	}
+
+	// Start of the earliest occupied slot, Long.MAX_VALUE when the wheel is empty
+	private long nextSlotStart() {
+		long next = Long.MAX_VALUE;
+		for (int level = 0; level < LEVELS; level++) {
+			if (occupied[level] != 0) {
+				long higher = level + 1 < LEVELS ? current & ~lowMask(level + 1) : 0;
+				next = Math.min(next, higher | (long) Long.numberOfTrailingZeros(occupied[level]) << (level * BITS));
+			}
+		}
+		return next;
+	}
+
+	private static int digit(long tick, int level) {
+		return (int) (tick >>> (level * BITS)) & (SLOTS - 1);
+	}
+
+	private static long lowMask(int level) {
+		return (1L << (level * BITS)) - 1;
+	}
+}
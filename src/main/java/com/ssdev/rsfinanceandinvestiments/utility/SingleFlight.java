@@ -0,0 +1,74 @@
+package com.ssdev.rsfinanceandinvestiments.utility;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the
+ * supplier on its own thread, callers arriving while it runs wait for that
+ * result instead of starting another computation.
+ */
+public class SingleFlight<K, V> {
+
+	private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+	private final AtomicLong executions = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+	private final AtomicLong timeouts = new AtomicLong();
+
+	/**
+	 * Result for key, waiting at most timeout when another caller is already
+	 * computing it (the leader itself is never cut short)
+	 */
+	public V execute(K key, Supplier<V> supplier, Duration timeout) {
+		CompletableFuture<V> mine = new CompletableFuture<>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+
+		if (running == null) {
+			executions.incrementAndGet();
+			try {
+				V value = supplier.get();
+				mine.complete(value);
+				return value;
+			} catch (RuntimeException | Error e) {
+				mine.completeExceptionally(e);
+				throw e;
+			} finally {
+				inFlight.remove(key, mine);
+			}
+		}
+
+		coalesced.incrementAndGet();
+		try {
+			return running.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			timeouts.incrementAndGet();
+			throw new RuntimeException("Timed out after " + timeout.toMillis() + " ms waiting for in-flight " + key);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			throw new RuntimeException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted waiting for in-flight " + key, e);
+		}
+	}
+
+	public Map<String, Object> stats() {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("inFlight", inFlight.size());
+		result.put("executions", executions.get());
+		result.put("coalescedCallers", coalesced.get());
+		result.put("timeouts", timeouts.get());
+		return result;
+	}
+}
@@ -0,0 +1,63 @@
+package com.ssdev.rsfinanceandinvestiments.utility;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A fixed set of locks shared by hashing the key: callers with keys on
+ * different stripes never wait for each other, callers with the same key
+ * always do. Memory stays constant however many keys there are.
+ */
+public class StripedLocks<K> {
+
+	private final ReentrantLock[] locks;
+
+	public StripedLocks(int stripes) {
+		if (stripes < 1) {
+			throw new IllegalArgumentException("At least one stripe is required: " + stripes);
+		}
+		locks = new ReentrantLock[stripes];
+		for (int i = 0; i < stripes; i++) {
+			locks[i] = new ReentrantLock();
+		}
+	}
+
+	public int stripes() {
+		return locks.length;
+	}
+
+	public int stripeOf(K key) {
+		return stripeOf(key, locks.length);
+	}
+
+	/**
+	 * The stripe key falls on out of stripes, for callers that partition work
+	 * the same way without holding locks
+	 */
+	public static int stripeOf(Object key, int stripes) {
+		int hash = key.hashCode();
+		// Mix the high bits in, String hashes of similar keys differ mostly in the low ones
+		return Math.floorMod(hash ^ (hash >>> 16), stripes);
+	}
+
+	/**
+	 * Runs action holding the stripes of every key. Stripes are taken in
+	 * ascending order, so two callers with overlapping keys cannot deadlock.
+	 */
+	public <T> T withLocks(Collection<K> keys, Supplier<T> action) {
+		int[] stripes = keys.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+		int held = 0;
+		try {
+			for (int stripe : stripes) {
+				locks[stripe].lock();
+				held++;
+			}
+			return action.get();
+		} finally {
+			for (int i = held - 1; i >= 0; i--) {
+				locks[stripes[i]].unlock();
+			}
+		}
+	}
+}
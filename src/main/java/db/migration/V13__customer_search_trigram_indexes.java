@@ -0,0 +1,34 @@
+package db.migration;
+
+import java.sql.Statement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Trigram GIN indexes for GET /api/customers/search, which matches with
+ * LIKE '%term%' on lower-cased name, place and referBy and on the phone
+ * digits. Java rather than SQL because pg_trgm exists only on PostgreSQL; on
+ * other databases (H2 in tests) the search runs without them.
+ */
+public class V13__customer_search_trigram_indexes extends BaseJavaMigration {
+
+	@Override
+	public void migrate(Context context) throws Exception {
+		if (!"PostgreSQL".equals(context.getConnection().getMetaData().getDatabaseProductName())) {
+			return;
+		}
+		try (Statement statement = context.getConnection().createStatement()) {
+			statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+			// Same expressions as CustomerSearchService's WHERE clause, or the planner cannot use them
+			statement.execute("CREATE INDEX IF NOT EXISTS idx_customers_name_trgm "
+					+ "ON customers USING gin (lower(name) gin_trgm_ops)");
+			statement.execute("CREATE INDEX IF NOT EXISTS idx_customers_phone_trgm "
+					+ "ON customers USING gin (phone_number gin_trgm_ops)");
+			statement.execute("CREATE INDEX IF NOT EXISTS idx_customers_place_trgm "
+					+ "ON customers USING gin (lower(place) gin_trgm_ops)");
+			statement.execute("CREATE INDEX IF NOT EXISTS idx_customers_refer_by_trgm "
+					+ "ON customers USING gin (lower(refer_by) gin_trgm_ops)");
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package db.migration;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Sequence for Customer ids (allocationSize 50, pooled optimizer), started
+ * past the existing identity values. Java rather than SQL because the start
+ * value depends on the data and PostgreSQL and H2 have no common setval.
+ */
+public class V6__customers_sequence extends BaseJavaMigration {
+
+	private static final int INCREMENT = 50;
+
+	@Override
+	public void migrate(Context context) throws Exception {
+		try (Statement statement = context.getConnection().createStatement()) {
+			long maxId;
+			try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM customers")) {
+				rs.next();
+				maxId = rs.getLong(1);
+			}
+			// The pooled optimizer hands out (value - INCREMENT + 1) .. value, so the first block starts at maxId + 1
+			statement.execute("CREATE SEQUENCE IF NOT EXISTS customers_seq START WITH " + (maxId + INCREMENT)
+					+ " INCREMENT BY " + INCREMENT);
+		}
+	}
+}
@@ -0,0 +1,8 @@
+-- Last day (and overdue threshold) each incremental sweep evaluated; the next run only touches what crossed since
+CREATE TABLE IF NOT EXISTS sweep_watermarks (
+    sweep_name varchar(50) NOT NULL,
+    evaluated_on date NOT NULL,
+    overdue_threshold date NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    PRIMARY KEY (sweep_name)
+);
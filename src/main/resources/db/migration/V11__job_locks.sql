@@ -0,0 +1,8 @@
+-- One row per scheduled job: the node holding it runs the job, until it releases it or locked_until passes
+CREATE TABLE IF NOT EXISTS job_locks (
+    job_name varchar(100) NOT NULL,
+    locked_by varchar(255) NOT NULL,
+    locked_at timestamp(6) NOT NULL,
+    locked_until timestamp(6) NOT NULL,
+    PRIMARY KEY (job_name)
+);
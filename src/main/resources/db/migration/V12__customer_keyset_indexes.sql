@@ -0,0 +1,6 @@
+-- Keyset pages of GET /api/customers: every page is one range scan on (sort column, id)
+CREATE INDEX IF NOT EXISTS idx_customers_name_id ON customers (name, id);
+
+-- Status filter with id order, and the created_at range filter
+CREATE INDEX IF NOT EXISTS idx_customers_status_id ON customers (status, id);
+CREATE INDEX IF NOT EXISTS idx_customers_created_at_id ON customers (created_at, id);
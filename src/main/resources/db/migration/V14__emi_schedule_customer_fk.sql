@@ -0,0 +1,13 @@
+-- emi_schedules pointed at its customer only through customer_phone; customer_id is the real key.
+-- Rows whose phone matches no customer stay NULL (already orphaned).
+ALTER TABLE emi_schedules ADD COLUMN IF NOT EXISTS customer_id bigint;
+
+UPDATE emi_schedules SET customer_id = (
+    SELECT c.id FROM customers c WHERE c.phone_number = emi_schedules.customer_phone)
+WHERE customer_id IS NULL;
+
+ALTER TABLE emi_schedules ADD CONSTRAINT fk_emi_schedules_customer
+    FOREIGN KEY (customer_id) REFERENCES customers (id) ON DELETE CASCADE;
+
+-- Customer-with-schedules fetches: JOIN ON customer_id ORDER BY month_number
+CREATE INDEX IF NOT EXISTS idx_emi_schedules_customer_month ON emi_schedules (customer_id, month_number);
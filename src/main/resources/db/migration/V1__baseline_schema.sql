@@ -0,0 +1,47 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update.
+-- IF NOT EXISTS so databases created that way are adopted as-is.
+
+CREATE TABLE IF NOT EXISTS customers (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    name varchar(100) NOT NULL,
+    place varchar(100) NOT NULL,
+    refer_by varchar(100),
+    job varchar(100) NOT NULL,
+    phone_number varchar(15) NOT NULL UNIQUE,
+    amount_taken numeric(12,2) NOT NULL,
+    interest numeric(5,2) NOT NULL,
+    tenure integer NOT NULL,
+    monthly_emi numeric(12,2) NOT NULL,
+    total_amount numeric(12,2) NOT NULL,
+    start_date date NOT NULL,
+    end_date date NOT NULL,
+    status varchar(20) NOT NULL CHECK (status IN ('ACTIVE','INACTIVE','COMPLETED','DEFAULTED')),
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS emi_schedules (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    customer_phone varchar(255),
+    month_number integer,
+    month_name varchar(255),
+    emi_amount numeric(38,2),
+    due_date date,
+    status varchar(255) CHECK (status IN ('PENDING','PAID','OVERDUE')),
+    paid_date date,
+    paid_amount numeric(38,2),
+    pending_amount numeric(38,2),
+    cumulative_pending numeric(38,2),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    email varchar(255) UNIQUE,
+    name varchar(255),
+    password varchar(255),
+    PRIMARY KEY (id)
+);
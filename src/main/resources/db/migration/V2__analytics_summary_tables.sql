@@ -0,0 +1,29 @@
+-- Summary tables maintained by PortfolioRollupService and CustomerBalanceService
+
+CREATE TABLE IF NOT EXISTS monthly_portfolio_rollup (
+    rollup_year integer NOT NULL,
+    rollup_month integer NOT NULL,
+    total_customers integer NOT NULL,
+    paid_customers integer NOT NULL,
+    pending_customers integer NOT NULL,
+    waitlist_customers integer NOT NULL,
+    expected_amount numeric(14,2) NOT NULL,
+    collected_amount numeric(14,2) NOT NULL,
+    unpaid_amount numeric(14,2) NOT NULL,
+    pending_unpaid_amount numeric(14,2) NOT NULL,
+    waitlist_unpaid_amount numeric(14,2) NOT NULL,
+    as_of date NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (rollup_year, rollup_month)
+);
+
+CREATE TABLE IF NOT EXISTS customer_balances (
+    customer_phone varchar(255) NOT NULL,
+    outstanding_amount numeric(14,2) NOT NULL,
+    outstanding_pending_amount numeric(14,2) NOT NULL,
+    unpaid_emi_count integer NOT NULL,
+    oldest_unpaid_due_date date,
+    last_paid_date date,
+    updated_at timestamp(6),
+    PRIMARY KEY (customer_phone)
+);
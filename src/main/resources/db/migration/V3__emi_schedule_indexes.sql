@@ -0,0 +1,8 @@
+-- Per-customer schedule reads: WHERE customer_phone = ? / IN (...) ORDER BY month_number
+CREATE INDEX IF NOT EXISTS idx_emi_schedules_phone_month ON emi_schedules (customer_phone, month_number);
+
+-- Analytics periods and waitlist/overdue checks: due_date ranges, filtered by status
+CREATE INDEX IF NOT EXISTS idx_emi_schedules_due_date_status ON emi_schedules (due_date, status);
+
+-- Collections between dates (dashboard) and recent payers
+CREATE INDEX IF NOT EXISTS idx_emi_schedules_paid_date ON emi_schedules (paid_date);
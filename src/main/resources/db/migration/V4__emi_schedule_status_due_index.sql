@@ -0,0 +1,2 @@
+-- Overdue sweep: WHERE status = ? AND due_date < / >= threshold only touches rows that change
+CREATE INDEX IF NOT EXISTS idx_emi_schedules_status_due_date ON emi_schedules (status, due_date);
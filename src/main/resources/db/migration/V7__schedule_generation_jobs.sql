@@ -0,0 +1,16 @@
+-- One row per asynchronous EMI schedule generation, polled via GET /api/schedule-jobs/{id}
+CREATE TABLE IF NOT EXISTS schedule_generation_jobs (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    customer_phone varchar(15) NOT NULL,
+    status varchar(20) NOT NULL CHECK (status IN ('QUEUED','RUNNING','COMPLETED','FAILED')),
+    months_generated integer,
+    error_message varchar(1000),
+    queued_at timestamp(6) NOT NULL,
+    started_at timestamp(6),
+    finished_at timestamp(6),
+    queue_wait_ms bigint,
+    duration_ms bigint,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_schedule_generation_jobs_phone ON schedule_generation_jobs (customer_phone, queued_at);
@@ -0,0 +1,9 @@
+-- schedule_generation_jobs doubles as the outbox: a QUEUED row is written in the same transaction as the customer,
+-- and workers on any node claim due rows (FOR UPDATE SKIP LOCKED) under a lease
+ALTER TABLE schedule_generation_jobs ADD COLUMN IF NOT EXISTS attempts integer NOT NULL DEFAULT 0;
+ALTER TABLE schedule_generation_jobs ADD COLUMN IF NOT EXISTS next_attempt_at timestamp(6);
+ALTER TABLE schedule_generation_jobs ADD COLUMN IF NOT EXISTS lease_until timestamp(6);
+
+UPDATE schedule_generation_jobs SET next_attempt_at = queued_at WHERE next_attempt_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_schedule_generation_jobs_claim ON schedule_generation_jobs (status, next_attempt_at);
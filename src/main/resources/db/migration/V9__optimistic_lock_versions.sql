@@ -0,0 +1,3 @@
+-- @Version columns for optimistic locking of concurrent payment postings and customer edits
+ALTER TABLE emi_schedules ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE customers ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
@@ -3,7 +3,8 @@ package com.ssdev.rsfinanceandinvestiments;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// The full application against its PostgreSQL database, not the H2 dialect the other tests use
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect")
 class RsfinanceandinvestimentsApplicationTests {
 
 	@Test
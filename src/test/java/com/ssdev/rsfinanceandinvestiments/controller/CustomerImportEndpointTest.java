@@ -0,0 +1,127 @@
+package com.ssdev.rsfinanceandinvestiments.controller;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.ssdev.rsfinanceandinvestiments.config.AsyncConfig;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.service.AnalyticsAggregationEngine;
+import com.ssdev.rsfinanceandinvestiments.service.AnalyticsCache;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerBalanceService;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerImportService;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerLocks;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerSearchService;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerService;
+import com.ssdev.rsfinanceandinvestiments.service.EMIScheduleService;
+import com.ssdev.rsfinanceandinvestiments.service.OverdueTransitionTimer;
+import com.ssdev.rsfinanceandinvestiments.service.PaymentAllocationEngine;
+import com.ssdev.rsfinanceandinvestiments.service.PaymentPostingService;
+import com.ssdev.rsfinanceandinvestiments.service.PortfolioRollupService;
+import com.ssdev.rsfinanceandinvestiments.service.RecentPayerAssembler;
+import com.ssdev.rsfinanceandinvestiments.service.ScheduleGenerationJobService;
+
+/**
+ * POST /api/customers/import with the bytes a spreadsheet export produces.
+ */
+@DataJpaTest(properties = "customers.import.chunk-size=2")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ CustomerController.class, CustomerService.class, EMIScheduleService.class, RecentPayerAssembler.class,
+		CustomerImportService.class, ScheduleGenerationJobService.class, PaymentPostingService.class,
+		CustomerSearchService.class, PortfolioRollupService.class, AnalyticsAggregationEngine.class,
+		CustomerBalanceService.class, AnalyticsCache.class, AsyncConfig.class, PaymentAllocationEngine.class,
+		OverdueTransitionTimer.class, CustomerLocks.class })
+class CustomerImportEndpointTest {
+
+	private static final String HEADER = "name,place,referBy,job,phoneNumber,amountTaken,interest,tenure,monthlyEmi,"
+			+ "totalAmount,startDate,endDate";
+
+	@Autowired
+	private CustomerController customerController;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.standaloneSetup(customerController).build();
+	}
+
+	@Test
+	void csvWithByteOrderMarkAndQuotedCommaIsImported() throws Exception {
+		// Excel's "CSV UTF-8" starts with a byte order mark and ends lines with CRLF
+		String csv = "\uFEFF" + HEADER + "\r\n"
+				+ "\"Kumar, Ravi\",Chennai,,Driver,9876543210,50000,12,12,4442.44,53309.28,2025-01-05,2025-12-05\r\n";
+
+		mockMvc.perform(post("/api/customers/import").contentType("text/csv")
+				.content(csv.getBytes(StandardCharsets.UTF_8)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalRows").value(1))
+				.andExpect(jsonPath("$.importedCount").value(1))
+				.andExpect(jsonPath("$.failedCount").value(0));
+
+		assertEquals("Kumar, Ravi", customerRepository.findByPhoneNumber("9876543210").orElseThrow().getName());
+		assertEquals(12, emiScheduleRepository.findByCustomerPhoneOrderByMonth("9876543210").size());
+	}
+
+	@Test
+	void unreadableUploadIsABadRequest() throws Exception {
+		// Latin-1 "é" is not valid UTF-8
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		body.writeBytes((HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+		body.writeBytes("José,Chennai,,Driver,9876543211,50000,12,12,4442.44,53309.28,2025-01-05,2025-12-05\n"
+				.getBytes(StandardCharsets.ISO_8859_1));
+
+		mockMvc.perform(post("/api/customers/import").contentType("text/csv").content(body.toByteArray()))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error", startsWith("Failed to read import")));
+
+		assertEquals(0, customerRepository.count());
+	}
+
+	@Test
+	void readFailureAfterCommittedChunksKeepsTheReport() throws Exception {
+		// Well past the reader's 8 KB buffer, so chunks commit before the bad byte is decoded
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		body.writeBytes((HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+		for (int i = 0; i < 200; i++) {
+			body.writeBytes(("Ravi,Chennai,,Driver," + (9876500000L + i)
+					+ ",50000,12,12,4442.44,53309.28,2025-01-05,2025-12-05\n").getBytes(StandardCharsets.UTF_8));
+		}
+		body.writeBytes("José,Chennai,,Driver,9876543211,50000,12,12,4442.44,53309.28,2025-01-05,2025-12-05\n"
+				.getBytes(StandardCharsets.ISO_8859_1));
+
+		String response = mockMvc.perform(post("/api/customers/import").contentType("text/csv")
+				.content(body.toByteArray()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.error", startsWith("Failed to read import after")))
+				.andExpect(jsonPath("$.failedCount").value(0))
+				.andReturn().getResponse().getContentAsString();
+
+		long imported = customerRepository.count();
+		assertTrue(imported > 0 && imported < 200, "imported " + imported);
+		assertTrue(response.contains("\"importedCount\":" + imported), response);
+	}
+}
@@ -0,0 +1,200 @@
+package com.ssdev.rsfinanceandinvestiments.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.ssdev.rsfinanceandinvestiments.Enums.MonthCategory;
+import com.ssdev.rsfinanceandinvestiments.config.AsyncConfig;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerPageRequest;
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.service.AnalyticsAggregationEngine;
+import com.ssdev.rsfinanceandinvestiments.service.AnalyticsCache;
+import com.ssdev.rsfinanceandinvestiments.service.AnalyticsRequestCoalescer;
+import com.ssdev.rsfinanceandinvestiments.service.AnalyticsService;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerBalanceService;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerImportService;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerLocks;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerSearchService;
+import com.ssdev.rsfinanceandinvestiments.service.CustomerService;
+import com.ssdev.rsfinanceandinvestiments.service.EMIScheduleService;
+import com.ssdev.rsfinanceandinvestiments.service.OverdueTransitionTimer;
+import com.ssdev.rsfinanceandinvestiments.service.PaymentAllocationEngine;
+import com.ssdev.rsfinanceandinvestiments.service.PaymentPostingService;
+import com.ssdev.rsfinanceandinvestiments.service.PortfolioRollupService;
+import com.ssdev.rsfinanceandinvestiments.service.RecentPayerAssembler;
+import com.ssdev.rsfinanceandinvestiments.service.ScheduleGenerationJobService;
+import com.ssdev.rsfinanceandinvestiments.service.StreamingScheduleAggregator;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Report endpoints must issue the same number of SQL statements for 3 customers
+ * as for 30 (no per-customer lookups).
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		// Every call must reach the database
+		"analytics.cache.ttl=0s" })
+@Import({ AnalyticsController.class, CustomerController.class, AnalyticsService.class, CustomerService.class,
+		EMIScheduleService.class, AnalyticsAggregationEngine.class, PortfolioRollupService.class,
+		CustomerBalanceService.class, RecentPayerAssembler.class, AnalyticsCache.class,
+		AnalyticsRequestCoalescer.class, StreamingScheduleAggregator.class, CustomerImportService.class,
+		ScheduleGenerationJobService.class, AsyncConfig.class, PaymentPostingService.class,
+		PaymentAllocationEngine.class, CustomerLocks.class, OverdueTransitionTimer.class,
+		CustomerSearchService.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class ReportQueryCountTest {
+
+	private static final LocalDate TODAY = LocalDate.now();
+	private static final MonthCategory CURRENT_MONTH = MonthCategory
+			.valueOf(TODAY.getMonth().name());
+
+	@Autowired
+	private AnalyticsController analyticsController;
+
+	@Autowired
+	private CustomerController customerController;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void enableStatistics() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void allCustomersForMonth() {
+		assertConstantStatements(
+				() -> analyticsController.getAllCustomers(CURRENT_MONTH, TODAY.getYear()).size());
+	}
+
+	@Test
+	void allCustomersForEveryMonth() {
+		assertConstantStatements(() -> analyticsController.getAllCustomers(MonthCategory.ALL, TODAY.getYear()).size());
+	}
+
+	@Test
+	void paidCustomersForMonth() {
+		assertConstantStatements(
+				() -> analyticsController.getPaidCustomers(CURRENT_MONTH, TODAY.getYear()).size());
+	}
+
+	@Test
+	void pendingCustomersForMonth() {
+		assertConstantStatements(false,
+				() -> analyticsController.getPendingCustomers(CURRENT_MONTH, TODAY.getYear()).size());
+	}
+
+	@Test
+	void waitlistCustomers() {
+		assertConstantStatements(() -> analyticsController.getWaitlistCustomers().size());
+	}
+
+	@Test
+	void recentPayersReport() {
+		assertConstantStatements(() -> customerController.getAllCustomers().getBody().size());
+	}
+
+	@Test
+	void customerListPage() {
+		assertConstantStatements(
+				() -> customerController.findAllCustomers(new CustomerPageRequest()).getBody().getCustomers().size());
+	}
+
+	private void assertConstantStatements(Supplier<Integer> endpoint) {
+		assertConstantStatements(true, endpoint);
+	}
+
+	private void assertConstantStatements(boolean waitlisted, Supplier<Integer> endpoint) {
+		long small = statementsFor(3, waitlisted, endpoint);
+		long large = statementsFor(30, waitlisted, endpoint);
+
+		assertEquals(small, large, "statement count must not grow with the number of customers");
+		assertTrue(large <= 6, "expected a handful of statements, got " + large);
+	}
+
+	private long statementsFor(int customers, boolean waitlisted, Supplier<Integer> endpoint) {
+		emiScheduleRepository.deleteAllInBatch();
+		customerRepository.deleteAllInBatch();
+		seed(customers, waitlisted);
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics.clear();
+		int rows = endpoint.get();
+		assertEquals(customers, rows, "every seeded customer should be in the report");
+		return statistics.getPrepareStatementCount();
+	}
+
+	// Every customer paid this month; waitlisted ones also have the three months before it unpaid,
+	// the others only last month
+	private void seed(int customers, boolean waitlisted) {
+		for (int c = 0; c < customers; c++) {
+			String phone = String.valueOf(9100000000L + c);
+			BigDecimal emi = BigDecimal.valueOf(1000);
+			LocalDate start = TODAY.withDayOfMonth(1).minusMonths(3);
+
+			Customer customer = new Customer();
+			customer.setName("Customer " + c);
+			customer.setPlace("Chennai");
+			customer.setJob("Driver");
+			customer.setPhoneNumber(phone);
+			customer.setAmountTaken(BigDecimal.valueOf(10000));
+			customer.setInterest(BigDecimal.valueOf(12));
+			customer.setTenure(6);
+			customer.setMonthlyEmi(emi);
+			customer.setTotalAmount(BigDecimal.valueOf(6000));
+			customer.setStartDate(start);
+			customer.setEndDate(start.plusMonths(6));
+			customerRepository.save(customer);
+
+			for (int month = 1; month <= 6; month++) {
+				EMISchedule schedule = new EMISchedule();
+				schedule.setCustomerPhone(phone);
+				schedule.setCustomer(customer);
+				schedule.setMonthNumber(month);
+				schedule.setMonthName("M" + month);
+				schedule.setEmiAmount(emi);
+				schedule.setDueDate(start.plusMonths(month - 1));
+				boolean paid = month == 4 || (!waitlisted && month < 3);
+				schedule.setStatus(paid ? PaymentStatus.PAID : PaymentStatus.PENDING);
+				schedule.setPaidDate(paid ? TODAY.withDayOfMonth(1) : null);
+				schedule.setPaidAmount(paid ? emi : BigDecimal.ZERO);
+				schedule.setPendingAmount(paid ? BigDecimal.ZERO : emi);
+				schedule.setCumulativePending(BigDecimal.ZERO);
+				emiScheduleRepository.save(schedule);
+			}
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.ssdev.rsfinanceandinvestiments.Enums.MonthCategory;
+import com.ssdev.rsfinanceandinvestiments.dto.MonthlyAnalyticsResponse;
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+
+class AnalyticsAggregationEngineTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 8, 14);
+
+	private final AnalyticsAggregationEngine engine = new AnalyticsAggregationEngine();
+
+	@Test
+	void singlePassMatchesLegacyAnalyticsForEveryMonth() {
+		List<EMISchedule> allSchedules = syntheticPortfolio(new Random(42), 400);
+
+		for (int month = 1; month <= 12; month++) {
+			int monthNumber = month;
+			List<EMISchedule> filtered = allSchedules.stream()
+					.filter(s -> s.getDueDate().getMonthValue() == monthNumber && s.getDueDate().getYear() == 2025)
+					.toList();
+			MonthCategory category = MonthCategory.values()[MonthCategory.JANUARY.ordinal() + month - 1];
+
+			assertEquals(legacyMonthlyAnalytics(filtered, allSchedules, category, 2025, 17),
+					singlePass(filtered, allSchedules, category, 2025, 17), "month " + category);
+		}
+	}
+
+	@Test
+	void singlePassMatchesLegacyAnalyticsForRangesAndAll() {
+		List<EMISchedule> allSchedules = syntheticPortfolio(new Random(7), 400);
+		List<EMISchedule> lastThree = allSchedules.stream()
+				.filter(s -> !s.getDueDate().isBefore(TODAY.minusMonths(3)))
+				.toList();
+
+		assertEquals(legacyMonthlyAnalytics(allSchedules, allSchedules, MonthCategory.ALL, 2025, 0),
+				singlePass(allSchedules, allSchedules, MonthCategory.ALL, 2025, 0));
+		assertEquals(legacyMonthlyAnalytics(lastThree, allSchedules, MonthCategory.LAST_3_MONTHS, 2025, 250),
+				singlePass(lastThree, allSchedules, MonthCategory.LAST_3_MONTHS, 2025, 250));
+	}
+
+	@Test
+	void emptyPortfolioProducesZeroes() {
+		assertEquals(legacyMonthlyAnalytics(List.of(), List.of(), MonthCategory.MARCH, 2025, 0),
+				singlePass(List.of(), List.of(), MonthCategory.MARCH, 2025, 0));
+	}
+
+	private MonthlyAnalyticsResponse singlePass(List<EMISchedule> filtered, List<EMISchedule> all,
+			MonthCategory category, int year, int prevCustomerCount) {
+		PortfolioAggregation aggregation = engine.newAggregation(TODAY);
+		filtered.forEach(aggregation::acceptPeriod);
+		all.forEach(aggregation::acceptAll);
+		return engine.toMonthlyResponse(aggregation.totals(), category, year, prevCustomerCount);
+	}
+
+	static List<EMISchedule> syntheticPortfolio(Random random, int customers) {
+		List<EMISchedule> schedules = new ArrayList<>();
+		long id = 1;
+		for (int c = 0; c < customers; c++) {
+			String phone = String.valueOf(9000000000L + c);
+			LocalDate start = TODAY.minusMonths(random.nextInt(30)).withDayOfMonth(1 + random.nextInt(28));
+			int tenure = 1 + random.nextInt(36);
+			BigDecimal emi = BigDecimal.valueOf(500 + random.nextInt(20000), 2).multiply(BigDecimal.TEN);
+			double payRate = random.nextDouble();
+
+			for (int month = 1; month <= tenure; month++) {
+				LocalDate dueDate = start.plusMonths(month - 1);
+				boolean paid = !dueDate.isAfter(TODAY) && random.nextDouble() < payRate;
+
+				EMISchedule schedule = new EMISchedule();
+				schedule.setId(id++);
+				schedule.setCustomerPhone(phone);
+				schedule.setMonthNumber(month);
+				schedule.setEmiAmount(emi);
+				schedule.setDueDate(dueDate);
+				schedule.setStatus(paid ? PaymentStatus.PAID
+						: EMIScheduleService.calculateEMIStatus(dueDate, PaymentStatus.PENDING, TODAY));
+				schedule.setPaidDate(paid ? dueDate : null);
+				schedule.setPaidAmount(paid ? emi : BigDecimal.ZERO);
+				schedule.setPendingAmount(paid ? BigDecimal.ZERO : emi);
+				schedules.add(schedule);
+			}
+		}
+		return schedules;
+	}
+
+	/**
+	 * The original nested-stream implementation of getMonthlyAnalytics, kept as
+	 * the reference the single pass must agree with.
+	 */
+	private static MonthlyAnalyticsResponse legacyMonthlyAnalytics(List<EMISchedule> filteredSchedules,
+			List<EMISchedule> allSchedules, MonthCategory monthCategory, int year, int prevCustomerCount) {
+		LocalDate today = TODAY;
+
+		Set<String> customerPhones = filteredSchedules.stream().map(EMISchedule::getCustomerPhone)
+				.collect(Collectors.toSet());
+		int totalCustomers = customerPhones.size();
+		int paidCustomers = (int) customerPhones.stream()
+				.filter(phone -> filteredSchedules.stream()
+						.anyMatch(s -> s.getCustomerPhone().equals(phone) && s.getStatus() == PaymentStatus.PAID))
+				.count();
+
+		// findWaitlistCustomers(today): 3+ non-PAID rows due on or before today
+		Set<String> waitlistPhones = allSchedules.stream()
+				.filter(s -> s.getStatus() != PaymentStatus.PAID && !s.getDueDate().isAfter(today))
+				.collect(Collectors.groupingBy(EMISchedule::getCustomerPhone, Collectors.counting()))
+				.entrySet().stream().filter(e -> e.getValue() >= 3).map(e -> e.getKey())
+				.collect(Collectors.toSet());
+
+		Set<String> allOverdueCustomers = allSchedules.stream()
+				.filter(s -> s.getStatus() != PaymentStatus.PAID && s.getDueDate().isBefore(today))
+				.map(EMISchedule::getCustomerPhone).filter(customerPhones::contains).collect(Collectors.toSet());
+		Set<String> waitlistCustomersInPeriod = allOverdueCustomers.stream().filter(waitlistPhones::contains)
+				.collect(Collectors.toSet());
+		Set<String> pendingCustomersInPeriod = customerPhones.stream()
+				.filter(phone -> allSchedules.stream()
+						.anyMatch(s -> s.getCustomerPhone().equals(phone) && s.getStatus() != PaymentStatus.PAID
+								&& (s.getDueDate().isBefore(today) || s.getDueDate().isEqual(today)))
+						&& !waitlistCustomersInPeriod.contains(phone))
+				.collect(Collectors.toSet());
+
+		int pendingCustomers = pendingCustomersInPeriod.size();
+		int waitlistCustomersCount = waitlistCustomersInPeriod.size();
+
+		BigDecimal totalPaidAmount = filteredSchedules.stream().filter(s -> s.getStatus() == PaymentStatus.PAID)
+				.map(EMISchedule::getPaidAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+		BigDecimal totalUnpaidAmount = allSchedules.stream()
+				.filter(s -> s.getStatus() != PaymentStatus.PAID
+						&& (s.getDueDate().isBefore(today) || s.getDueDate().isEqual(today)))
+				.filter(s -> customerPhones.contains(s.getCustomerPhone())).map(EMISchedule::getEmiAmount)
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		BigDecimal totalCollected = totalPaidAmount;
+		BigDecimal totalExpected = filteredSchedules.stream().map(EMISchedule::getEmiAmount)
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+
+		double customerGrowthPercentage = prevCustomerCount == 0 ? 100.0
+				: ((totalCustomers - prevCustomerCount) * 100.0) / prevCustomerCount;
+		double paidPercentage = totalCustomers == 0 ? 0.0 : (paidCustomers * 100.0) / totalCustomers;
+		double pendingPercentage = totalCustomers == 0 ? 0.0 : (pendingCustomers * 100.0) / totalCustomers;
+		double waitlistPercentage = totalCustomers == 0 ? 0.0 : (waitlistCustomersCount * 100.0) / totalCustomers;
+		double collectionPercentage = totalExpected.compareTo(BigDecimal.ZERO) == 0 ? 0.0
+				: totalCollected.multiply(BigDecimal.valueOf(100)).divide(totalExpected, 2, RoundingMode.HALF_UP)
+						.doubleValue();
+
+		MonthlyAnalyticsResponse response = new MonthlyAnalyticsResponse();
+		response.setMonth(monthCategory.name());
+		response.setYear(year);
+		response.setTotalCustomers(totalCustomers);
+		response.setPaidCustomers(paidCustomers);
+		response.setPendingCustomers(pendingCustomers);
+		response.setWaitlistCustomers(waitlistCustomersCount);
+		response.setTotalCollectedAmount(totalCollected);
+		response.setTotalPaidAmount(totalPaidAmount);
+		response.setTotalUnpaidAmount(totalUnpaidAmount);
+		response.setCustomerGrowthPercentage(customerGrowthPercentage);
+		response.setPaidPercentage(paidPercentage);
+		response.setPendingPercentage(pendingPercentage);
+		response.setWaitlistPercentage(waitlistPercentage);
+		response.setCollectionPercentage(collectionPercentage);
+		response.setCustomerGrowthDirection(customerGrowthPercentage >= 0 ? "+" : "-");
+		response.setPaidDirection(paidPercentage >= 50 ? "+" : "-");
+		response.setPendingDirection(pendingPercentage < 50 ? "+" : "-");
+		response.setWaitlistDirection(waitlistPercentage < 20 ? "+" : "-");
+		response.setCollectionDirection(collectionPercentage >= 80 ? "+" : "-");
+		return response;
+	}
+}
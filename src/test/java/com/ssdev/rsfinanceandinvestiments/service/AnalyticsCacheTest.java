@@ -0,0 +1,67 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.ssdev.rsfinanceandinvestiments.Enums.MonthCategory;
+import com.ssdev.rsfinanceandinvestiments.service.AnalyticsCacheKey.View;
+
+class AnalyticsCacheTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 8, 14);
+
+	private final AnalyticsCache cache = new AnalyticsCache(100, Duration.ofMinutes(10));
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void repeatedRequestsAreServedFromCache() {
+		AnalyticsCacheKey key = new AnalyticsCacheKey(View.PAID, MonthCategory.MARCH, 2025, TODAY);
+
+		cache.get(key, this::load);
+		cache.get(key, this::load);
+
+		assertEquals(1, loads.get());
+		assertEquals(1L, cache.stats().get("hitCount"));
+		assertEquals(1L, cache.stats().get("missCount"));
+	}
+
+	@Test
+	void invalidationOnlyDropsOverlappingPeriods() {
+		AnalyticsCacheKey march = new AnalyticsCacheKey(View.MONTHLY, MonthCategory.MARCH, 2025, TODAY);
+		AnalyticsCacheKey april = new AnalyticsCacheKey(View.MONTHLY, MonthCategory.APRIL, 2025, TODAY);
+		AnalyticsCacheKey all = new AnalyticsCacheKey(View.ALL, MonthCategory.ALL, 2025, TODAY);
+		AnalyticsCacheKey lastThree = new AnalyticsCacheKey(View.PENDING, MonthCategory.LAST_3_MONTHS, 2025, TODAY);
+		List.of(march, april, all, lastThree).forEach(key -> cache.get(key, this::load));
+
+		cache.invalidateMonths(List.of(YearMonth.of(2025, 3)));
+
+		List.of(march, april, all, lastThree).forEach(key -> cache.get(key, this::load));
+		// March and ALL reload; April and the window starting in May stay cached
+		assertEquals(4 + 2, loads.get());
+	}
+
+	@Test
+	void resultComputedAcrossAnInvalidationIsNotStored() {
+		AnalyticsCacheKey key = new AnalyticsCacheKey(View.ALL, MonthCategory.MARCH, 2025, TODAY);
+
+		cache.get(key, () -> {
+			cache.invalidateMonths(List.of(YearMonth.of(2025, 3)));
+			return load();
+		});
+		cache.get(key, this::load);
+
+		assertEquals(2, loads.get());
+	}
+
+	private String load() {
+		return "result-" + loads.incrementAndGet();
+	}
+}
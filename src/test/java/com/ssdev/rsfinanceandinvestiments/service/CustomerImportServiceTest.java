@@ -0,0 +1,116 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.ssdev.rsfinanceandinvestiments.Enums.CustomerImportFormat;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerImportResponse;
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+
+@DataJpaTest(properties = {
+		// Several chunks even for a small file
+		"customers.import.chunk-size=2" })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ CustomerImportService.class, EMIScheduleService.class, PaymentAllocationEngine.class,
+		PortfolioRollupService.class, CustomerBalanceService.class, AnalyticsCache.class,
+		AnalyticsAggregationEngine.class, OverdueTransitionTimer.class })
+class CustomerImportServiceTest {
+
+	private static final String HEADER = "name,place,referBy,job,phoneNumber,amountTaken,interest,tenure,monthlyEmi,"
+			+ "totalAmount,startDate,endDate";
+
+	@Autowired
+	private CustomerImportService customerImportService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Test
+	void csvImportsValidRowsAndReportsTheRest() {
+		String csv = String.join("\n", HEADER,
+				"\"Kumar, Ravi\",Chennai,,Driver,9876543210,50000,12,12,4442.44,53309.28,2025-01-05,2025-12-05",
+				"Anu,Madurai,Ravi,Teacher,9876543211,20000,10,6,3431.22,20587.32,2025-03-01,2025-08-01",
+				"Bad Phone,Salem,,Clerk,12345,20000,10,6,3431.22,20587.32,2025-03-01,2025-08-01",
+				"Repeat,Chennai,,Driver,9876543210,50000,12,12,4442.44,53309.28,2025-01-05,2025-12-05",
+				"",
+				"Short,Salem,,Clerk,9876543212,500,10,,3431.22,20587.32,2025-03-01,2025-08-01",
+				"Mahesh,Trichy,,Farmer,9876543213,30000,8,4,7575.00,30300.00,2025-05-10,2025-08-10");
+
+		CustomerImportResponse report = customerImportService.importCustomers(stream(csv), CustomerImportFormat.CSV);
+
+		assertEquals(6, report.getTotalRows());
+		assertEquals(3, report.getImportedCount());
+		assertEquals(3, report.getFailedCount());
+		assertEquals(List.of(4L, 5L, 7L), report.getErrors().stream().map(e -> e.getLineNumber()).toList());
+		assertEquals(List.of("Invalid Indian phone number format"), report.getErrors().get(0).getMessages());
+		assertEquals(List.of("Duplicate phone number in file"), report.getErrors().get(1).getMessages());
+		assertTrue(report.getErrors().get(2).getMessages().containsAll(
+				List.of("Amount taken must be at least ₹1000", "Tenure is required")));
+
+		assertEquals("Kumar, Ravi", customerRepository.findByPhoneNumber("9876543210").orElseThrow().getName());
+		assertEquals(12, emiScheduleRepository.findByCustomerPhoneOrderByMonth("9876543210").size());
+		assertEquals(6, emiScheduleRepository.findByCustomerPhoneOrderByMonth("9876543211").size());
+		assertEquals(4, emiScheduleRepository.findByCustomerPhoneOrderByMonth("9876543213").size());
+	}
+
+	@Test
+	void ndjsonSkipsExistingCustomersAndUnreadableLines() {
+		customerRepository.save(existingCustomer("9876543220"));
+		String ndjson = String.join("\n",
+				"{\"name\":\"Old\",\"place\":\"Chennai\",\"job\":\"Driver\",\"phoneNumber\":\"9876543220\","
+						+ "\"amountTaken\":50000,\"interest\":12,\"tenure\":12,\"monthlyEmi\":4442.44,"
+						+ "\"totalAmount\":53309.28,\"startDate\":\"2025-01-05\",\"endDate\":\"2025-12-05\"}",
+				"{\"name\":\"New\",\"place\":\"Chennai\",\"job\":\"Driver\",\"phoneNumber\":\"9876543221\","
+						+ "\"amountTaken\":50000,\"interest\":12,\"tenure\":3,\"monthlyEmi\":17000,"
+						+ "\"totalAmount\":51000,\"startDate\":\"2025-01-05\",\"endDate\":\"2025-03-05\"}",
+				"{not json");
+
+		CustomerImportResponse report = customerImportService.importCustomers(stream(ndjson),
+				CustomerImportFormat.NDJSON);
+
+		assertEquals(3, report.getTotalRows());
+		assertEquals(1, report.getImportedCount());
+		assertEquals(List.of("Customer already exists"), report.getErrors().get(0).getMessages());
+		assertEquals(3L, report.getErrors().get(1).getLineNumber());
+		assertEquals(3, emiScheduleRepository.findByCustomerPhoneOrderByMonth("9876543221").size());
+		assertTrue(emiScheduleRepository.findByCustomerPhoneOrderByMonth("9876543220").isEmpty());
+	}
+
+	private static ByteArrayInputStream stream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Customer existingCustomer(String phone) {
+		Customer customer = new Customer();
+		customer.setName("Existing");
+		customer.setPlace("Chennai");
+		customer.setJob("Driver");
+		customer.setPhoneNumber(phone);
+		customer.setAmountTaken(BigDecimal.valueOf(50000));
+		customer.setInterest(BigDecimal.valueOf(12));
+		customer.setTenure(12);
+		customer.setMonthlyEmi(BigDecimal.valueOf(4442.44));
+		customer.setTotalAmount(BigDecimal.valueOf(53309.28));
+		customer.setStartDate(LocalDate.of(2025, 1, 5));
+		customer.setEndDate(LocalDate.of(2025, 12, 5));
+		return customer;
+	}
+}
@@ -0,0 +1,92 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.ssdev.rsfinanceandinvestiments.Enums.MonthCategory;
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * The DATABASE aggregation mode must fold to the same totals as the in-memory
+ * pass over every row.
+ */
+@DataJpaTest
+class CustomerScheduleAggregateTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 8, 14);
+
+	private final AnalyticsAggregationEngine engine = new AnalyticsAggregationEngine();
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void aggregateByCustomerMatchesTheInMemoryPassForEveryCategory() {
+		List<EMISchedule> allSchedules = AnalyticsAggregationEngineTest.syntheticPortfolio(new Random(3), 150);
+		allSchedules.forEach(schedule -> schedule.setId(null));
+		emiScheduleRepository.saveAll(allSchedules);
+		entityManager.flush();
+		entityManager.clear();
+
+		for (int year : new int[] { 2024, 2025 }) {
+			for (MonthCategory category : MonthCategory.values()) {
+				AnalyticsPeriod period = AnalyticsPeriod.of(category, year, TODAY);
+				String label = category + " " + year;
+
+				PortfolioAggregation database = engine.newAggregation(TODAY);
+				emiScheduleRepository.aggregateByCustomer(period.start(), period.end(), TODAY)
+						.forEach(database::acceptCustomerAggregate);
+
+				PortfolioAggregation inMemory = engine.newAggregation(TODAY);
+				allSchedules.stream()
+						.filter(s -> !s.getDueDate().isBefore(period.start()) && s.getDueDate().isBefore(period.end()))
+						.forEach(inMemory::acceptPeriod);
+				allSchedules.forEach(inMemory::acceptAll);
+
+				assertTotals(inMemory.totals(), database.totals(), label);
+			}
+		}
+
+		// The fixture must exercise every bucket, or the comparison proves little
+		PortfolioAggregation all = engine.newAggregation(TODAY);
+		emiScheduleRepository.aggregateByCustomer(AnalyticsPeriod.UNBOUNDED_START, AnalyticsPeriod.UNBOUNDED_END, TODAY)
+				.forEach(all::acceptCustomerAggregate);
+		PortfolioTotals totals = all.totals();
+		assertEquals(150, totals.totalCustomers());
+		assertTrue(totals.paidCustomers() > 0);
+		assertTrue(totals.pendingCustomers() > 0);
+		assertTrue(totals.waitlistCustomers() > 0);
+	}
+
+	private static void assertTotals(PortfolioTotals expected, PortfolioTotals actual, String label) {
+		assertEquals(expected.totalCustomers(), actual.totalCustomers(), label + " totalCustomers");
+		assertEquals(expected.paidCustomers(), actual.paidCustomers(), label + " paidCustomers");
+		assertEquals(expected.pendingCustomers(), actual.pendingCustomers(), label + " pendingCustomers");
+		assertEquals(expected.waitlistCustomers(), actual.waitlistCustomers(), label + " waitlistCustomers");
+		assertAmount(expected.totalExpected(), actual.totalExpected(), label + " totalExpected");
+		assertAmount(expected.totalPaidAmount(), actual.totalPaidAmount(), label + " totalPaidAmount");
+		assertAmount(expected.totalUnpaidAmount(), actual.totalUnpaidAmount(), label + " totalUnpaidAmount");
+		assertAmount(expected.pendingUnpaidAmount(), actual.pendingUnpaidAmount(), label + " pendingUnpaidAmount");
+		assertAmount(expected.waitlistUnpaidAmount(), actual.waitlistUnpaidAmount(), label + " waitlistUnpaidAmount");
+	}
+
+	// The database sums come back at the column scale
+	private static void assertAmount(BigDecimal expected, BigDecimal actual, String label) {
+		assertEquals(0, expected.compareTo(actual), label + ": expected " + expected + " but was " + actual);
+	}
+}
@@ -0,0 +1,171 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import com.ssdev.rsfinanceandinvestiments.config.AsyncConfig;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerUpdateRequest;
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ CustomerService.class, EMIScheduleService.class, PortfolioRollupService.class, AnalyticsCache.class, ScheduleGenerationJobService.class, AsyncConfig.class,
+		CustomerLocks.class, OverdueTransitionTimer.class, StreamingScheduleAggregator.class,
+		AnalyticsAggregationEngine.class, PaymentAllocationEngine.class })
+class CustomerScheduleLinkTest {
+
+	@Autowired
+	private CustomerService customerService;
+
+	@Autowired
+	private EMIScheduleService emiScheduleService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private RecordingBalances balances;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	// The balance refresh is PostgreSQL SQL; record which phones it is asked for instead
+	@TestConfiguration
+	static class RecordingBalances {
+		final List<String> refreshed = new CopyOnWriteArrayList<>();
+		final List<String> removed = new CopyOnWriteArrayList<>();
+
+		@Bean
+		CustomerBalanceService customerBalanceService() {
+			return new CustomerBalanceService() {
+				@Override
+				public void refresh(String customerPhone) {
+					refreshed.add(customerPhone);
+				}
+
+				@Override
+				public void remove(String customerPhone) {
+					removed.add(customerPhone);
+				}
+			};
+		}
+	}
+
+	@BeforeEach
+	void forgetBalanceCalls() {
+		balances.refreshed.clear();
+		balances.removed.clear();
+	}
+
+	@Test
+	void customerIsFetchedWithItsSchedulesInOneStatement() {
+		Customer customer = customerWithSchedule("9100000001", 12);
+		customerWithSchedule("9100000002", 6);
+		entityManager.clear();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		Customer loaded = customerRepository.findWithSchedulesByPhoneNumber("9100000001").orElseThrow();
+		List<EMISchedule> schedules = loaded.getEmiSchedules();
+
+		assertEquals(12, schedules.size());
+		for (int month = 1; month <= 12; month++) {
+			assertEquals(month, schedules.get(month - 1).getMonthNumber());
+			assertEquals(customer.getId(), schedules.get(month - 1).getCustomer().getId());
+		}
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		List<Customer> all = customerRepository.findAllWithSchedules();
+		assertEquals(List.of("9100000001", "9100000002"), all.stream().map(Customer::getPhoneNumber).toList());
+		assertEquals(6, all.get(1).getEmiSchedules().size());
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void deletingACustomerCascadesToItsSchedules() {
+		customerWithSchedule("9100000001", 12);
+		customerWithSchedule("9100000002", 6);
+
+		customerService.deleteCustomer("9100000001");
+		entityManager.clear();
+
+		assertTrue(emiScheduleRepository.findByCustomerPhoneOrderByMonth("9100000001").isEmpty());
+		assertEquals(List.of("9100000001"), balances.removed);
+		assertEquals(6, emiScheduleRepository.findByCustomerPhoneOrderByMonth("9100000002").size());
+	}
+
+	@Test
+	void changingThePhoneNumberTakesTheSchedulesAlong() {
+		Customer customer = customerWithSchedule("9100000001", 12);
+		balances.refreshed.clear();
+
+		customerService.updateCustomer("9100000001", updateRequest(customer, "9100000009"));
+		entityManager.clear();
+
+		assertTrue(emiScheduleRepository.findByCustomerPhoneOrderByMonth("9100000001").isEmpty());
+		List<EMISchedule> moved = emiScheduleRepository.findByCustomerPhoneOrderByMonth("9100000009");
+		assertEquals(12, moved.size());
+		moved.forEach(schedule -> assertEquals(customer.getId(), schedule.getCustomer().getId()));
+		assertEquals(List.of("9100000001"), balances.removed);
+		assertEquals(List.of("9100000009"), balances.refreshed);
+	}
+
+	private Customer customerWithSchedule(String phone, int tenure) {
+		LocalDate start = LocalDate.now().withDayOfMonth(1).minusMonths(2);
+		Customer customer = new Customer();
+		customer.setName("Customer " + phone);
+		customer.setPlace("Chennai");
+		customer.setJob("Driver");
+		customer.setPhoneNumber(phone);
+		customer.setAmountTaken(BigDecimal.valueOf(12000));
+		customer.setInterest(BigDecimal.valueOf(12));
+		customer.setTenure(tenure);
+		customer.setMonthlyEmi(BigDecimal.valueOf(1100));
+		customer.setTotalAmount(BigDecimal.valueOf(1100L * tenure));
+		customer.setStartDate(start);
+		customer.setEndDate(start.plusMonths(tenure));
+		customer = customerRepository.save(customer);
+		emiScheduleService.generateEMIScheduleForCustomer(customer);
+		return customer;
+	}
+
+	private static CustomerUpdateRequest updateRequest(Customer customer, String phone) {
+		CustomerUpdateRequest request = new CustomerUpdateRequest();
+		request.setName(customer.getName());
+		request.setPlace(customer.getPlace());
+		request.setJob(customer.getJob());
+		request.setPhoneNumber(phone);
+		request.setAmountTaken(customer.getAmountTaken());
+		request.setInterest(customer.getInterest());
+		request.setTenure(BigDecimal.valueOf(customer.getTenure()));
+		request.setStartDate(customer.getStartDate().toString());
+		request.setEndDate(customer.getEndDate().toString());
+		return request;
+	}
+}
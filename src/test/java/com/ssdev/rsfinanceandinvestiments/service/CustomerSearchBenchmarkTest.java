@@ -0,0 +1,125 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Search over 200k synthetic customers. Slow to seed, so only run on request:
+ * mvn test -Dtest=CustomerSearchBenchmarkTest -Dbenchmarks=true.
+ *
+ * This runs on H2, where V13's trigram indexes do not exist and every search
+ * is a table scan (p50 about 120 ms, p95 about 140 ms). It checks that ranked
+ * search works at this size and gives a scan baseline; it does not measure
+ * the indexed PostgreSQL path, so the few-milliseconds goal is not verified
+ * here.
+ */
+@DataJpaTest
+@Import(CustomerSearchService.class)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class CustomerSearchBenchmarkTest {
+
+	private static final int CUSTOMERS = 200_000;
+	private static final int SEARCHES = 500;
+
+	private static final String[] FIRST_NAMES = { "Ravi", "Kumar", "Senthil", "Priya", "Arun", "Lakshmi", "Murugan",
+			"Karthik", "Divya", "Suresh", "Meena", "Ganesh", "Anitha", "Vignesh", "Saravanan", "Kavitha" };
+	private static final String[] LAST_NAMES = { "Raj", "Kannan", "Pandian", "Selvam", "Natarajan", "Subramani",
+			"Krishnan", "Velu", "Moorthy", "Rajan" };
+	private static final String[] PLACES = { "Chennai", "Madurai", "Coimbatore", "Salem", "Trichy", "Erode",
+			"Tirunelveli", "Vellore", "Thanjavur", "Karur", "Namakkal", "Dindigul" };
+
+	@Autowired
+	private CustomerSearchService customerSearchService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private static final Logger log = LoggerFactory.getLogger(CustomerSearchBenchmarkTest.class);
+
+	@Test
+	void searchOver200kCustomers() {
+		Random random = new Random(24);
+		long seedStart = System.currentTimeMillis();
+		seed(random);
+		log.info("📦 Seeded {} customers in {} ms", CUSTOMERS, System.currentTimeMillis() - seedStart);
+
+		// Warm up the query plan and caches before measuring
+		for (int i = 0; i < 20; i++) {
+			customerSearchService.search(term(random), 0, 20);
+		}
+
+		long[] latencies = new long[SEARCHES];
+		int empty = 0;
+		for (int i = 0; i < SEARCHES; i++) {
+			String term = term(random);
+			long start = System.nanoTime();
+			if (customerSearchService.search(term, 0, 20).getCustomers().isEmpty()) {
+				empty++;
+			}
+			latencies[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(latencies);
+		log.info("🔍 {} searches over {} customers: p50 {} ms, p95 {} ms, max {} ms ({} without matches)", SEARCHES,
+				CUSTOMERS, millis(latencies[SEARCHES / 2]), millis(latencies[SEARCHES * 95 / 100]),
+				millis(latencies[SEARCHES - 1]), empty);
+		assertFalse(customerSearchService.search("kumar", 0, 20).getCustomers().isEmpty());
+	}
+
+	// Name fragments, places and phone digits, the way operators type them
+	private static String term(Random random) {
+		return switch (random.nextInt(3)) {
+		case 0 -> {
+			String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)].toLowerCase();
+			yield name.substring(0, 3 + random.nextInt(name.length() - 2));
+		}
+		case 1 -> PLACES[random.nextInt(PLACES.length)].substring(0, 4);
+		default -> String.valueOf(10_000 + random.nextInt(90_000));
+		};
+	}
+
+	private void seed(Random random) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> batch = new ArrayList<>();
+		for (int i = 1; i <= CUSTOMERS; i++) {
+			LocalDate start = LocalDate.of(2023, 1, 1).plusDays(random.nextInt(900));
+			batch.add(new Object[] { (long) i,
+					FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+					PLACES[random.nextInt(PLACES.length)],
+					random.nextInt(3) == 0 ? FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] : null,
+					String.valueOf(9_000_000_000L + i * 7919L % 1_000_000_000L), Date.valueOf(start),
+					Date.valueOf(start.plusMonths(12)), now });
+			if (batch.size() == 5_000) {
+				insert(batch);
+				batch.clear();
+			}
+		}
+		insert(batch);
+	}
+
+	private void insert(List<Object[]> batch) {
+		jdbcTemplate.batchUpdate("INSERT INTO customers (id, name, place, refer_by, job, phone_number, amount_taken, "
+				+ "interest, tenure, monthly_emi, total_amount, start_date, end_date, status, created_at, version) "
+				+ "VALUES (?, ?, ?, ?, 'Driver', ?, 10000, 12, 12, 933.33, 11200, ?, ?, 'ACTIVE', ?, 0)", batch);
+	}
+
+	private static String millis(long nanos) {
+		return String.format("%.2f", nanos / 1_000_000.0);
+	}
+}
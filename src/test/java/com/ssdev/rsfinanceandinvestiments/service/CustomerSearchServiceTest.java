@@ -0,0 +1,106 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerSearchResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerSummary;
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
+
+@DataJpaTest
+@Import(CustomerSearchService.class)
+class CustomerSearchServiceTest {
+
+	@Autowired
+	private CustomerSearchService customerSearchService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@BeforeEach
+	void seed() {
+		customerRepository.saveAll(List.of(
+				customer("Ravi Kumar", "9876543210", "Chennai", null),
+				customer("Kumaran", "9000000002", "Madurai", null),
+				customer("KUMAR", "9000000003", "Salem", null),
+				customer("Senthil", "9000000004", "Trichy", "Kumar"),
+				customer("Arun", "9000000005", "Kumarapalayam", null),
+				customer("Priya", "9000054321", "Chennai", null),
+				customer("Anbu", "9111111111", "Erode", null)));
+	}
+
+	@Test
+	void exactThenPrefixThenSubstringThenOtherColumns() {
+		assertEquals(List.of("KUMAR", "Kumaran", "Ravi Kumar", "Arun", "Senthil"), names(search("kumar", 20)));
+	}
+
+	@Test
+	void phoneDigitsMatchAnywhereWithTheExactNumberFirst() {
+		// Both contain the digits: ties go by name
+		assertEquals(List.of("Priya", "Ravi Kumar"), names(search("54321", 20)));
+		assertEquals(List.of("Ravi Kumar"), names(search(" 98765 43210 ", 20)));
+		// Exact number outranks an exact name
+		customerRepository.save(customer("90000 54321", "9222222222", "Salem", null));
+		assertEquals(List.of("Priya", "90000 54321"), names(search("90000 54321", 20)));
+	}
+
+	@Test
+	void likeWildcardsAreMatchedLiterally() {
+		assertTrue(search("___", 20).getCustomers().isEmpty());
+		assertTrue(search("%%%", 20).getCustomers().isEmpty());
+	}
+
+	@Test
+	void resultsArePaged() {
+		CustomerSearchResponse first = search("kumar", 2);
+		assertEquals(List.of("KUMAR", "Kumaran"), names(first));
+		assertTrue(first.isHasMore());
+
+		CustomerSearchResponse last = customerSearchService.search("kumar", 2, 2);
+		assertEquals(List.of("Senthil"), names(last));
+		assertFalse(last.isHasMore());
+	}
+
+	@Test
+	void shortTermsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> search("ku", 20));
+	}
+
+	private CustomerSearchResponse search(String query, int size) {
+		return customerSearchService.search(query, 0, size);
+	}
+
+	private static List<String> names(CustomerSearchResponse response) {
+		return response.getCustomers().stream().map(CustomerSummary::getName).toList();
+	}
+
+	private static Customer customer(String name, String phone, String place, String referBy) {
+		Customer customer = new Customer();
+		customer.setName(name);
+		customer.setPlace(place);
+		customer.setReferBy(referBy);
+		customer.setJob("Driver");
+		customer.setPhoneNumber(phone);
+		customer.setAmountTaken(BigDecimal.valueOf(10000));
+		customer.setInterest(BigDecimal.valueOf(12));
+		customer.setTenure(10);
+		customer.setMonthlyEmi(BigDecimal.valueOf(1120));
+		customer.setTotalAmount(BigDecimal.valueOf(11200));
+		customer.setStartDate(LocalDate.of(2025, 1, 1));
+		customer.setEndDate(LocalDate.of(2025, 11, 1));
+		return customer;
+	}
+}
@@ -0,0 +1,121 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.ssdev.rsfinanceandinvestiments.config.AsyncConfig;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerPageRequest;
+import com.ssdev.rsfinanceandinvestiments.dto.CustomerPageResponse;
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ CustomerService.class, EMIScheduleService.class, PortfolioRollupService.class,
+		AnalyticsAggregationEngine.class, CustomerBalanceService.class, AnalyticsCache.class,
+		ScheduleGenerationJobService.class, AsyncConfig.class, PaymentAllocationEngine.class,
+		OverdueTransitionTimer.class })
+class CustomerServicePageTest {
+
+	private static final LocalDate TODAY = LocalDate.now();
+
+	@Autowired
+	private CustomerService customerService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void pagesWalkTheBookInKeysetOrder() {
+		// Name ties are broken by id; a few customers match the filters
+		for (int c = 1; c <= 30; c++) {
+			Customer customer = customer(c, c % 3 == 0 ? "Kumar" : "Customer " + c);
+			if (c % 4 == 0) {
+				customer.setStatus(Customer.CustomerStatus.DEFAULTED);
+				customer.setPlace("Madurai");
+			}
+			customerRepository.save(customer);
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		List<Long> expected = customerRepository.findAll().stream()
+				.sorted(Comparator.comparing(Customer::getName).thenComparing(Customer::getId).reversed())
+				.map(Customer::getId).toList();
+		CustomerPageRequest request = new CustomerPageRequest();
+		request.setSort("name");
+		request.setDirection("desc");
+		request.setSize(4);
+		assertEquals(expected, walk(request));
+
+		List<Long> defaulted = customerRepository.findAll().stream()
+				.filter(c -> c.getStatus() == Customer.CustomerStatus.DEFAULTED).map(Customer::getId).sorted().toList();
+		request = new CustomerPageRequest();
+		request.setStatus("defaulted");
+		request.setPlace("Madurai");
+		request.setCreatedFrom(TODAY);
+		request.setCreatedTo(TODAY);
+		request.setSize(3);
+		assertEquals(defaulted, walk(request));
+
+		CustomerPageRequest unsortable = new CustomerPageRequest();
+		unsortable.setSort("phone");
+		assertThrows(IllegalArgumentException.class, () -> customerService.findPage(unsortable));
+	}
+
+	// Follows nextAfterId / nextAfterName to the end; each page must be a single statement
+	private List<Long> walk(CustomerPageRequest request) {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		List<Long> ids = new ArrayList<>();
+		while (true) {
+			statistics.clear();
+			CustomerPageResponse page = customerService.findPage(request);
+			assertEquals(1, statistics.getPrepareStatementCount());
+			page.getCustomers().forEach(customer -> ids.add(customer.getId()));
+			if (!page.isHasMore()) {
+				return ids;
+			}
+			assertEquals(request.getSize(), page.getCustomers().size());
+			request.setAfterId(page.getNextAfterId());
+			request.setAfterName(page.getNextAfterName());
+		}
+	}
+
+	private static Customer customer(int c, String name) {
+		LocalDate start = TODAY.withDayOfMonth(1);
+		Customer customer = new Customer();
+		customer.setName(name);
+		customer.setPlace("Chennai");
+		customer.setJob("Driver");
+		customer.setPhoneNumber(String.valueOf(9100000000L + c));
+		customer.setAmountTaken(BigDecimal.valueOf(10000));
+		customer.setInterest(BigDecimal.valueOf(12));
+		customer.setTenure(6);
+		customer.setMonthlyEmi(BigDecimal.valueOf(1000));
+		customer.setTotalAmount(BigDecimal.valueOf(6000));
+		customer.setStartDate(start);
+		customer.setEndDate(start.plusMonths(6));
+		return customer;
+	}
+}
@@ -0,0 +1,140 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ssdev.rsfinanceandinvestiments.dto.EMIScheduleResponse;
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * A 360-month schedule is built in memory and written in a few batched
+ * statements.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class EMIScheduleGenerationTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 8, 14);
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final EMIScheduleService emiScheduleService = new EMIScheduleService();
+
+	@Test
+	void builtScheduleCarriesCumulativePendingAndStatuses() {
+		List<EMISchedule> schedules = emiScheduleService.buildSchedule(customer(TODAY.minusMonths(4), 12), TODAY);
+
+		assertEquals(12, schedules.size());
+		for (EMISchedule schedule : schedules) {
+			int month = schedule.getMonthNumber();
+			assertEquals(BigDecimal.valueOf(1000L * month), schedule.getCumulativePending(), "month " + month);
+			// April to June are in their third month or later; July and the due-today August are not
+			assertEquals(month <= 3 ? PaymentStatus.OVERDUE : PaymentStatus.PENDING, schedule.getStatus(),
+					"month " + month);
+		}
+	}
+
+	@Test
+	void threeHundredSixtyMonthsInsertInBatches() {
+		List<EMISchedule> schedules = emiScheduleService.buildSchedule(customer(TODAY, 360), TODAY);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		emiScheduleRepository.saveAll(schedules);
+		entityManager.flush();
+
+		// 8 sequence calls (50 ids each) and 8 insert batches, instead of one round trip per row
+		long statements = statistics.getPrepareStatementCount();
+		assertTrue(statements <= 20, "prepared statements: " + statements);
+		assertEquals(360, emiScheduleRepository.findByCustomerPhoneOrderByMonth("9000000001").size());
+	}
+
+	@Test
+	void scheduleReadIsOneSelectWithoutEntitiesOrWrites() {
+		emiScheduleRepository.saveAll(emiScheduleService.buildSchedule(customer(TODAY.minusMonths(4), 12), TODAY));
+		entityManager.flush();
+		entityManager.clear();
+		ReflectionTestUtils.setField(emiScheduleService, "emiScheduleRepository", emiScheduleRepository);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		List<EMIScheduleResponse> schedule = emiScheduleService.getEMIScheduleWithCumulative("9000000001", TODAY);
+		entityManager.flush();
+
+		assertEquals(12, schedule.size());
+		assertEquals(0, BigDecimal.valueOf(5000).compareTo(schedule.get(4).getCumulativePending()));
+		assertEquals("PENDING", schedule.get(4).getStatus());
+		assertEquals("OVERDUE", schedule.get(2).getStatus());
+		assertEquals(TODAY.toString(), schedule.get(4).getDueDate());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getEntityUpdateCount());
+
+		// A month on July is served OVERDUE before any sweep has written it
+		List<EMIScheduleResponse> nextMonth = emiScheduleService.getEMIScheduleWithCumulative("9000000001",
+				TODAY.plusMonths(1));
+		assertEquals("OVERDUE", nextMonth.get(3).getStatus());
+		assertEquals("PENDING", nextMonth.get(4).getStatus());
+		assertEquals(PaymentStatus.PENDING, emiScheduleRepository.findByCustomerPhoneOrderByMonth("9000000001").get(3)
+				.getStatus());
+	}
+
+	@Test
+	void paymentRecalculatesOnlyFromTheChangedMonth() {
+		Long firstId = emiScheduleRepository
+				.saveAll(emiScheduleService.buildSchedule(customer(TODAY.minusMonths(4), 360), TODAY)).get(0).getId();
+		entityManager.flush();
+		entityManager.clear();
+		ReflectionTestUtils.setField(emiScheduleService, "emiScheduleRepository", emiScheduleRepository);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		// Pay month 358 in advance
+		EMISchedule month358 = emiScheduleRepository.findById(firstId + 357).orElseThrow();
+		emiScheduleService.applyPayment(month358, PaymentStatus.PAID, TODAY.toString(), null, TODAY);
+		entityManager.flush();
+
+		// The paid month and the two after it; the other 357 rows are untouched
+		assertEquals(3, statistics.getEntityUpdateCount());
+		assertTrue(statistics.getPrepareStatementCount() <= 3, "statements " + statistics.getPrepareStatementCount());
+
+		entityManager.clear();
+		List<EMISchedule> schedules = emiScheduleRepository.findByCustomerPhoneOrderByMonth("9000000001");
+		assertEquals(PaymentStatus.PAID, schedules.get(357).getStatus());
+		assertEquals(0, BigDecimal.valueOf(357_000).compareTo(schedules.get(357).getCumulativePending()));
+		assertEquals(0, BigDecimal.valueOf(359_000).compareTo(schedules.get(359).getCumulativePending()));
+		assertEquals(0, BigDecimal.valueOf(357_000).compareTo(schedules.get(356).getCumulativePending()));
+	}
+
+	private static Customer customer(LocalDate startDate, int tenure) {
+		Customer customer = new Customer();
+		customer.setPhoneNumber("9000000001");
+		customer.setStartDate(startDate);
+		customer.setTenure(tenure);
+		customer.setMonthlyEmi(BigDecimal.valueOf(1000));
+		return customer;
+	}
+}
@@ -0,0 +1,142 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.entity.JobLock;
+import com.ssdev.rsfinanceandinvestiments.repository.JobLockRepository;
+
+/**
+ * Each JobLockService instance stands in for one node of the cluster.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JobLockServiceTest {
+
+	private static final String JOB = "test-job";
+	private static final Duration AT_MOST = Duration.ofMinutes(10);
+
+	@Autowired
+	private JobLockRepository jobLockRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+	@AfterEach
+	void cleanUp() {
+		executor.shutdownNow();
+		jobLockRepository.deleteAll();
+	}
+
+	@Test
+	void secondNodeIsSkippedWhileTheFirstRuns() throws Exception {
+		JobLockService first = node();
+		JobLockService second = node();
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch finish = new CountDownLatch(1);
+
+		Future<Boolean> firstRun = executor.submit(() -> first.runExclusively(JOB, AT_MOST, Duration.ZERO, () -> {
+			running.countDown();
+			await(finish);
+		}));
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+
+		AtomicInteger secondRuns = new AtomicInteger();
+		assertFalse(second.runExclusively(JOB, AT_MOST, Duration.ZERO, secondRuns::incrementAndGet));
+		assertEquals(0, secondRuns.get());
+
+		finish.countDown();
+		assertTrue(firstRun.get(5, TimeUnit.SECONDS));
+		// Released without a minimum hold
+		assertTrue(second.runExclusively(JOB, AT_MOST, Duration.ZERO, secondRuns::incrementAndGet));
+		assertEquals(1, secondRuns.get());
+	}
+
+	@Test
+	void lockIsHeldForAtLeastTheMinimumAfterTheJob() {
+		JobLockService first = node();
+		JobLockService second = node();
+
+		assertTrue(first.runExclusively(JOB, AT_MOST, Duration.ofMinutes(5), () -> {
+		}));
+
+		// A node whose schedule fires a little later does not run the same job again
+		assertFalse(second.runExclusively(JOB, AT_MOST, Duration.ZERO, () -> {
+		}));
+		JobLock lock = jobLockRepository.findById(JOB).orElseThrow();
+		assertEquals(first.getOwner(), lock.getLockedBy());
+		assertTrue(lock.getLockedUntil().isAfter(LocalDateTime.now().plusMinutes(4)));
+	}
+
+	@Test
+	void expiredLockOfADeadNodeIsTakenOver() {
+		LocalDateTime crashed = LocalDateTime.now().minusHours(1);
+		jobLockRepository.save(new JobLock(JOB, "dead-node/00000000", crashed, crashed.plus(AT_MOST)));
+		JobLockService survivor = node();
+
+		AtomicInteger runs = new AtomicInteger();
+		assertTrue(survivor.runExclusively(JOB, AT_MOST, Duration.ZERO, runs::incrementAndGet));
+		assertEquals(1, runs.get());
+		assertEquals(survivor.getOwner(), jobLockRepository.findById(JOB).orElseThrow().getLockedBy());
+	}
+
+	@Test
+	void concurrentNodesRunTheJobOnce() throws Exception {
+		AtomicInteger runs = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			JobLockService node = node();
+			results.add(executor.submit(() -> {
+				start.await();
+				return node.runExclusively(JOB, AT_MOST, Duration.ofMinutes(5), runs::incrementAndGet);
+			}));
+		}
+		start.countDown();
+
+		int ran = 0;
+		for (Future<Boolean> result : results) {
+			ran += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+		}
+		assertEquals(1, ran);
+		assertEquals(1, runs.get());
+	}
+
+	private JobLockService node() {
+		JobLockService service = new JobLockService();
+		ReflectionTestUtils.setField(service, "jobLockRepository", jobLockRepository);
+		ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+		return service;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+import com.ssdev.rsfinanceandinvestiments.entity.SweepWatermark;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.SweepWatermarkRepository;
+
+/**
+ * The set-based sweep must leave every row where calculateEMIStatus would,
+ * touching only the rows whose due date the threshold crossed.
+ */
+@DataJpaTest
+class OverdueSweepTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 8, 14);
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private SweepWatermarkRepository sweepWatermarkRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void thresholdAgreesWithCalculateEMIStatus() {
+		for (LocalDate today = LocalDate.of(2024, 1, 1); today.isBefore(LocalDate.of(2025, 3, 1)); today = today
+				.plusDays(1)) {
+			LocalDate threshold = EMIScheduleService.overdueThreshold(today);
+			for (LocalDate due = today.minusMonths(6); !due.isAfter(today.plusMonths(2)); due = due.plusDays(1)) {
+				PaymentStatus expected = EMIScheduleService.calculateEMIStatus(due, PaymentStatus.PENDING, today);
+				PaymentStatus swept = due.isBefore(threshold) ? PaymentStatus.OVERDUE : PaymentStatus.PENDING;
+				assertEquals(expected, swept, "due " + due + " today " + today);
+			}
+		}
+	}
+
+	// Partitions commit on the sweep's own threads, so the data has to be committed too
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void firstSweepMatchesRowByRowRule() {
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			Random random = new Random(3);
+			List<EMISchedule> seeded = new ArrayList<>();
+			PaymentStatus[] statuses = PaymentStatus.values();
+			for (int i = 0; i < 500; i++) {
+				EMISchedule schedule = new EMISchedule();
+				schedule.setCustomerPhone(String.valueOf(9000000000L + i / 10));
+				schedule.setMonthNumber(i % 10 + 1);
+				schedule.setEmiAmount(BigDecimal.valueOf(1000));
+				schedule.setDueDate(TODAY.minusDays(200).plusDays(random.nextInt(300)));
+				// Includes stale statuses in both directions
+				schedule.setStatus(statuses[random.nextInt(statuses.length)]);
+				seeded.add(schedule);
+			}
+			Map<Long, PaymentStatus> expected = emiScheduleRepository.saveAll(seeded).stream()
+					.collect(Collectors.toMap(EMISchedule::getId,
+							s -> EMIScheduleService.calculateEMIStatus(s.getDueDate(), s.getStatus(), TODAY)));
+			long changes = seeded.stream().filter(s -> s.getStatus() != expected.get(s.getId())).count();
+
+			// No watermark yet: every due date, both directions
+			assertEquals(changes, sweepService(new ArrayList<>(), executor).updateOverdueEMIs(TODAY));
+			emiScheduleRepository.findAll()
+					.forEach(s -> assertEquals(expected.get(s.getId()), s.getStatus(), "row due " + s.getDueDate()));
+		} finally {
+			executor.shutdownNow();
+			emiScheduleRepository.deleteAll();
+			sweepWatermarkRepository.deleteAll();
+		}
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void sweepTouchesOnlyTheWindowTheThresholdCrossed() {
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			sweepIncrementally(executor);
+		} finally {
+			executor.shutdownNow();
+			emiScheduleRepository.deleteAll();
+			sweepWatermarkRepository.deleteAll();
+		}
+	}
+
+	private void sweepIncrementally(ExecutorService executor) {
+		List<LocalDate> rolledForwardTo = new ArrayList<>();
+		OverdueSweepService service = sweepService(rolledForwardTo, executor);
+		// No watermark yet: full sweep, of nothing
+		assertEquals(0, service.updateOverdueEMIs(TODAY));
+
+		// Written by the real writers: generation builds each schedule, then random months are paid
+		EMIScheduleService writer = new EMIScheduleService();
+		ReflectionTestUtils.setField(writer, "emiScheduleRepository", emiScheduleRepository);
+		Random random = new Random(20);
+		for (int c = 0; c < 50; c++) {
+			Customer customer = new Customer();
+			customer.setPhoneNumber(String.valueOf(9000000000L + c));
+			customer.setStartDate(TODAY.withDayOfMonth(1 + random.nextInt(28)).minusMonths(2 + random.nextInt(6)));
+			customer.setTenure(10);
+			customer.setMonthlyEmi(BigDecimal.valueOf(1000));
+			List<Long> ids = emiScheduleRepository.saveAll(writer.buildSchedule(customer, TODAY)).stream()
+					.map(EMISchedule::getId).toList();
+
+			List<Long> paid = ids.stream().filter(id -> random.nextInt(3) == 0).toList();
+			transactionTemplate.executeWithoutResult(tx -> paid.forEach(id -> {
+				EMISchedule row = emiScheduleRepository.findById(id).orElseThrow();
+				writer.applyPayment(row, PaymentStatus.PAID, row.getDueDate().toString(), null, TODAY);
+			}));
+		}
+		List<EMISchedule> seeded = emiScheduleRepository.findAll();
+		seeded.forEach(s -> assertEquals(EMIScheduleService.calculateEMIStatus(s.getDueDate(), s.getStatus(), TODAY),
+				s.getStatus(), "seeded row due " + s.getDueDate()));
+
+		// Same month: the threshold did not move, so nothing is touched
+		Map<Long, Long> versions = versions();
+		assertEquals(0, service.updateOverdueEMIs(TODAY.plusDays(10)));
+		assertEquals(versions, versions());
+
+		// Then month by month forward, then the clock set back
+		LocalDate previous = EMIScheduleService.overdueThreshold(TODAY);
+		for (LocalDate day : List.of(TODAY.plusMonths(1), TODAY.plusMonths(2), TODAY.plusMonths(4), TODAY)) {
+			LocalDate threshold = EMIScheduleService.overdueThreshold(day);
+			LocalDate from = previous.isBefore(threshold) ? previous : threshold;
+			LocalDate to = previous.isBefore(threshold) ? threshold : previous;
+			long changes = emiScheduleRepository.findAll().stream()
+					.filter(s -> s.getStatus() != EMIScheduleService.calculateEMIStatus(s.getDueDate(), s.getStatus(), day))
+					.count();
+			versions = versions();
+
+			assertEquals(changes, service.updateOverdueEMIs(day), "sweep on " + day);
+			assertTrue(changes > 0, "sweep on " + day);
+			for (EMISchedule s : emiScheduleRepository.findAll()) {
+				assertEquals(EMIScheduleService.calculateEMIStatus(s.getDueDate(), s.getStatus(), day), s.getStatus(),
+						"row due " + s.getDueDate() + " on " + day);
+				if (!s.getVersion().equals(versions.get(s.getId()))) {
+					assertTrue(!s.getDueDate().isBefore(from) && s.getDueDate().isBefore(to),
+							"row due " + s.getDueDate() + " outside [" + from + ", " + to + ") on " + day);
+				}
+			}
+			previous = threshold;
+		}
+
+		SweepWatermark watermark = sweepWatermarkRepository.findById(OverdueSweepService.OVERDUE_SWEEP).orElseThrow();
+		assertEquals(TODAY, watermark.getEvaluatedOn());
+		assertEquals(EMIScheduleService.overdueThreshold(TODAY), watermark.getOverdueThreshold());
+		assertEquals(List.of(TODAY, TODAY.plusDays(10), TODAY.plusMonths(1), TODAY.plusMonths(2), TODAY.plusMonths(4),
+				TODAY), rolledForwardTo);
+	}
+
+	private Map<Long, Long> versions() {
+		return emiScheduleRepository.findAll().stream()
+				.collect(Collectors.toMap(EMISchedule::getId, EMISchedule::getVersion));
+	}
+
+	@Test
+	void customersWithUnpaidEmisFallingDueAreFound() {
+		List<EMISchedule> seeded = new ArrayList<>();
+		seeded.add(emi("9000000001", TODAY.minusDays(1), PaymentStatus.PENDING));
+		seeded.add(emi("9000000002", TODAY, PaymentStatus.PENDING));
+		seeded.add(emi("9000000003", TODAY.plusDays(3), PaymentStatus.OVERDUE));
+		seeded.add(emi("9000000004", TODAY.plusDays(4), PaymentStatus.PENDING));
+		seeded.add(emi("9000000005", TODAY.plusDays(1), PaymentStatus.PAID));
+		emiScheduleRepository.saveAll(seeded);
+
+		assertEquals(List.of("9000000002", "9000000003"), emiScheduleRepository
+				.findCustomersWithUnpaidDueBetween(TODAY, TODAY.plusDays(3)).stream().sorted().toList());
+	}
+
+	private static EMISchedule emi(String phone, LocalDate dueDate, PaymentStatus status) {
+		EMISchedule schedule = new EMISchedule();
+		schedule.setCustomerPhone(phone);
+		schedule.setMonthNumber(1);
+		schedule.setEmiAmount(BigDecimal.valueOf(1000));
+		schedule.setDueDate(dueDate);
+		schedule.setStatus(status);
+		return schedule;
+	}
+
+	// The rollup's SQL is PostgreSQL-only; record the roll-forward instead of running it
+	private OverdueSweepService sweepService(List<LocalDate> rolledForwardTo, ExecutorService executor) {
+		OverdueSweepService service = new OverdueSweepService();
+		ReflectionTestUtils.setField(service, "emiScheduleRepository", emiScheduleRepository);
+		ReflectionTestUtils.setField(service, "sweepWatermarkRepository", sweepWatermarkRepository);
+		ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+		ReflectionTestUtils.setField(service, "executor", executor);
+		ReflectionTestUtils.setField(service, "partitions", 4);
+		ReflectionTestUtils.setField(service, "analyticsCache", new AnalyticsCache(10, Duration.ofMinutes(1)));
+		ReflectionTestUtils.setField(service, "portfolioRollupService", new PortfolioRollupService() {
+			@Override
+			public void rollForward(LocalDate today) {
+				rolledForwardTo.add(today);
+			}
+		});
+		return service;
+	}
+}
@@ -0,0 +1,121 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+
+@DataJpaTest
+class OverdueTransitionTimerTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 14, 10, 30);
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void transitionIsTheFirstDayCalculateEMIStatusReportsOverdue() {
+		for (LocalDate due = LocalDate.of(2024, 1, 1); due.isBefore(LocalDate.of(2026, 1, 1)); due = due.plusDays(1)) {
+			LocalDate transition = OverdueTransitionTimer.transitionOf(due).toLocalDate();
+			assertEquals(PaymentStatus.OVERDUE, EMIScheduleService.calculateEMIStatus(due, PaymentStatus.PENDING,
+					transition), "due " + due);
+			assertEquals(PaymentStatus.PENDING, EMIScheduleService.calculateEMIStatus(due, PaymentStatus.PENDING,
+					transition.minusDays(1)), "due " + due);
+		}
+	}
+
+	@Test
+	void timersMarkEmisOverdueAsTheyFallDue() {
+		Random random = new Random(22);
+		List<EMISchedule> seeded = new ArrayList<>();
+		for (int i = 0; i < 400; i++) {
+			LocalDate dueDate = NOW.toLocalDate().minusDays(120).plusDays(random.nextInt(240));
+			PaymentStatus status = random.nextInt(4) == 0 ? PaymentStatus.PAID
+					: EMIScheduleService.calculateEMIStatus(dueDate, PaymentStatus.PENDING, NOW.toLocalDate());
+			seeded.add(emi(String.valueOf(9000000000L + i / 8), i % 8 + 1, dueDate, status));
+		}
+		// Missed by every sweep so far: the first tick after loading catches it
+		EMISchedule stale = emi("9000000999", 1, NOW.toLocalDate().minusMonths(5), PaymentStatus.PENDING);
+		seeded.add(stale);
+		emiScheduleRepository.saveAll(seeded);
+		OverdueTransitionTimer timer = timer();
+		timer.load(NOW);
+
+		assertEquals(1, timer.fireDue(NOW));
+		assertEquals(0, timer.fireDue(LocalDate.of(2025, 8, 31).atTime(23, 59)));
+
+		// Paid before its timer fires: cancelled. Reopened: registered again.
+		EMISchedule paid = firstPending(LocalDate.of(2025, 7, 1));
+		paid.setStatus(PaymentStatus.PAID);
+		EMISchedule reopened = emiScheduleRepository.findAll().stream()
+				.filter(s -> s.getStatus() == PaymentStatus.PAID && s.getDueDate().getMonthValue() == 7)
+				.filter(s -> !s.getId().equals(paid.getId())).findFirst().orElseThrow();
+		reopened.setStatus(PaymentStatus.PENDING);
+		timer.track(emiScheduleRepository.saveAll(List.of(paid, reopened)));
+
+		// Each month start turns the EMIs due two months earlier, including those loaded along the way
+		for (LocalDateTime tick : List.of(LocalDate.of(2025, 9, 1).atStartOfDay(), LocalDate.of(2025, 9, 1).atTime(0, 1),
+				LocalDate.of(2025, 10, 1).atTime(0, 1), LocalDate.of(2025, 11, 1).atTime(0, 1),
+				LocalDate.of(2026, 2, 1).atTime(0, 1))) {
+			LocalDate today = tick.toLocalDate();
+			long expected = emiScheduleRepository.findAll().stream()
+					.filter(s -> s.getStatus() != EMIScheduleService.calculateEMIStatus(s.getDueDate(), s.getStatus(),
+							today))
+					.count();
+
+			assertEquals(expected, timer.fireDue(tick), "tick " + tick);
+			emiScheduleRepository.findAll()
+					.forEach(s -> assertEquals(EMIScheduleService.calculateEMIStatus(s.getDueDate(), s.getStatus(),
+							today), s.getStatus(), "row due " + s.getDueDate() + " on " + tick));
+		}
+
+		assertEquals(PaymentStatus.PAID, emiScheduleRepository.findById(paid.getId()).orElseThrow().getStatus());
+		assertEquals(PaymentStatus.OVERDUE,
+				emiScheduleRepository.findById(reopened.getId()).orElseThrow().getStatus());
+		// Everything loaded so far has fired
+		assertEquals(0, timer.registeredCount());
+	}
+
+	private EMISchedule firstPending(LocalDate dueFrom) {
+		return emiScheduleRepository.findAll().stream()
+				.filter(s -> s.getStatus() == PaymentStatus.PENDING && !s.getDueDate().isBefore(dueFrom)
+						&& s.getDueDate().isBefore(dueFrom.plusMonths(1)))
+				.findFirst().orElseThrow();
+	}
+
+	private static EMISchedule emi(String phone, int month, LocalDate dueDate, PaymentStatus status) {
+		EMISchedule schedule = new EMISchedule();
+		schedule.setCustomerPhone(phone);
+		schedule.setMonthNumber(month);
+		schedule.setEmiAmount(BigDecimal.valueOf(1000));
+		schedule.setDueDate(dueDate);
+		schedule.setStatus(status);
+		return schedule;
+	}
+
+	private OverdueTransitionTimer timer() {
+		OverdueTransitionTimer timer = new OverdueTransitionTimer();
+		ReflectionTestUtils.setField(timer, "emiScheduleRepository", emiScheduleRepository);
+		ReflectionTestUtils.setField(timer, "analyticsCache", new AnalyticsCache(10, Duration.ofMinutes(1)));
+		ReflectionTestUtils.setField(timer, "transactionTemplate", transactionTemplate);
+		return timer;
+	}
+}
@@ -0,0 +1,186 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+
+/**
+ * Properties checked over many random schedules and receipts (fixed seeds, so
+ * a failure reproduces).
+ */
+class PaymentAllocationEngineTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 8, 14);
+	private static final int TRIALS = 2_000;
+
+	private final PaymentAllocationEngine engine = new PaymentAllocationEngine();
+
+	@Test
+	void lumpSumCoveringTwoAndAHalfEmisPaysTwoAndLeavesOnePartlyPaid() {
+		List<EMISchedule> schedules = new ArrayList<>();
+		for (int month = 1; month <= 4; month++) {
+			schedules.add(emi(month, new BigDecimal("1000.00"), BigDecimal.ZERO, PaymentStatus.PENDING));
+		}
+
+		PaymentAllocation allocation = engine.allocate(schedules, new BigDecimal("2500.00"), TODAY);
+
+		assertEquals(3, allocation.lines().size());
+		assertEquals(PaymentStatus.PAID, schedules.get(0).getStatus());
+		assertEquals(PaymentStatus.PAID, schedules.get(1).getStatus());
+		assertEquals(PaymentStatus.PENDING, schedules.get(2).getStatus());
+		assertEquals(new BigDecimal("500.00"), schedules.get(2).getPendingAmount());
+		assertEquals(new BigDecimal("500.00"), schedules.get(2).getPaidAmount());
+		assertEquals(TODAY, schedules.get(2).getPaidDate());
+		assertEquals(new BigDecimal("1000.00"), schedules.get(3).getPendingAmount());
+		assertEquals(0, allocation.unallocated().signum());
+	}
+
+	@Test
+	void moneyIsConserved() {
+		Random random = new Random(18);
+		for (int trial = 0; trial < TRIALS; trial++) {
+			List<EMISchedule> schedules = randomSchedule(random);
+			BigDecimal amount = randomAmount(random, schedules);
+			BigDecimal paidBefore = sum(schedules, EMISchedule::getPaidAmount);
+			BigDecimal pendingBefore = sum(schedules, EMISchedule::getPendingAmount);
+			List<BigDecimal> rowTotalsBefore = schedules.stream()
+					.map(s -> s.getPaidAmount().add(s.getPendingAmount())).toList();
+
+			PaymentAllocation allocation = engine.allocate(schedules, amount, TODAY);
+
+			String context = "trial " + trial + ", amount " + amount;
+			assertEquals(0, amount.compareTo(allocation.allocated().add(allocation.unallocated())), context);
+			assertEquals(0, allocation.allocated().compareTo(
+					allocation.lines().stream().map(PaymentAllocation.Line::applied).reduce(BigDecimal.ZERO,
+							BigDecimal::add)), context);
+			assertEquals(0, paidBefore.add(allocation.allocated()).compareTo(sum(schedules, EMISchedule::getPaidAmount)),
+					context);
+			assertEquals(0, pendingBefore.subtract(allocation.allocated())
+					.compareTo(sum(schedules, EMISchedule::getPendingAmount)), context);
+			for (int i = 0; i < schedules.size(); i++) {
+				EMISchedule schedule = schedules.get(i);
+				assertEquals(0, rowTotalsBefore.get(i).compareTo(schedule.getPaidAmount().add(schedule.getPendingAmount())),
+						context + ", month " + schedule.getMonthNumber());
+				assertTrue(schedule.getPendingAmount().signum() >= 0, context);
+			}
+			// Anything left over means the customer now owes nothing
+			if (allocation.unallocated().signum() > 0) {
+				assertEquals(0, sum(schedules, s -> s.getStatus() == PaymentStatus.PAID ? BigDecimal.ZERO
+						: s.getPendingAmount()).signum(), context);
+			}
+		}
+	}
+
+	@Test
+	void oldestUnpaidEmisArePaidFirst() {
+		Random random = new Random(1801);
+		for (int trial = 0; trial < TRIALS; trial++) {
+			List<EMISchedule> schedules = randomSchedule(random);
+			PaymentAllocation allocation = engine.allocate(schedules, randomAmount(random, schedules), TODAY);
+
+			String context = "trial " + trial;
+			List<PaymentAllocation.Line> lines = allocation.lines();
+			for (int i = 0; i < lines.size(); i++) {
+				EMISchedule schedule = lines.get(i).schedule();
+				assertTrue(lines.get(i).applied().signum() > 0, context);
+				if (i < lines.size() - 1) {
+					// Only the last EMI touched can be left partly paid
+					assertEquals(PaymentStatus.PAID, schedule.getStatus(), context);
+				}
+				if (i > 0) {
+					assertTrue(schedule.getMonthNumber() > lines.get(i - 1).schedule().getMonthNumber(), context);
+				}
+			}
+			if (!lines.isEmpty()) {
+				int lastMonth = lines.get(lines.size() - 1).schedule().getMonthNumber();
+				// No EMI before the last one touched is still owed
+				assertTrue(schedules.stream().filter(s -> s.getMonthNumber() < lastMonth)
+						.allMatch(s -> s.getStatus() == PaymentStatus.PAID || s.getPendingAmount().signum() == 0),
+						context);
+			}
+		}
+	}
+
+	@Test
+	void twoReceiptsAllocateLikeTheirSum() {
+		Random random = new Random(1802);
+		for (int trial = 0; trial < TRIALS; trial++) {
+			long seed = random.nextLong();
+			List<EMISchedule> split = randomSchedule(new Random(seed));
+			List<EMISchedule> whole = randomSchedule(new Random(seed));
+			BigDecimal first = randomAmount(random, split);
+			BigDecimal second = randomAmount(random, split);
+
+			PaymentAllocation a = engine.allocate(split, first, TODAY);
+			PaymentAllocation b = engine.allocate(split, second, TODAY);
+			PaymentAllocation together = engine.allocate(whole, first.add(second), TODAY);
+
+			String context = "trial " + trial;
+			assertEquals(0, a.unallocated().add(b.unallocated()).compareTo(together.unallocated()), context);
+			for (int i = 0; i < split.size(); i++) {
+				assertEquals(split.get(i).getStatus(), whole.get(i).getStatus(), context);
+				assertEquals(0, split.get(i).getPendingAmount().compareTo(whole.get(i).getPendingAmount()), context);
+			}
+		}
+	}
+
+	@Test
+	void nonPositiveAmountIsRejected() {
+		List<EMISchedule> schedules = List.of(emi(1, BigDecimal.TEN, BigDecimal.ZERO, PaymentStatus.PENDING));
+		assertThrows(IllegalArgumentException.class, () -> engine.allocate(schedules, BigDecimal.ZERO, TODAY));
+		assertThrows(IllegalArgumentException.class, () -> engine.allocate(schedules, null, TODAY));
+	}
+
+	// Mix of paid, partly paid and unpaid EMIs with paisa amounts
+	private static List<EMISchedule> randomSchedule(Random random) {
+		int tenure = 1 + random.nextInt(36);
+		BigDecimal emiAmount = BigDecimal.valueOf(50_000 + random.nextInt(1_000_000), 2);
+		List<EMISchedule> schedules = new ArrayList<>();
+		for (int month = 1; month <= tenure; month++) {
+			int kind = random.nextInt(4);
+			if (kind == 0) {
+				schedules.add(emi(month, emiAmount, emiAmount, PaymentStatus.PAID));
+			} else if (kind == 1) {
+				BigDecimal paid = BigDecimal.valueOf(random.nextInt(emiAmount.unscaledValue().intValue()), 2);
+				schedules.add(emi(month, emiAmount, paid, PaymentStatus.OVERDUE));
+			} else {
+				schedules.add(emi(month, emiAmount, BigDecimal.ZERO, PaymentStatus.PENDING));
+			}
+		}
+		return schedules;
+	}
+
+	// Anything from one paisa to more than the whole outstanding balance
+	private static BigDecimal randomAmount(Random random, List<EMISchedule> schedules) {
+		long owedPaise = sum(schedules, EMISchedule::getPendingAmount).movePointRight(2).longValue();
+		return BigDecimal.valueOf(1 + (long) (random.nextDouble() * (owedPaise * 1.2 + 1)), 2);
+	}
+
+	private static EMISchedule emi(int month, BigDecimal emiAmount, BigDecimal paid, PaymentStatus status) {
+		EMISchedule schedule = new EMISchedule();
+		schedule.setCustomerPhone("9000000001");
+		schedule.setMonthNumber(month);
+		schedule.setDueDate(TODAY.minusMonths(6).plusMonths(month));
+		schedule.setEmiAmount(emiAmount);
+		schedule.setPaidAmount(paid);
+		schedule.setPendingAmount(emiAmount.subtract(paid));
+		schedule.setStatus(status);
+		return schedule;
+	}
+
+	private static BigDecimal sum(List<EMISchedule> schedules, Function<EMISchedule, BigDecimal> amount) {
+		return schedules.stream().map(amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+	}
+}
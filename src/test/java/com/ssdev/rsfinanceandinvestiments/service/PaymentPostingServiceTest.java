@@ -0,0 +1,283 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.dto.BulkPaymentEntry;
+import com.ssdev.rsfinanceandinvestiments.dto.BulkPaymentResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.PaymentAllocationResponse;
+import com.ssdev.rsfinanceandinvestiments.dto.PaymentReceipt;
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Chunks commit on their own, so the test runs outside a test transaction and
+ * cleans up after itself.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		// Several chunks even for a few customers
+		"payments.bulk.chunk-size=2",
+		"payments.optimistic-lock.retry-backoff=0ms" })
+@Import({ PaymentPostingService.class, EMIScheduleService.class, PaymentAllocationEngine.class,
+		PortfolioRollupService.class, AnalyticsCache.class, AnalyticsAggregationEngine.class, CustomerLocks.class,
+		OverdueTransitionTimer.class, PaymentPostingServiceTest.NoBalanceRefresh.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentPostingServiceTest {
+
+	private static final LocalDate TODAY = LocalDate.now();
+
+	@Autowired
+	private PaymentPostingService paymentPostingService;
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private CustomerLocks customerLocks;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	// The balance refresh is PostgreSQL SQL; the balances table is not under test here
+	@TestConfiguration
+	static class NoBalanceRefresh {
+		@Bean
+		CustomerBalanceService customerBalanceService() {
+			return new CustomerBalanceService() {
+				@Override
+				public void refresh(String customerPhone) {
+				}
+			};
+		}
+	}
+
+	@AfterEach
+	void cleanUp() {
+		emiScheduleRepository.deleteAll();
+	}
+
+	@Test
+	void postsEachCustomerOnceAndReportsEveryEntry() {
+		List<EMISchedule> first = schedule("9000000001");
+		List<EMISchedule> second = schedule("9000000002");
+
+		List<BulkPaymentEntry> entries = List.of(
+				paid(first.get(0).getId()),
+				paid(second.get(2).getId()),
+				paid(first.get(1).getId()),
+				new BulkPaymentEntry(first.get(3).getId(), "SETTLED", null, null),
+				paid(999_999L),
+				paid(first.get(0).getId()),
+				new BulkPaymentEntry(second.get(4).getId(), "PAID", "14-08-2025", null));
+
+		BulkPaymentResponse report = paymentPostingService.postPayments(entries);
+
+		assertEquals(7, report.getTotalEntries());
+		assertEquals(3, report.getPostedCount());
+		assertEquals(4, report.getFailedCount());
+		assertEquals(2, report.getCustomersRecalculated());
+		assertEquals(List.of(true, true, true, false, false, false, false),
+				report.getResults().stream().map(BulkPaymentResponse.EntryResult::isPosted).toList());
+		assertEquals("Invalid status: SETTLED", report.getResults().get(3).getMessage());
+		assertEquals("EMI Schedule not found with ID: 999999", report.getResults().get(4).getMessage());
+		assertEquals("Duplicate schedule ID in request", report.getResults().get(5).getMessage());
+		assertEquals("Invalid paid date: 14-08-2025", report.getResults().get(6).getMessage());
+
+		List<EMISchedule> firstAfter = emiScheduleRepository.findByCustomerPhoneOrderByMonth("9000000001");
+		assertEquals(PaymentStatus.PAID, firstAfter.get(0).getStatus());
+		assertEquals(PaymentStatus.PAID, firstAfter.get(1).getStatus());
+		assertEquals(0, BigDecimal.valueOf(10_000).compareTo(firstAfter.get(11).getCumulativePending()));
+		List<EMISchedule> secondAfter = emiScheduleRepository.findByCustomerPhoneOrderByMonth("9000000002");
+		assertEquals(PaymentStatus.PAID, secondAfter.get(2).getStatus());
+		assertEquals(0, BigDecimal.valueOf(11_000).compareTo(secondAfter.get(11).getCumulativePending()));
+	}
+
+	@Test
+	void statementsGrowWithCustomersNotWithPayments() {
+		List<BulkPaymentEntry> entries = new ArrayList<>();
+		for (int c = 0; c < 20; c++) {
+			List<EMISchedule> schedules = schedule("90000001" + String.format("%02d", c));
+			for (int month = 0; month < 10; month++) {
+				entries.add(paid(schedules.get(month).getId()));
+			}
+		}
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		BulkPaymentResponse report = paymentPostingService.postPayments(entries);
+
+		assertEquals(200, report.getPostedCount());
+		assertEquals(20, report.getCustomersRecalculated());
+		// Lookup, then per customer: schedule read and rollup check; updates go out in batches
+		long statements = statistics.getPrepareStatementCount();
+		assertTrue(statements < 100, "prepared statements: " + statements);
+		assertFalse(emiScheduleRepository.findByCustomerPhoneOrderByMonth("9000000119").stream()
+				.limit(10).anyMatch(s -> s.getStatus() != PaymentStatus.PAID));
+	}
+
+	@Test
+	void receiptsAreAllocatedOldestFirstPerCustomer() {
+		schedule("9000000003");
+
+		List<PaymentAllocationResponse> responses = paymentPostingService.allocateReceipts(List.of(
+				new PaymentReceipt("9000000003", BigDecimal.valueOf(2500), TODAY.toString()),
+				new PaymentReceipt("9000000003", BigDecimal.valueOf(-1), TODAY.toString()),
+				new PaymentReceipt("9000000003", BigDecimal.valueOf(9000), TODAY.toString()),
+				new PaymentReceipt("9999999999", BigDecimal.valueOf(100), TODAY.toString())));
+
+		// Two and a half EMIs: months 1 and 2 paid, month 3 half paid
+		assertEquals(List.of(1, 2, 3), months(responses.get(0)));
+		assertEquals(0, BigDecimal.valueOf(500).compareTo(responses.get(0).getInstallments().get(2).getPendingAmount()));
+		assertEquals("Payment amount must be positive", responses.get(1).getError());
+		// The rest of month 3, months 4-11, half of month 12
+		assertEquals(List.of(3, 4, 5, 6, 7, 8, 9, 10, 11, 12), months(responses.get(2)));
+		assertEquals(0, responses.get(2).getUnallocatedAmount().signum());
+		assertTrue(responses.get(3).getError().startsWith("Posting failed: No EMI schedule found"));
+
+		List<EMISchedule> after = emiScheduleRepository.findByCustomerPhoneOrderByMonth("9000000003");
+		assertTrue(after.stream().limit(11).allMatch(s -> s.getStatus() == PaymentStatus.PAID));
+		assertEquals(0, BigDecimal.valueOf(500).compareTo(after.get(11).getPendingAmount()));
+		assertEquals(0, BigDecimal.valueOf(500).compareTo(after.get(11).getPaidAmount()));
+		assertEquals(0, BigDecimal.valueOf(500).compareTo(after.get(11).getCumulativePending()));
+	}
+
+	@Test
+	void concurrentPostingsForOneCustomerLoseNoUpdates() throws Exception {
+		List<EMISchedule> busy = schedule("9000000004");
+		List<EMISchedule> other = schedule("9000000005");
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			// Every month of one customer at once, half through the PUT path, plus a second customer alongside
+			for (int month = 0; month < 12; month++) {
+				Long id = busy.get(month).getId();
+				boolean single = month % 2 == 0;
+				futures.add(executor.submit(() -> {
+					start.await();
+					if (single) {
+						paymentPostingService.updatePaymentStatus(id, "PAID", TODAY.toString(), null);
+					} else {
+						assertEquals(1, paymentPostingService.postPayments(List.of(paid(id))).getPostedCount());
+					}
+					return null;
+				}));
+			}
+			futures.add(executor.submit(() -> {
+				start.await();
+				return paymentPostingService.postPayments(other.stream().limit(4).map(s -> paid(s.getId())).toList());
+			}));
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// Each recalculation rewrites every later month; unserialised, a stale one would undo another payment
+		List<EMISchedule> after = emiScheduleRepository.findByCustomerPhoneOrderByMonth("9000000004");
+		assertTrue(after.stream().allMatch(s -> s.getStatus() == PaymentStatus.PAID), after::toString);
+		assertEquals(0, after.get(11).getCumulativePending().signum(), after::toString);
+		List<EMISchedule> otherAfter = emiScheduleRepository.findByCustomerPhoneOrderByMonth("9000000005");
+		assertEquals(4, otherAfter.stream().filter(s -> s.getStatus() == PaymentStatus.PAID).count());
+	}
+
+	@Test
+	void versionConflictFromAnotherNodeIsRetried() {
+		Long id = schedule("9000000006").get(0).getId();
+		TransactionTemplate otherNode = new TransactionTemplate(transactionManager);
+		otherNode.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		AtomicInteger attempts = new AtomicInteger();
+
+		customerLocks.inTransaction(List.of("9000000006"), () -> {
+			EMISchedule row = emiScheduleRepository.findById(id).orElseThrow();
+			if (attempts.incrementAndGet() == 1) {
+				// Another node commits a change to the row this transaction has already read
+				otherNode.executeWithoutResult(status -> emiScheduleRepository.findById(id).orElseThrow()
+						.setPaidAmount(BigDecimal.valueOf(100)));
+			}
+			row.setPaidAmount(row.getPaidAmount().add(BigDecimal.valueOf(50)));
+		});
+
+		assertEquals(2, attempts.get());
+		EMISchedule after = emiScheduleRepository.findById(id).orElseThrow();
+		assertEquals(0, BigDecimal.valueOf(150).compareTo(after.getPaidAmount()));
+		assertEquals(2L, after.getVersion());
+	}
+
+	@Test
+	void persistentConflictGivesUpAfterMaxAttempts() {
+		Long id = schedule("9000000007").get(0).getId();
+		TransactionTemplate otherNode = new TransactionTemplate(transactionManager);
+		otherNode.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		AtomicInteger attempts = new AtomicInteger();
+
+		assertThrows(OptimisticLockingFailureException.class,
+				() -> customerLocks.inTransaction(List.of("9000000007"), () -> {
+					attempts.incrementAndGet();
+					EMISchedule row = emiScheduleRepository.findById(id).orElseThrow();
+					otherNode.executeWithoutResult(status -> {
+						EMISchedule theirs = emiScheduleRepository.findById(id).orElseThrow();
+						theirs.setPaidAmount(theirs.getPaidAmount().add(BigDecimal.ONE));
+					});
+					row.setPaidAmount(BigDecimal.TEN);
+				}));
+
+		assertEquals(3, attempts.get());
+	}
+
+	private static List<Integer> months(PaymentAllocationResponse response) {
+		return response.getInstallments().stream().map(PaymentAllocationResponse.Installment::getMonthNumber).toList();
+	}
+
+	private List<EMISchedule> schedule(String phone) {
+		Customer customer = new Customer();
+		customer.setPhoneNumber(phone);
+		customer.setStartDate(TODAY.minusMonths(4));
+		customer.setTenure(12);
+		customer.setMonthlyEmi(BigDecimal.valueOf(1000));
+		return emiScheduleRepository.saveAll(new EMIScheduleService().buildSchedule(customer, TODAY));
+	}
+
+	private static BulkPaymentEntry paid(Long scheduleId) {
+		return new BulkPaymentEntry(scheduleId, "PAID", TODAY.toString(), null);
+	}
+}
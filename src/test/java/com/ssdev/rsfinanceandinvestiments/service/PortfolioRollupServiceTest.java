@@ -0,0 +1,89 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+
+class PortfolioRollupServiceTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 8, 14);
+
+	private final AnalyticsAggregationEngine engine = new AnalyticsAggregationEngine();
+
+	@Test
+	void customerContributionsAddUpToFullMonthTotals() {
+		PortfolioRollupService rollupService = rollupService();
+
+		List<EMISchedule> allSchedules = AnalyticsAggregationEngineTest.syntheticPortfolio(new Random(11), 300);
+		Map<String, List<EMISchedule>> byPhone = allSchedules.stream()
+				.collect(Collectors.groupingBy(EMISchedule::getCustomerPhone));
+
+		// Summing every customer's delta from an empty rollup must equal a full recompute
+		Map<YearMonth, PortfolioTotals> rollup = new HashMap<>();
+		byPhone.values().forEach(schedules -> rollupService.contributions(schedules, TODAY)
+				.forEach((month, delta) -> rollup.merge(month, delta, PortfolioTotals::plus)));
+
+		Map<YearMonth, PortfolioTotals> expected = fullRecompute(allSchedules, TODAY);
+		assertEquals(expected.keySet(), rollup.keySet());
+		expected.forEach((month, totals) -> assertEquals(totals, rollup.get(month), "month " + month));
+	}
+
+	@Test
+	void rollingForwardOnlyCustomersWithUnpaidEmisFallingDueMatchesAFullRecompute() {
+		PortfolioRollupService rollupService = rollupService();
+
+		List<EMISchedule> allSchedules = AnalyticsAggregationEngineTest.syntheticPortfolio(new Random(20), 300);
+		Map<String, List<EMISchedule>> byPhone = allSchedules.stream()
+				.collect(Collectors.groupingBy(EMISchedule::getCustomerPhone));
+
+		for (int days : new int[] { 1, 3, 17, 45 }) {
+			LocalDate to = TODAY.plusDays(days);
+			// Same selection as EMIScheduleRepository.findCustomersWithUnpaidDueBetween(TODAY, to)
+			List<List<EMISchedule>> affected = byPhone.values().stream()
+					.filter(schedules -> schedules.stream().anyMatch(s -> s.getStatus() != PaymentStatus.PAID
+							&& !s.getDueDate().isBefore(TODAY) && !s.getDueDate().isAfter(to)))
+					.toList();
+			assertTrue(affected.size() < byPhone.size(), days + " days: " + affected.size() + " customers");
+
+			Map<YearMonth, PortfolioTotals> rollup = fullRecompute(allSchedules, TODAY);
+			rollupService.rollForwardDelta(affected, TODAY, to)
+					.forEach((month, delta) -> rollup.merge(month, delta, PortfolioTotals::plus));
+
+			Map<YearMonth, PortfolioTotals> expected = fullRecompute(allSchedules, to);
+			assertEquals(expected.keySet(), rollup.keySet());
+			expected.forEach((month, totals) -> assertEquals(totals, rollup.get(month),
+					days + " days, month " + month));
+		}
+	}
+
+	private PortfolioRollupService rollupService() {
+		PortfolioRollupService rollupService = new PortfolioRollupService();
+		ReflectionTestUtils.setField(rollupService, "aggregationEngine", engine);
+		return rollupService;
+	}
+
+	private Map<YearMonth, PortfolioTotals> fullRecompute(List<EMISchedule> allSchedules, LocalDate today) {
+		Map<YearMonth, PortfolioTotals> totals = new HashMap<>();
+		allSchedules.stream().collect(Collectors.groupingBy(s -> YearMonth.from(s.getDueDate())))
+				.forEach((month, monthSchedules) -> {
+					PortfolioAggregation aggregation = engine.newAggregation(today);
+					monthSchedules.forEach(aggregation::acceptPeriod);
+					allSchedules.forEach(aggregation::acceptAll);
+					totals.put(month, aggregation.totals());
+				});
+		return totals;
+	}
+}
@@ -0,0 +1,209 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.config.AsyncConfig;
+import com.ssdev.rsfinanceandinvestiments.entity.Customer;
+import com.ssdev.rsfinanceandinvestiments.entity.ScheduleGenerationJob;
+import com.ssdev.rsfinanceandinvestiments.entity.ScheduleGenerationJob.JobStatus;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.ScheduleGenerationJobRepository;
+
+/**
+ * Jobs run on their own threads, so the job rows must be committed for the
+ * workers to see them.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ScheduleGenerationJobServiceTest {
+
+	@Autowired
+	private ScheduleGenerationJobRepository jobRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final ExecutorService executor = new AsyncConfig().emiScheduleExecutor();
+
+	@AfterEach
+	void cleanUp() {
+		executor.close();
+		jobRepository.deleteAll();
+		customerRepository.deleteAll();
+	}
+
+	@Test
+	void burstRunsAtMostMaxConcurrencyAtOnce() throws Exception {
+		AtomicInteger active = new AtomicInteger();
+		AtomicInteger maxActive = new AtomicInteger();
+		ScheduleGenerationJobService service = service(2, 100, 5, customer -> {
+			maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+			sleep(100);
+			active.decrementAndGet();
+			return 12;
+		});
+
+		List<Long> jobIds = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			jobIds.add(service.enqueue(customer("900000000" + i)).getId());
+		}
+		List<ScheduleGenerationJob> jobs = awaitFinished(service, jobIds);
+
+		assertTrue(maxActive.get() <= 2, "max concurrent generations: " + maxActive.get());
+		jobs.forEach(job -> {
+			assertEquals(JobStatus.COMPLETED, job.getStatus());
+			assertEquals(12, job.getMonthsGenerated());
+			assertEquals(1, job.getAttempts());
+			assertTrue(job.getDurationMs() >= 100, "duration " + job.getDurationMs());
+		});
+		// Six jobs through two slots: the last ones waited for earlier ones
+		assertTrue(jobs.stream().anyMatch(job -> job.getQueueWaitMs() >= 100));
+		assertEquals(6L, service.stats().get("completed"));
+		assertEquals(0L, service.stats().get("outboxQueued"));
+	}
+
+	@Test
+	void failingJobIsRetriedUntilMaxAttempts() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		ScheduleGenerationJobService service = service(1, 100, 3, customer -> {
+			calls.incrementAndGet();
+			throw new RuntimeException("boom");
+		});
+
+		Long jobId = service.enqueue(customer("9000000009")).getId();
+		ScheduleGenerationJob job = awaitFinished(service, List.of(jobId)).get(0);
+
+		assertEquals(JobStatus.FAILED, job.getStatus());
+		assertEquals("boom", job.getErrorMessage());
+		assertEquals(3, job.getAttempts());
+		assertEquals(3, calls.get());
+		assertEquals(2L, service.stats().get("retried"));
+		assertEquals(1L, service.stats().get("failed"));
+	}
+
+	@Test
+	void jobWithExpiredLeaseIsClaimedAgain() throws Exception {
+		ScheduleGenerationJobService service = service(1, 100, 5, customer -> 12);
+		customer("9000000013");
+
+		// Claimed by a worker that died before recording the outcome
+		ScheduleGenerationJob orphan = new ScheduleGenerationJob();
+		orphan.setCustomerPhone("9000000013");
+		orphan.setStatus(JobStatus.RUNNING);
+		orphan.setAttempts(1);
+		orphan.setQueuedAt(LocalDateTime.now().minusMinutes(10));
+		orphan.setNextAttemptAt(orphan.getQueuedAt());
+		orphan.setLeaseUntil(LocalDateTime.now().minusMinutes(1));
+		Long jobId = jobRepository.save(orphan).getId();
+
+		ScheduleGenerationJob job = awaitFinished(service, List.of(jobId)).get(0);
+
+		assertEquals(JobStatus.COMPLETED, job.getStatus());
+		assertEquals(2, job.getAttempts());
+	}
+
+	@Test
+	void fullOutboxReportsNoCapacity() {
+		ScheduleGenerationJobService service = service(1, 2, 5, customer -> 12);
+
+		for (int i = 0; i < 2; i++) {
+			assertTrue(service.hasCapacity());
+			// Not due yet, so nothing drains them during the test
+			ScheduleGenerationJob job = new ScheduleGenerationJob();
+			job.setCustomerPhone("900000002" + i);
+			job.setStatus(JobStatus.QUEUED);
+			job.setQueuedAt(LocalDateTime.now());
+			job.setNextAttemptAt(LocalDateTime.now().plusHours(1));
+			jobRepository.save(job);
+		}
+
+		assertFalse(service.hasCapacity());
+	}
+
+	private interface Generation {
+		int generate(Customer customer);
+	}
+
+	private ScheduleGenerationJobService service(int maxConcurrency, int maxQueued, int maxAttempts,
+			Generation generation) {
+		EMIScheduleService emiScheduleService = new EMIScheduleService() {
+			@Override
+			public int generateEMIScheduleForCustomer(Customer customer) {
+				return generation.generate(customer);
+			}
+		};
+		ScheduleGenerationJobService service = new ScheduleGenerationJobService(maxConcurrency, maxQueued, 20,
+				maxAttempts, Duration.ofMinutes(5), Duration.ZERO);
+		ReflectionTestUtils.setField(service, "jobRepository", jobRepository);
+		ReflectionTestUtils.setField(service, "customerRepository", customerRepository);
+		ReflectionTestUtils.setField(service, "emiScheduleService", emiScheduleService);
+		ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+		ReflectionTestUtils.setField(service, "executor", executor);
+		return service;
+	}
+
+	// Drains like the poller would until every job has reached a final state
+	private List<ScheduleGenerationJob> awaitFinished(ScheduleGenerationJobService service, List<Long> jobIds)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (System.nanoTime() < deadline) {
+			service.drain();
+			List<ScheduleGenerationJob> jobs = jobIds.stream()
+					.map(id -> service.findJob(id).orElseThrow())
+					.toList();
+			if (jobs.stream().allMatch(job -> job.getFinishedAt() != null)) {
+				return jobs;
+			}
+			Thread.sleep(20);
+		}
+		throw new AssertionError("jobs did not finish: " + service.stats());
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private String customer(String phone) {
+		Customer customer = new Customer();
+		customer.setName("Test " + phone);
+		customer.setPlace("Chennai");
+		customer.setJob("Driver");
+		customer.setPhoneNumber(phone);
+		customer.setAmountTaken(BigDecimal.valueOf(50000));
+		customer.setInterest(BigDecimal.valueOf(12));
+		customer.setTenure(12);
+		customer.setMonthlyEmi(BigDecimal.valueOf(4442.44));
+		customer.setTotalAmount(BigDecimal.valueOf(53309.28));
+		customer.setStartDate(LocalDate.of(2025, 1, 5));
+		customer.setEndDate(LocalDate.of(2025, 12, 5));
+		return customerRepository.save(customer).getPhoneNumber();
+	}
+}
@@ -0,0 +1,200 @@
+package com.ssdev.rsfinanceandinvestiments.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ssdev.rsfinanceandinvestiments.Enums.MonthCategory;
+import com.ssdev.rsfinanceandinvestiments.dto.MonthlyAnalyticsResponse;
+import com.ssdev.rsfinanceandinvestiments.entity.EMISchedule;
+import com.ssdev.rsfinanceandinvestiments.entity.PaymentStatus;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerBalanceRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.CustomerRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.EMIScheduleRepository;
+import com.ssdev.rsfinanceandinvestiments.repository.MonthlyPortfolioRollupRepository;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest
+@Import({ StreamingScheduleAggregator.class, AnalyticsAggregationEngine.class })
+class StreamingScheduleAggregatorTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 8, 14);
+
+	private static final int ROWS = 1_000_000;
+
+	private static final int MONTHS_PER_CUSTOMER = 50;
+
+	private static final BigDecimal EMI = BigDecimal.valueOf(2500);
+
+	@Autowired
+	private StreamingScheduleAggregator streamingAggregator;
+
+	@Autowired
+	private EMIScheduleRepository emiScheduleRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void streamingMatchesListAggregation() {
+		List<EMISchedule> schedules = AnalyticsAggregationEngineTest.syntheticPortfolio(new Random(11), 400);
+		schedules.forEach(schedule -> schedule.setId(null));
+		emiScheduleRepository.saveAll(schedules);
+		entityManager.flush();
+		entityManager.clear();
+		AnalyticsAggregationEngine engine = new AnalyticsAggregationEngine();
+
+		for (MonthCategory category : List.of(MonthCategory.ALL, MonthCategory.MARCH, MonthCategory.LAST_3_MONTHS)) {
+			AnalyticsPeriod period = AnalyticsPeriod.of(category, 2025, TODAY);
+			PortfolioAggregation expected = engine.newAggregation(TODAY);
+			schedules.stream()
+					.filter(s -> !s.getDueDate().isBefore(period.start()) && s.getDueDate().isBefore(period.end()))
+					.forEach(expected::acceptPeriod);
+			schedules.forEach(expected::acceptAll);
+
+			PortfolioAggregation streamed = streamingAggregator.aggregate(period, TODAY);
+
+			assertEquals(expected.totals(), streamed.totals(), "category " + category);
+		}
+	}
+
+	// Seeds and reads a million rows in child JVMs (about four minutes); only run on request, -Dbenchmarks=true
+	@Test
+	@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+	void allCategoryOverAMillionRowsRunsInASmallHeap(@TempDir Path databaseDir) throws Exception {
+		String database = databaseDir.resolve("analytics").toString();
+
+		// Seeding is not what is measured; only the analytics run gets the small heap
+		String seeded = runChild("-Xmx512m", "seed", database);
+		Matcher paid = Pattern.compile("rows=" + ROWS + " paid=(\\S+)").matcher(seeded);
+		assertTrue(paid.find(), seeded);
+
+		String output = runChild("-Xmx48m", "analytics", database);
+		assertTrue(output.contains("customers=" + ROWS / MONTHS_PER_CUSTOMER + " paidCustomers="
+				+ ROWS / MONTHS_PER_CUSTOMER + " paid=" + paid.group(1)), output);
+	}
+
+	private static String runChild(String maxHeap, String phase, String database) throws Exception {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		// devtools would restart main() on a fresh thread without its arguments
+		Process process = new ProcessBuilder(java, maxHeap, "-Dspring.devtools.restart.enabled=false", "-cp",
+				System.getProperty("java.class.path"), CappedHeapRun.class.getName(), phase, database)
+				.redirectErrorStream(true)
+				.start();
+
+		// Drain output so the child never blocks on a full pipe
+		String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+		assertTrue(process.waitFor(5, TimeUnit.MINUTES), "child JVM did not finish");
+		assertEquals(0, process.exitValue(), output);
+		return output;
+	}
+
+	/**
+	 * Child JVM over an H2 file database: "seed" writes a million EMI rows with
+	 * JDBC batches, "analytics" (run with a 48 MB heap) asks AnalyticsService
+	 * for the ALL analytics in IN_MEMORY mode. A million EMI entities
+	 * materialised at once would not fit, the per-customer accumulators do.
+	 */
+	static class CappedHeapRun {
+
+		public static void main(String[] args) {
+			try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AnalyticsOnly.class)
+					.web(WebApplicationType.NONE)
+					// Arguments, so they win over application.properties
+					.run("--spring.datasource.url=jdbc:h2:file:" + args[1] + ";CACHE_SIZE=4096;LAZY_QUERY_EXECUTION=TRUE",
+							"--spring.datasource.driver-class-name=org.h2.Driver",
+							"--spring.jpa.show-sql=false",
+							"--analytics.aggregation-mode=IN_MEMORY")) {
+				JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+				if (args[0].equals("seed")) {
+					seed(jdbcTemplate);
+					System.out.println("rows=" + jdbcTemplate.queryForObject("SELECT COUNT(*) FROM emi_schedules", Long.class)
+							+ " paid=" + jdbcTemplate.queryForObject(
+									"SELECT SUM(paid_amount) FROM emi_schedules WHERE status = 'PAID'", BigDecimal.class));
+				} else {
+					MonthlyAnalyticsResponse response = context.getBean(AnalyticsService.class)
+							.getMonthlyAnalytics(MonthCategory.ALL, LocalDate.now().getYear());
+					System.out.println("customers=" + response.getTotalCustomers() + " paidCustomers="
+							+ response.getPaidCustomers() + " paid=" + response.getTotalPaidAmount());
+				}
+			}
+		}
+
+		// 20,000 customers x 50 months; every seventh due row is left unpaid
+		private static void seed(JdbcTemplate jdbcTemplate) {
+			LocalDate today = LocalDate.now();
+			LocalDate start = today.minusMonths(30).withDayOfMonth(5);
+			List<Object[]> batch = new ArrayList<>();
+
+			for (int row = 0; row < ROWS; row++) {
+				int month = row % MONTHS_PER_CUSTOMER + 1;
+				LocalDate dueDate = start.plusMonths(month - 1);
+				boolean paid = !dueDate.isAfter(today) && row % 7 != 0;
+				PaymentStatus status = paid ? PaymentStatus.PAID
+						: EMIScheduleService.calculateEMIStatus(dueDate, PaymentStatus.PENDING, today);
+
+				batch.add(new Object[] { String.valueOf(9000000000L + row / MONTHS_PER_CUSTOMER), month, EMI,
+						Date.valueOf(dueDate), status.name(), paid ? Date.valueOf(dueDate) : null,
+						paid ? EMI : BigDecimal.ZERO, paid ? BigDecimal.ZERO : EMI });
+				if (batch.size() == 5_000) {
+					insert(jdbcTemplate, batch);
+					batch.clear();
+				}
+			}
+			insert(jdbcTemplate, batch);
+		}
+
+		private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+			jdbcTemplate.batchUpdate("INSERT INTO emi_schedules (customer_phone, month_number, emi_amount, due_date, "
+					+ "status, paid_date, paid_amount, pending_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+		}
+	}
+
+	/**
+	 * AnalyticsService and what it needs, over the real schema (Flyway); no web
+	 * layer or scheduled jobs
+	 */
+	@Configuration
+	@EnableAutoConfiguration
+	@EntityScan(basePackageClasses = EMISchedule.class)
+	// Only the repositories analytics reads: every extra query parsed at startup costs heap
+	@EnableJpaRepositories(basePackageClasses = EMIScheduleRepository.class, includeFilters = @Filter(
+			type = FilterType.ASSIGNABLE_TYPE, classes = { EMIScheduleRepository.class, CustomerRepository.class,
+					CustomerBalanceRepository.class, MonthlyPortfolioRollupRepository.class }))
+	@Import({ AnalyticsService.class, RecentPayerAssembler.class, AnalyticsAggregationEngine.class,
+			PortfolioRollupService.class, CustomerBalanceService.class, AnalyticsCache.class,
+			AnalyticsRequestCoalescer.class, StreamingScheduleAggregator.class })
+	static class AnalyticsOnly {
+	}
+}
@@ -0,0 +1,62 @@
+package com.ssdev.rsfinanceandinvestiments.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class HierarchicalTimerWheelTest {
+
+	@Test
+	void timersFireOnceAtTheFirstAdvancePastTheirDeadline() {
+		Random random = new Random(22);
+		long start = 29_000_000L; // about now, in epoch minutes
+		HierarchicalTimerWheel<Long> wheel = new HierarchicalTimerWheel<>(start);
+
+		// Spread from already due to years ahead, so every level is used
+		List<Long> pending = new ArrayList<>();
+		for (int i = 0; i < 5_000; i++) {
+			long deadline = start - 10 + (long) Math.pow(2, random.nextDouble() * 22);
+			wheel.schedule(deadline, deadline);
+			pending.add(deadline);
+		}
+
+		long now = start;
+		while (!pending.isEmpty()) {
+			// Steps of a minute up to a few months, like ticks and idle gaps
+			long target = now + (long) Math.pow(2, random.nextDouble() * 17);
+			List<Long> fired = wheel.advanceTo(target);
+
+			List<Long> expected = pending.stream().filter(deadline -> deadline <= target).sorted().toList();
+			assertEquals(expected, fired, "advance to " + target);
+			pending.removeAll(expected);
+			assertEquals(pending.size(), wheel.size());
+			assertEquals(target, wheel.currentTick());
+			now = target;
+
+			// New timers keep arriving relative to the moved clock
+			if (random.nextInt(4) == 0) {
+				long deadline = now + random.nextInt(100_000);
+				wheel.schedule(deadline, deadline);
+				pending.add(deadline);
+			}
+		}
+	}
+
+	@Test
+	void idleWheelJumpsAheadWithoutFiring() {
+		HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(0);
+		wheel.schedule(Long.MAX_VALUE / 2, "far");
+
+		assertTrue(wheel.advanceTo(Long.MAX_VALUE / 2 - 1).isEmpty());
+		assertEquals(List.of("far"), wheel.advanceTo(Long.MAX_VALUE / 2));
+		assertTrue(wheel.advanceTo(Long.MAX_VALUE - 1).isEmpty());
+		// The clock never moves back
+		assertTrue(wheel.advanceTo(5).isEmpty());
+		assertEquals(Long.MAX_VALUE - 1, wheel.currentTick());
+	}
+}
@@ -0,0 +1,112 @@
+package com.ssdev.rsfinanceandinvestiments.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+	private static final int CALLERS = 8;
+
+	private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+	private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void concurrentCallersShareOneComputation() throws Exception {
+		AtomicInteger computations = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+
+		List<Future<Integer>> results = submitAll(() -> singleFlight.execute("ALL-2025", () -> {
+			computations.incrementAndGet();
+			await(release);
+			return 42;
+		}, Duration.ofSeconds(10)));
+		waitUntilAllJoined();
+		release.countDown();
+
+		for (Future<Integer> result : results) {
+			assertEquals(42, result.get(10, TimeUnit.SECONDS));
+		}
+		assertEquals(1, computations.get());
+		assertEquals(1L, singleFlight.stats().get("executions"));
+		assertEquals((long) CALLERS - 1, singleFlight.stats().get("coalescedCallers"));
+		assertEquals(0, singleFlight.stats().get("inFlight"));
+	}
+
+	@Test
+	void waitersTimeOutWithoutCancellingTheLeader() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Integer> leader = executor.submit(() -> singleFlight.execute("slow", () -> {
+			await(release);
+			return 7;
+		}, Duration.ofSeconds(10)));
+		while ((int) singleFlight.stats().get("inFlight") == 0) {
+			Thread.onSpinWait();
+		}
+
+		assertThrows(RuntimeException.class, () -> singleFlight.execute("slow", () -> 0, Duration.ofMillis(50)));
+		release.countDown();
+
+		assertEquals(7, leader.get(10, TimeUnit.SECONDS));
+		assertEquals(1L, singleFlight.stats().get("timeouts"));
+	}
+
+	@Test
+	void failureReachesEveryWaiterAndIsNotRemembered() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<Integer>> results = submitAll(() -> singleFlight.execute("broken", () -> {
+			await(release);
+			throw new IllegalStateException("database down");
+		}, Duration.ofSeconds(10)));
+		waitUntilAllJoined();
+		release.countDown();
+
+		for (Future<Integer> result : results) {
+			Exception e = assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		assertEquals(1, singleFlight.execute("broken", () -> 1, Duration.ofSeconds(1)));
+	}
+
+	private List<Future<Integer>> submitAll(Callable<Integer> call) {
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(executor.submit(call));
+		}
+		return results;
+	}
+
+	private void waitUntilAllJoined() {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while ((long) singleFlight.stats().get("coalescedCallers") < CALLERS - 1 && System.nanoTime() < deadline) {
+			Thread.onSpinWait();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.ssdev.rsfinanceandinvestiments.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class StripedLocksTest {
+
+	private final StripedLocks<String> locks = new StripedLocks<>(64);
+	private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void keysOnOtherStripesAreNotHeldUp() throws Exception {
+		String held = "9000000001";
+		String other = onOtherStripe(held);
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<?> holder = executor.submit(() -> locks.withLocks(List.of(held), () -> {
+			locked.countDown();
+			await(release);
+			return null;
+		}));
+		assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+		// Finishes while the first key is still locked
+		Future<String> free = executor.submit(() -> locks.withLocks(List.of(other), () -> "done"));
+		assertEquals("done", free.get(5, TimeUnit.SECONDS));
+
+		// The same key waits for the holder
+		Future<String> blocked = executor.submit(() -> locks.withLocks(List.of(held), () -> "done"));
+		Thread.sleep(100);
+		assertFalse(blocked.isDone());
+		release.countDown();
+		assertEquals("done", blocked.get(5, TimeUnit.SECONDS));
+		holder.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void overlappingKeySetsInOppositeOrderDoNotDeadlock() throws Exception {
+		String a = "9000000001";
+		String b = onOtherStripe(a);
+		int[] counter = new int[1];
+
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			List<String> keys = i % 2 == 0 ? List.of(a, b) : List.of(b, a);
+			futures.add(executor.submit(() -> {
+				for (int n = 0; n < 1_000; n++) {
+					locks.withLocks(keys, () -> counter[0]++);
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get(10, TimeUnit.SECONDS);
+		}
+
+		// Unsynchronised increments only add up because the locks serialised them
+		assertEquals(8_000, counter[0]);
+	}
+
+	private String onOtherStripe(String key) {
+		for (int i = 2;; i++) {
+			String candidate = "900000000" + i;
+			if (locks.stripeOf(candidate) != locks.stripeOf(key)) {
+				assertNotEquals(key, candidate);
+				return candidate;
+			}
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}